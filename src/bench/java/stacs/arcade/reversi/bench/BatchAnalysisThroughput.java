@@ -0,0 +1,56 @@
+package stacs.arcade.reversi.bench;
+
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.Position;
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.ai.BatchAnalyzer;
+import stacs.arcade.reversi.ai.BatchResult;
+import stacs.arcade.reversi.ai.SimpleEvaluator;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+/**
+ * Measures the positions per second of the batch analysis of packed positions taken from random games,
+ * once on a single worker and once on one worker per available processor.
+ * Usage: BatchAnalysisThroughput [positions] [depth]
+ *
+ * @author 190023753
+ */
+public final class BatchAnalysisThroughput {
+
+	private BatchAnalysisThroughput() {
+	}
+
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		int depth = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+		ByteBuffer keys = randomPositions(count);
+		int processors = Runtime.getRuntime().availableProcessors();
+		for (int threads : processors == 1 ? new int[]{1} : new int[]{1, processors}) {
+			try (BatchAnalyzer analyzer = new BatchAnalyzer(depth, SimpleEvaluator::new, threads)) {
+				analyzer.analyze(keys.duplicate());
+				long start = System.nanoTime();
+				BatchResult result = analyzer.analyze(keys.duplicate());
+				long nanos = System.nanoTime() - start;
+				System.out.printf("%d threads, depth %d: %d positions in %.2f s, %.0f positions/s%n", threads, depth,
+						result.size(), nanos / 1e9, result.size() * 1e9 / nanos);
+			}
+		}
+	}
+
+	private static ByteBuffer randomPositions(int count) {
+		ByteBuffer keys = ByteBuffer.allocateDirect(count * Position.KEY_BYTES);
+		SplittableRandom random = new SplittableRandom(3);
+		int[] moves = new int[Bitboard.SQUARES];
+		ReversiModel model = new ReversiModel();
+		for (int i = 0; i < count; i++) {
+			if(model.isGameOver())
+				model = new ReversiModel();
+			Position.writeKey(model, keys);
+			int square = moves[random.nextInt(model.legalMoves(model.nextToMove(), moves))];
+			model.tryMove(model.nextToMove(), Bitboard.x(square), Bitboard.y(square));
+		}
+		return keys.flip();
+	}
+}
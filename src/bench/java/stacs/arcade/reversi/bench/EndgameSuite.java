@@ -0,0 +1,75 @@
+package stacs.arcade.reversi.bench;
+
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.Position;
+import stacs.arcade.reversi.ai.EndgameSolver;
+import stacs.arcade.reversi.ai.SearchResult;
+
+/**
+ * Solves a fixed suite of endgame positions, checks every score against the known result and prints the nodes,
+ * time and speed of each position.
+ * The first positions are from the FFO endgame test suite, with their published scores and best moves, which checks
+ * the solver against results found independently of it. The others, with 14 to 20 empty fields, come from games
+ * between shallow searches and only have their scores checked.
+ * Positions are given in the text notation of Position, with the exact final disc difference for the player to
+ * move, the empty fields counted for the winner.
+ * Usage: EndgameSuite [minimum empty fields [maximum empty fields]]
+ *
+ * @author 190023753
+ */
+public final class EndgameSuite {
+
+	private static final String[] NAMES = {
+			"FFO #40", "FFO #41",
+			"#1", "#2", "#3", "#4", "#5", "#6", "#7", "#8", "#9", "#10", "#11", "#12", "#13", "#14", "#15", "#16",
+	};
+	private static final String[] POSITIONS = {
+			"O--OOOOX-OOOOOOXOOXXOOOXOOXOOOXXOOOOOOXX---OOOOX----O--X-------- X",
+			"-OOOOO----OOOOX--OOOOOO-XXXXXOO--XXOOX--OOXOXX----OXXO---OOO--O- X",
+			"--XXXXXX--XXXXXX---XOXOXOOOOXOOOOOXOOXOOOOOOOOOOOOOO-XO-OO---X-- X",
+			"OX------OXXXXO--OXXXXOOOOXOOOOOOOXOOXOOOOOOOOOOOO--OOOOO----OOOO X",
+			"--XXXXXX--XXXXXX-OXXXXXXX-OXXXXX-XXOXXXXOOXOOOOO-XXXOO-O--X-O--O X",
+			"-XXXXXXX-OXOOXXXOXOOOXXXXXXOOXXXOOOXOOOX-OOOXXOX---OOXOO-------- X",
+			"XX------XXXXOX--XXOOOOXOXXOXOXOXXXOXOXXXXXOOXXXX--OOOXXX------XX X",
+			"XXXXX---XXOXX---XOXXXX-OXXXXXOO-XXXOXOO-XXXOOOO----OOOOO---OOOOO X",
+			"-OOOOOOO-XXXXOO-OXXOOO--OXXOXOO-OXOOXX--OOXOX---OXOXO---OOOOOO-- X",
+			"O-OX---OOOXXX-O-OOOOOO--OOOOOOO-OOOXOO--OOOXXXXXO-XXXXX----XXXXX X",
+			"-OOOOO---XOOO---X-XOOO--XXOXXXXXXXOOXOXXXXOXXXOXX-OOOOX--XO----- X",
+			"-XXXXXXX--XXXXXOXOOOOOOO-XOOOOOO-XXXOXOOXXOXXXXX--OOX----------- X",
+			"X--------XXXO-XO-OOOOXXO--OOXOXOXXXOOOXO-XXOOOXO--XOOOOO---OOOOO X",
+			"-O-OOX----OOOOOXOOOOOOOXOOXXOOOXOOXOOOOX--OXXXOX-OO--XXX-------X X",
+			"----O--X---OO-X-OOOOOOO-XXXOOO--OXXOOXX-OXXOOOO-OXOOO---OOOOOOO- X",
+			"X-OOOO---XXXO---XXXOOO--XXOOOOOOXOOOXX----OOXXXX--O-XOXX----XXXX X",
+			"XXXXXXX--OOOOX--OOXXXO--OOXXXOXO--XXXOXO--XXXXOO---XX--O--XXX--- X",
+			"O-OXXX-O-OOOXXO--OOXXOO-OOXXXOO--XOOXO--XXXOXX---OOXOO--O---XO-- X",
+	};
+	private static final int[] SCORES = {38, 0, 10, -38, 8, 28, 32, 12, -24, -22, -26, -8, -26, 32, 16, 12, 30, -4};
+	/* The published best moves of the FFO positions, each of which has a single best move. */
+	private static final String[] MOVES = {"a2", "h4"};
+
+	private EndgameSuite() {
+	}
+
+	public static void main(String[] args) {
+		int minimumEmpties = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+		int maximumEmpties = args.length > 1 ? Integer.parseInt(args[1]) : Bitboard.SQUARES;
+		EndgameSolver solver = new EndgameSolver();
+		long totalNodes = 0, totalNanos = 0;
+		for (int i = 0; i < POSITIONS.length; i++) {
+			Position position = Position.parse(POSITIONS[i]);
+			int empties = Bitboard.SQUARES - position.getMoveCount();
+			if(empties < minimumEmpties || empties > maximumEmpties)
+				continue;
+			SearchResult result = solver.solve(position.toModel());
+			totalNodes += result.getNodes();
+			totalNanos += result.getElapsedNanos();
+			String move = "" + (char) ('a' + result.getX()) + (result.getY() + 1);
+			System.out.println(NAMES[i] + " " + empties + " empty: score " + result.getScore()
+					+ (result.getScore() == SCORES[i] ? "" : " WRONG, expected " + SCORES[i])
+					+ (i >= MOVES.length || move.equals(MOVES[i]) ? "" : " WRONG move " + move + ", expected " + MOVES[i])
+					+ ", " + result);
+		}
+		System.out.println("total: " + totalNodes + " nodes in " + totalNanos / 1_000_000 + " ms, "
+				+ (totalNanos == 0 ? 0 : totalNodes * 1_000_000_000L / totalNanos) + " nodes/sec");
+	}
+}
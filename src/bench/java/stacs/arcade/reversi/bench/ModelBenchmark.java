@@ -0,0 +1,114 @@
+package stacs.arcade.reversi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.MoveResult;
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.ReversiModel.PlayerColour;
+import stacs.arcade.reversi.metrics.MoveMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the model's hot paths on the reference midgame positions.
+ *
+ * @author 190023753
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+	@Param({"0", "1", "2", "3"})
+	public int position;
+
+	private ReversiModel model;
+	private ReversiModel metered;
+	private final int[] moves = new int[Bitboard.SQUARES];
+	private int moveCount, nextMove;
+	private int occupiedX, occupiedY;
+
+	@Setup
+	public void setup() {
+		model = ReferencePositions.play(ReferencePositions.MIDGAME[position]);
+		metered = new ReversiModel(model);
+		metered.setMetrics(new MoveMetrics());
+		moveCount = model.legalMoves(model.nextToMove(), moves);
+		int occupied = Long.numberOfTrailingZeros(model.getBitboard(PlayerColour.BLACK));
+		occupiedX = Bitboard.x(occupied);
+		occupiedY = Bitboard.y(occupied);
+	}
+
+	/** makeMove and unmakeMove of each legal move in turn. */
+	@Benchmark
+	public void makeMove() throws IllegalMoveException {
+		int square = moves[nextMove];
+		nextMove = nextMove + 1 == moveCount ? 0 : nextMove + 1;
+		model.makeMove(model.nextToMove(), Bitboard.x(square), Bitboard.y(square));
+		model.unmakeMove();
+	}
+
+	/** makeMove and unmakeMove as above on a model recording into MoveMetrics. */
+	@Benchmark
+	public void makeMoveWithMetrics() throws IllegalMoveException {
+		int square = moves[nextMove];
+		nextMove = nextMove + 1 == moveCount ? 0 : nextMove + 1;
+		metered.makeMove(metered.nextToMove(), Bitboard.x(square), Bitboard.y(square));
+		metered.unmakeMove();
+	}
+
+	/** An occupied field rejected by makeMove, which throws a new IllegalMoveException. */
+	@Benchmark
+	public Object rejectByException() {
+		try {
+			model.makeMove(model.nextToMove(), occupiedX, occupiedY);
+			return null;
+		} catch (IllegalMoveException e) {
+			return e;
+		}
+	}
+
+	/** The same field rejected by tryMove, which returns a constant. */
+	@Benchmark
+	public MoveResult rejectByResult() {
+		return model.tryMove(model.nextToMove(), occupiedX, occupiedY);
+	}
+
+	/** The capture scan behind getFlips, for every legal move of the position. */
+	@Benchmark
+	public void captureScan(Blackhole blackhole) {
+		long own = model.getBitboard(model.nextToMove());
+		long opponent = model.getBitboard(model.nextToMove() == PlayerColour.BLACK ? PlayerColour.WHITE : PlayerColour.BLACK);
+		for (int i = 0; i < moveCount; i++)
+			blackhole.consume(Bitboard.flips(own, opponent, moves[i]));
+	}
+
+	/** getAt over every field of the board. */
+	@Benchmark
+	public void getAtFullBoard(Blackhole blackhole) {
+		for (int x = 0; x < Bitboard.SIZE; x++)
+			for (int y = 0; y < Bitboard.SIZE; y++)
+				blackhole.consume(model.getAt(x, y));
+	}
+
+	/** Legal move generation for the player to move. */
+	@Benchmark
+	public long legalMoves() {
+		return model.legalMoves(model.nextToMove());
+	}
+}
@@ -0,0 +1,36 @@
+package stacs.arcade.reversi.bench;
+
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.ai.MonteCarloSearch;
+import stacs.arcade.reversi.ai.SearchResult;
+
+/**
+ * Measures the playouts per second of the Monte Carlo tree search from the empty board and from a reference
+ * midgame position, once on a single thread and once with one thread per available processor.
+ * Usage: MonteCarloThroughput [budgetMillis] [nodes]
+ *
+ * @author 190023753
+ */
+public final class MonteCarloThroughput {
+
+	private MonteCarloThroughput() {
+	}
+
+	public static void main(String[] args) {
+		long budget = args.length > 0 ? Long.parseLong(args[0]) : 2000;
+		int nodes = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 21;
+		int processors = Runtime.getRuntime().availableProcessors();
+		ReversiModel[] positions = {new ReversiModel(), ReferencePositions.play(ReferencePositions.MIDGAME[0])};
+		String[] names = {"empty board", "midgame"};
+		for (int threads : processors == 1 ? new int[]{1} : new int[]{1, processors}) {
+			try (MonteCarloSearch search = new MonteCarloSearch(threads, nodes, MonteCarloSearch.DEFAULT_EXPLORATION, 1)) {
+				search.search(positions[0], budget / 2);
+				for (int i = 0; i < positions.length; i++) {
+					SearchResult result = search.search(positions[i], budget);
+					System.out.printf("%d threads, %s: %d playouts/s, depth %d, score %d%n", threads, names[i],
+							result.getNodesPerSecond(), result.getDepth(), result.getScore());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package stacs.arcade.reversi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.ai.AlphaBetaSearch;
+import stacs.arcade.reversi.ai.SearchResult;
+import stacs.arcade.reversi.book.OpeningBook;
+import stacs.arcade.reversi.book.OpeningBookBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of opening book lookups, on a book of every position up to four moves after the initial moves.
+ *
+ * @author 190023753
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpeningBookBenchmark {
+
+	private Path file;
+	private OpeningBook book;
+	private ReversiModel hit, miss;
+
+	@Setup
+	public void setup() throws IOException {
+		file = Files.createTempFile("opening-book", ".bin");
+		OpeningBookBuilder builder = new OpeningBookBuilder(new AlphaBetaSearch(), 1);
+		builder.addTree(4);
+		builder.write(file);
+		book = new OpeningBook(file);
+		hit = ReferencePositions.play(ReferencePositions.EARLY_MIDGAME[0].substring(0, 16));
+		miss = ReferencePositions.play(ReferencePositions.EARLY_MIDGAME[0]);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		book.close();
+		Files.delete(file);
+	}
+
+	/** A lookup of a position in the book, including finding its canonical orientation. */
+	@Benchmark
+	public SearchResult lookupHit() {
+		return book.lookup(hit);
+	}
+
+	/** A lookup of a position that is not in the book. */
+	@Benchmark
+	public SearchResult lookupMiss() {
+		return book.lookup(miss);
+	}
+}
@@ -0,0 +1,52 @@
+package stacs.arcade.reversi.bench;
+
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.ai.ParallelSearch;
+import stacs.arcade.reversi.ai.SearchResult;
+import stacs.arcade.reversi.ai.SimpleEvaluator;
+import stacs.arcade.reversi.ai.TranspositionTable;
+
+/**
+ * Measures how the nodes per second of ParallelSearch scale from 1 to N threads on the reference midgame positions.
+ * Usage: ParallelSearchScaling [maxThreads] [millisPerPosition]
+ *
+ * @author 190023753
+ */
+public final class ParallelSearchScaling {
+
+	private static final int TABLE_BITS = 22;
+
+	private ParallelSearchScaling() {
+	}
+
+	public static void main(String[] args) {
+		int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		long millis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+		ReversiModel[] positions = ReferencePositions.playAll(ReferencePositions.MIDGAME);
+
+		System.out.printf("%8s %14s %14s %8s%n", "threads", "nodes", "nodes/sec", "speedup");
+		long baseline = 0;
+		for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+			TranspositionTable table = new TranspositionTable(TABLE_BITS, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+			long nodes = 0, nanos = 0;
+			try (ParallelSearch search = new ParallelSearch(threads, SimpleEvaluator::new, table)) {
+				search.search(positions[0], millis);
+				for (ReversiModel position : positions) {
+					table.clear();
+					SearchResult result = search.search(position, millis);
+					nodes += result.getNodes();
+					nanos += result.getElapsedNanos();
+				}
+			}
+			long nodesPerSecond = nodes * 1_000_000_000L / nanos;
+			if(baseline == 0)
+				baseline = nodesPerSecond;
+			System.out.printf("%8d %14d %14d %8.2f%n", threads, nodes, nodesPerSecond, (double) nodesPerSecond / baseline);
+		}
+	}
+
+	/* Doubles the thread count, measuring maxThreads itself even if it is not a power of two. */
+	private static int nextThreadCount(int threads, int maxThreads) {
+		return threads < maxThreads ? Math.min(threads * 2, maxThreads) : threads + 1;
+	}
+}
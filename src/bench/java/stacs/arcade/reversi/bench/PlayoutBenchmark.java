@@ -0,0 +1,66 @@
+package stacs.arcade.reversi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.perft.Perft;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of whole-game workloads: random playouts from the empty board and perft from a reference position.
+ *
+ * @author 190023753
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayoutBenchmark {
+
+	private static final long SEED = 20191031L;
+
+	@Param({"3", "5"})
+	public int perftDepth;
+
+	private final int[] moves = new int[Bitboard.SQUARES];
+	private SplittableRandom random;
+	private ReversiModel start;
+
+	@Setup
+	public void setup() {
+		random = new SplittableRandom(SEED);
+		start = ReferencePositions.play(ReferencePositions.EARLY_MIDGAME[0]);
+	}
+
+	/** A random game from the empty board until the game is over. */
+	@Benchmark
+	public int randomPlayout() throws IllegalMoveException {
+		ReversiModel model = new ReversiModel();
+		while (!model.isGameOver()) {
+			int square = moves[random.nextInt(model.legalMoves(model.nextToMove(), moves))];
+			model.makeMove(model.nextToMove(), Bitboard.x(square), Bitboard.y(square));
+		}
+		return model.getNoBlackStones() - model.getNoWhiteStones();
+	}
+
+	/** Counts the leaf positions perftDepth moves below the first early midgame position. */
+	@Benchmark
+	public long perft() {
+		return Perft.perft(start, perftDepth);
+	}
+}
@@ -0,0 +1,63 @@
+package stacs.arcade.reversi.bench;
+
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.ReversiModel;
+
+/**
+ * A fixed set of reference positions for benchmarks, so that results can be compared across versions.
+ * Each position is given as the sequence of moves leading to it from the empty board, one field per move
+ * written as a column letter a-h (x = 0-7) followed by a row number 1-8 (y = 0-7).
+ *
+ * @author 190023753
+ */
+public final class ReferencePositions {
+
+	/** Positions after 24 moves. */
+	public static final String[] EARLY_MIDGAME = {
+			"d5e4d4e5f3e3f6c6f4e6b7g6e2c4g7d3b4b3g5a8c3f1d2h6",
+			"d5d4e5e4d3e6f4c5d6c6b6b4b5a4c7c4b3f5f6f3f2e7f8c8",
+			"d5e5d4e4f3c3e6d6c7f4c5b6b5g2h1b8a7a5c4d3b3e3d2e7",
+			"d5e4e5d4f3f4d3d6g4e3f5g3f2e2d2g2h4f6h2c1c7d7c4b7",
+	};
+
+	/** Positions after 30 moves. */
+	public static final String[] MIDGAME = {
+			"d5e4d4e5f4c5f6f5d6e3g6d7c4g3f3g5e6g7c8d3c3g2b6b5c7e7a6e2h5b8",
+			"d5d4e5e4f3f6d3e3f4c5d6f5f2f1g3h4b5c2g7b6d2e6g1c3g5c4b2f7h3a6",
+			"d5e5e4d4c4e3f5g6e2c5b6e1f2g3f4b5e6b7f6e7c6d3d8d7h6g7g5g4f3c3",
+			"d5e4e5d4c3e6f4e3f5c4e2f2e7f6g7f7d6e8b3e1d3c7f8g6g8f3g3d7d8h7",
+	};
+
+	private ReferencePositions() {
+	}
+
+	/**
+	 * Plays a move sequence from the empty board.
+	 *
+	 * @param moves the moves, two characters per move
+	 * @return the model holding the resulting position
+	 */
+	public static ReversiModel play(String moves) {
+		ReversiModel model = new ReversiModel();
+		try {
+			for (int i = 0; i < moves.length(); i += 2)
+				model.makeMove(model.nextToMove(), moves.charAt(i) - 'a', moves.charAt(i + 1) - '1');
+		} catch (IllegalMoveException e) {
+			throw new IllegalArgumentException("Not a legal move sequence: " + moves, e);
+		}
+		return model;
+	}
+
+	/**
+	 * Plays every move sequence of the given set.
+	 *
+	 * @param set the move sequences
+	 * @return the models holding the resulting positions
+	 */
+	public static ReversiModel[] playAll(String[] set) {
+		ReversiModel[] models = new ReversiModel[set.length];
+		for (int i = 0; i < set.length; i++)
+			models[i] = play(set[i]);
+		return models;
+	}
+}
@@ -0,0 +1,72 @@
+package stacs.arcade.reversi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.Position;
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.record.GameRecord;
+import stacs.arcade.reversi.record.GameReplay;
+import stacs.arcade.reversi.record.PositionCache;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of jumping to a random move of a recorded game: by replaying from the empty board,
+ * from the nearest checkpoint, and through a position cache holding every position viewed.
+ *
+ * @author 190023753
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark {
+
+	private GameRecord record;
+	private GameReplay checkpoints;
+	private GameReplay cached;
+	private SplittableRandom random;
+
+	@Setup
+	public void setup() throws IllegalMoveException {
+		record = GameRecord.of(ReferencePositions.play(ReferencePositions.MIDGAME[0]));
+		checkpoints = new GameReplay(record, null);
+		cached = new GameReplay(record, new PositionCache(1 << 20));
+		random = new SplittableRandom(1);
+	}
+
+	/** A new model replaying every move up to the target. */
+	@Benchmark
+	public Position fullReplay() {
+		int ply = random.nextInt(record.getMoveCount() + 1);
+		ReversiModel model = new ReversiModel();
+		for (int i = 0; i < ply; i++)
+			model.tryMove(model.nextToMove(), Bitboard.x(record.getMove(i)), Bitboard.y(record.getMove(i)));
+		return Position.of(model);
+	}
+
+	/** The nearest checkpoint and at most seven moves. */
+	@Benchmark
+	public Position fromCheckpoint() {
+		return checkpoints.positionAt(random.nextInt(record.getMoveCount() + 1));
+	}
+
+	/** A cache lookup, once every position has been viewed. */
+	@Benchmark
+	public Position fromCache() {
+		return cached.positionAt(random.nextInt(record.getMoveCount() + 1));
+	}
+}
@@ -0,0 +1,30 @@
+package stacs.arcade.reversi.bench;
+
+import stacs.arcade.reversi.selfplay.RandomPolicy;
+import stacs.arcade.reversi.selfplay.SelfPlaySimulator;
+import stacs.arcade.reversi.selfplay.SelfPlayStats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the games per second of random self-play with one thread per available processor.
+ * Usage: SelfPlayThroughput [games] [threads]
+ *
+ * @author 190023753
+ */
+public final class SelfPlayThroughput {
+
+	private SelfPlayThroughput() {
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		LongAdder received = new LongAdder();
+		SelfPlaySimulator simulator = new SelfPlaySimulator(threads, Thread::new, RandomPolicy::new, 1L, 1024);
+
+		simulator.run(games / 10, batch -> received.add(batch.size()));
+		SelfPlayStats stats = simulator.run(games, batch -> received.add(batch.size()));
+		System.out.println(threads + " threads: " + stats);
+	}
+}
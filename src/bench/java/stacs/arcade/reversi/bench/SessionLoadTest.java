@@ -0,0 +1,167 @@
+package stacs.arcade.reversi.bench;
+
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.Position;
+import stacs.arcade.reversi.metrics.LatencyHistogram;
+import stacs.arcade.reversi.metrics.MoveMetrics;
+import stacs.arcade.reversi.server.GameSession;
+import stacs.arcade.reversi.server.SessionManager;
+import stacs.arcade.reversi.server.SessionServer;
+import stacs.arcade.reversi.server.VirtualThreads;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Drives many simulated clients against a SessionManager, each playing random games in a session of its own,
+ * and reports the moves per second and the latency percentiles of the moves.
+ * The in-process clients chain their moves on the futures of the sessions, so they need no thread each;
+ * the socket clients hold a connection and a thread each and play over the loopback protocol.
+ * Usage: SessionLoadTest [clients] [gamesPerClient] [socketClients]
+ *
+ * @author 190023753
+ */
+public final class SessionLoadTest {
+
+	private SessionLoadTest() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		int clients = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		int games = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+		int socketClients = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+		System.out.println("Virtual threads: " + (VirtualThreads.available() ? "yes" : "no"));
+
+		try (SessionManager sessions = new SessionManager()) {
+			runInProcess(sessions, clients / 10, games);
+			sessions.getMoveLatency().reset();
+			report(clients + " in-process clients", runInProcess(sessions, clients, games), sessions.getMoveLatency(),
+					sessions.getMoveMetrics());
+
+			sessions.getMoveLatency().reset();
+			LatencyHistogram roundTrips = new LatencyHistogram();
+			try (SessionServer server = new SessionServer(sessions, 0)) {
+				long nanos = runOverSockets(server.getPort(), socketClients, games, roundTrips);
+				report(socketClients + " socket clients", nanos, sessions.getMoveLatency());
+				System.out.println("  round trips: " + roundTrips);
+			}
+		}
+	}
+
+	private static void report(String name, long nanos, LatencyHistogram latency) {
+		System.out.printf("%s: %d moves in %.2f s, %.0f moves/s%n", name, latency.getCount(), nanos / 1e9,
+				latency.getCount() * 1e9 / nanos);
+		System.out.println("  queue to applied: " + latency);
+	}
+
+	private static void report(String name, long nanos, LatencyHistogram latency, MoveMetrics metrics) {
+		report(name, nanos, latency);
+		System.out.println("  model: " + metrics);
+	}
+
+	/**
+	 * Starts all clients at once and waits until every one has played its games.
+	 * @return the elapsed nanoseconds
+	 */
+	private static long runInProcess(SessionManager sessions, int clients, int games) throws InterruptedException {
+		CountDownLatch done = new CountDownLatch(clients);
+		SplittableRandom master = new SplittableRandom(1);
+		long start = System.nanoTime();
+		for (int i = 0; i < clients; i++) {
+			SplittableRandom random = master.split();
+			playGames(sessions, games, random).whenComplete((result, failure) -> {
+				if(failure != null)
+					failure.printStackTrace();
+				done.countDown();
+			});
+		}
+		done.await();
+		return System.nanoTime() - start;
+	}
+
+	private static CompletableFuture<Void> playGames(SessionManager sessions, int games, SplittableRandom random) {
+		CompletableFuture<Void> all = CompletableFuture.completedFuture(null);
+		for (int game = 0; game < games; game++) {
+			all = all.thenCompose(previous -> {
+				GameSession session = sessions.create();
+				return playOn(session, session.getPosition(), random)
+						.thenRun(() -> sessions.remove(session.getId()));
+			});
+		}
+		return all;
+	}
+
+	/** Plays a random move from the position and continues when the session has applied it. */
+	private static CompletableFuture<Void> playOn(GameSession session, Position position, SplittableRandom random) {
+		long moves = position.legalMoves();
+		if(moves == 0)
+			return CompletableFuture.completedFuture(null);
+		int square = randomSquare(moves, random);
+		return session.move(position.nextToMove(), Bitboard.x(square), Bitboard.y(square))
+				.thenCompose(next -> playOn(session, next, random));
+	}
+
+	private static int randomSquare(long moves, SplittableRandom random) {
+		for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--)
+			moves &= moves - 1;
+		return Long.numberOfTrailingZeros(moves);
+	}
+
+	/**
+	 * Connects all socket clients at once and waits until every one has played its games.
+	 * @return the elapsed nanoseconds
+	 */
+	private static long runOverSockets(int port, int clients, int games, LatencyHistogram roundTrips) throws InterruptedException {
+		ThreadFactory threads = VirtualThreads.factory("reversi-load-client");
+		Thread[] running = new Thread[clients];
+		SplittableRandom master = new SplittableRandom(2);
+		long start = System.nanoTime();
+		for (int i = 0; i < clients; i++) {
+			SplittableRandom random = master.split();
+			running[i] = threads.newThread(() -> playOverSocket(port, games, random, roundTrips));
+			running[i].start();
+		}
+		for (Thread thread : running)
+			thread.join();
+		return System.nanoTime() - start;
+	}
+
+	private static void playOverSocket(int port, int games, SplittableRandom random, LatencyHistogram roundTrips) {
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+			 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+			socket.setTcpNoDelay(true);
+			for (int game = 0; game < games; game++) {
+				out.println("NEW");
+				String id = in.readLine().substring(3);
+				out.println("STATE " + id);
+				Position position = Position.parse(in.readLine().substring(3));
+				while (position.legalMoves() != 0) {
+					int square = randomSquare(position.legalMoves(), random);
+					long sent = System.nanoTime();
+					out.println("MOVE " + id + " " + position.toString().charAt(Bitboard.SQUARES + 1) + " "
+							+ (char) ('a' + Bitboard.x(square)) + (Bitboard.y(square) + 1));
+					String reply = in.readLine();
+					roundTrips.record(System.nanoTime() - sent);
+					if(!reply.startsWith("OK "))
+						throw new IllegalStateException("Move rejected: " + reply);
+					position = Position.parse(reply.substring(3));
+				}
+				out.println("CLOSE " + id);
+				in.readLine();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
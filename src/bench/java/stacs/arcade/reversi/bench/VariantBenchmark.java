@@ -0,0 +1,55 @@
+package stacs.arcade.reversi.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import stacs.arcade.reversi.variant.VariantModel;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the variant boards: one long per bitset up to 8x8, an array of longs for 10x10 and 16x16.
+ * A random game from the empty board measures move making and the move generation behind it.
+ *
+ * @author 190023753
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariantBenchmark {
+
+	@Param({"6", "8", "10", "16"})
+	public int size;
+
+	private int[] moves;
+	private final SplittableRandom random = new SplittableRandom(1);
+
+	@Setup
+	public void setup() {
+		moves = new int[size * size];
+	}
+
+	/** A whole game of random moves; the result is the number of moves, to be divided out of the time. */
+	@Benchmark
+	public int randomGame() {
+		VariantModel model = new VariantModel(size);
+		while (!model.isGameOver()) {
+			int count = model.legalMoves(model.nextToMove(), moves);
+			int square = moves[random.nextInt(count)];
+			model.tryMove(model.nextToMove(), square % size, square / size);
+		}
+		return model.getTotalMoves();
+	}
+}
@@ -0,0 +1,157 @@
+package stacs.arcade.reversi;
+
+/**
+ * Bitboard helpers for the 8x8 Reversi board.
+ * A board is held as two long masks, one per colour. The field (x,y) maps to bit y * 8 + x,
+ * so shifting by one moves along x and shifting by eight moves along y.
+ * All methods are static and allocation-free.
+ *
+ * @author 190023753
+ */
+public final class Bitboard {
+
+	public static final int SIZE = 8;
+	public static final int SQUARES = SIZE * SIZE;
+
+	private static final long NOT_FIRST_COLUMN = 0xFEFEFEFEFEFEFEFEL;
+	private static final long NOT_LAST_COLUMN = 0x7F7F7F7F7F7F7F7FL;
+	private static final long INNER_COLUMNS = NOT_FIRST_COLUMN & NOT_LAST_COLUMN;
+
+	private Bitboard() {
+	}
+
+	/**
+	 * Returns the index of the bit representing the field (x,y).
+	 * @param x the x position of the field
+	 * @param y the y position of the field
+	 * @return the square index, 0-63
+	 */
+	public static int square(int x, int y) {
+		return y * SIZE + x;
+	}
+
+	/**
+	 * Returns the x position of a square index.
+	 * @param square the square index, 0-63
+	 * @return the x position of the field
+	 */
+	public static int x(int square) {
+		return square & (SIZE - 1);
+	}
+
+	/**
+	 * Returns the y position of a square index.
+	 * @param square the square index, 0-63
+	 * @return the y position of the field
+	 */
+	public static int y(int square) {
+		return square >>> 3;
+	}
+
+	/**
+	 * Returns a mask with only the bit of the field (x,y) set.
+	 * @param x the x position of the field
+	 * @param y the y position of the field
+	 * @return the single bit mask
+	 */
+	public static long bit(int x, int y) {
+		return 1L << square(x, y);
+	}
+
+	/**
+	 * Writes the index of every set bit of the mask into the buffer, lowest square first.
+	 * @param mask the mask to list
+	 * @param buffer an array of at least SQUARES entries that receives the square indices
+	 * @return the number of squares written to the buffer
+	 */
+	public static int squares(long mask, int[] buffer) {
+		int count = 0;
+		while (mask != 0) {
+			buffer[count++] = Long.numberOfTrailingZeros(mask);
+			mask &= mask - 1;
+		}
+		return count;
+	}
+
+	/**
+	 * Computes the pieces of the opponent that would be captured if the player placed a piece on the given square.
+	 * For each direction the run of opponent pieces next to the square is filled, and captured if a piece
+	 * of the player closes it.
+	 * The square itself is not checked for being empty.
+	 * @param own the pieces of the player making the move
+	 * @param opponent the pieces of the opponent
+	 * @param square the square the player wants to place its piece on
+	 * @return the mask of captured pieces, 0 if the move captures nothing
+	 */
+	public static long flips(long own, long opponent, int square) {
+		long move = 1L << square;
+		return lineUp(move, own, opponent, 1, NOT_FIRST_COLUMN)
+				| lineUp(move, own, opponent, 7, NOT_LAST_COLUMN)
+				| lineUp(move, own, opponent, 8, -1L)
+				| lineUp(move, own, opponent, 9, NOT_FIRST_COLUMN)
+				| lineDown(move, own, opponent, 1, NOT_LAST_COLUMN)
+				| lineDown(move, own, opponent, 7, NOT_FIRST_COLUMN)
+				| lineDown(move, own, opponent, 8, -1L)
+				| lineDown(move, own, opponent, 9, NOT_LAST_COLUMN);
+	}
+
+	/* The pieces captured along one direction towards higher bits: the run of opponent pieces next to the move,
+	 * if a piece of the player closes it. Called with constant arguments, so that each call compiles to straight code.
+	 */
+	private static long lineUp(long move, long own, long opponent, int amount, long mask) {
+		long line = (move << amount) & mask & opponent;
+		if(line == 0)
+			return 0;
+		line |= (line << amount) & mask & opponent;
+		line |= (line << amount) & mask & opponent;
+		line |= (line << amount) & mask & opponent;
+		line |= (line << amount) & mask & opponent;
+		line |= (line << amount) & mask & opponent;
+		return ((line << amount) & mask & own) != 0 ? line : 0;
+	}
+
+	/* The same as lineUp towards lower bits. */
+	private static long lineDown(long move, long own, long opponent, int amount, long mask) {
+		long line = (move >>> amount) & mask & opponent;
+		if(line == 0)
+			return 0;
+		line |= (line >>> amount) & mask & opponent;
+		line |= (line >>> amount) & mask & opponent;
+		line |= (line >>> amount) & mask & opponent;
+		line |= (line >>> amount) & mask & opponent;
+		line |= (line >>> amount) & mask & opponent;
+		return ((line >>> amount) & mask & own) != 0 ? line : 0;
+	}
+
+	/**
+	 * Computes every empty square on which the player would capture at least one piece of the opponent.
+	 * Uses a fill along each direction, so the cost does not depend on the number of pieces.
+	 * @param own the pieces of the player to move
+	 * @param opponent the pieces of the opponent
+	 * @return the mask of squares that are legal capturing moves
+	 */
+	public static long legalMoves(long own, long opponent) {
+		/* A run of captured pieces along a row or diagonal never includes the first or last column. */
+		long inner = opponent & INNER_COLUMNS;
+		return (movesAlong(own, inner, 1) | movesAlong(own, opponent, 8) | movesAlong(own, inner, 7)
+				| movesAlong(own, inner, 9)) & ~(own | opponent);
+	}
+
+	/* The fields beyond a run of capturable pieces next to the player's pieces along one line, in both directions,
+	 * occupied or not. The runs are filled by doubling the step, so each direction takes three steps instead of six.
+	 * Called with constant arguments like lineUp.
+	 */
+	private static long movesAlong(long own, long capturable, int amount) {
+		long up = capturable & (own << amount);
+		long down = capturable & (own >>> amount);
+		up |= capturable & (up << amount);
+		down |= capturable & (down >>> amount);
+		long pairsUp = capturable & (capturable << amount);
+		long pairsDown = capturable & (capturable >>> amount);
+		up |= pairsUp & (up << 2 * amount);
+		down |= pairsDown & (down >>> 2 * amount);
+		up |= pairsUp & (up << 2 * amount);
+		down |= pairsDown & (down >>> 2 * amount);
+		return up << amount | down >>> amount;
+	}
+}
@@ -2,6 +2,8 @@ package stacs.arcade.reversi;
 
 public class IllegalMoveException extends Exception {
 
+	private static final long serialVersionUID = 1L;
+
 	public IllegalMoveException(String string) {
 		super(string);
 	}
@@ -0,0 +1,37 @@
+package stacs.arcade.reversi;
+
+/**
+ * The outcome of a move attempted with ReversiModel.tryMove: either OK, or the reason the move was rejected.
+ * Rejections are constants, so refusing a move allocates nothing.
+ *
+ * @author 190023753
+ */
+public enum MoveResult {
+
+	OK("The move was made"),
+	WRONG_TURN("This is not your turn, you cannot perform that move now."),
+	OUT_OF_BOUNDS("Field does not exists"),
+	OCCUPIED("This piece is occupied"),
+	NO_CAPTURE("Does not result to a captured piece of the opponent"),
+	OPENING_CONSTRAINT("This is an illegal move. The 4 initial pieces must be placed in the center");
+
+	private final String message;
+
+	MoveResult(String message) {
+		this.message = message;
+	}
+
+	/**
+	 * @return true if the move was made
+	 */
+	public boolean isLegal() {
+		return this == OK;
+	}
+
+	/**
+	 * @return a description of the outcome, as used in the message of IllegalMoveException
+	 */
+	public String getMessage() {
+		return message;
+	}
+}
@@ -0,0 +1,294 @@
+package stacs.arcade.reversi;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An immutable Reversi position: the pieces of both players, the player to move and the number of moves made.
+ * Every move places one piece, so the move count is the number of pieces on the board and is not stored separately.
+ * A full board has no player to move and is always recorded with BLACK to move, so that every position has
+ * exactly one encoding. A player without a legal move passes, so a position where only the opponent can move is
+ * recorded with the opponent to move, as the model does after every move.
+ * <p>
+ * The text notation lists the 64 fields row by row from (0,0), X for BLACK, O for WHITE and - for an empty
+ * field, followed by a space and X or O for the player to move.
+ * <p>
+ * The key is the packed form in KEY_BYTES bytes: the BLACK and the WHITE bitboard. While WHITE is to move,
+ * the lowest empty field is set in both bitboards, which no real position can do, so the key needs no extra
+ * byte for the player to move. Keys can be written to and read from any ByteBuffer, straight from a model.
+ *
+ * @author 190023753
+ */
+public final class Position {
+
+	public static final int KEY_BYTES = 2 * Long.BYTES;
+
+	private static final char BLACK_FIELD = 'X';
+	private static final char WHITE_FIELD = 'O';
+	private static final char EMPTY_FIELD = '-';
+	private static final int TEXT_LENGTH = Bitboard.SQUARES + 2;
+	private static final int INITIAL_MOVES = 4;
+	private static final long CENTRE_FIELDS = Bitboard.bit(3, 3) | Bitboard.bit(3, 4) | Bitboard.bit(4, 3) | Bitboard.bit(4, 4);
+
+	private final long black;
+	private final long white;
+	private final ReversiModel.PlayerColour toMove;
+
+	/**
+	 * Creates a position from the bitboards of both players.
+	 * If the given player cannot move but the opponent can, the position is created with the opponent to move.
+	 *
+	 * @param black  the pieces of BLACK
+	 * @param white  the pieces of WHITE
+	 * @param toMove the player to move
+	 * @throws IllegalArgumentException if a field holds pieces of both players.
+	 */
+	public Position(long black, long white, ReversiModel.PlayerColour toMove) {
+		if((black & white) != 0)
+			throw new IllegalArgumentException("A field cannot hold pieces of both players");
+		this.black = black;
+		this.white = white;
+		this.toMove = playerToMove(black, white, toMove);
+	}
+
+	/**
+	 * Records the current position of a model.
+	 *
+	 * @param model the model
+	 * @return the position of the model
+	 */
+	public static Position of(ReversiModel model) {
+		return new Position(model.getBitboard(ReversiModel.PlayerColour.BLACK),
+				model.getBitboard(ReversiModel.PlayerColour.WHITE), model.nextToMove());
+	}
+
+	/**
+	 * Creates a model holding this position. The moves that led to it are not known,
+	 * so they cannot be taken back on the model.
+	 *
+	 * @return a new model
+	 */
+	public ReversiModel toModel() {
+		return new ReversiModel(this);
+	}
+
+	/**
+	 * @param player the colour of the player
+	 * @return the mask of the fields occupied by the player
+	 */
+	public long getBitboard(ReversiModel.PlayerColour player) {
+		return player == ReversiModel.PlayerColour.BLACK ? black : white;
+	}
+
+	/**
+	 * Returns the colour of the piece at the given position, null if no piece is on this field.
+	 *
+	 * @param x the x position of the field
+	 * @param y the y position of the field
+	 * @return the PlayerColour at (x,y) or null
+	 */
+	public ReversiModel.PlayerColour getAt(int x, int y) {
+		if(x < 0 || x >= Bitboard.SIZE || y < 0 || y >= Bitboard.SIZE)
+			return null;
+		long field = Bitboard.bit(x, y);
+		if((black & field) != 0)
+			return ReversiModel.PlayerColour.BLACK;
+		return (white & field) != 0 ? ReversiModel.PlayerColour.WHITE : null;
+	}
+
+	/**
+	 * @return the player to move
+	 */
+	public ReversiModel.PlayerColour nextToMove() {
+		return toMove;
+	}
+
+	/**
+	 * @return the number of moves made, which is the number of pieces on the board
+	 */
+	public int getMoveCount() {
+		return Long.bitCount(black | white);
+	}
+
+	/**
+	 * Returns every field on which the player to move may place a piece, following the rules of makeMove.
+	 * As a position cannot change, this can be called from any thread.
+	 *
+	 * @return the mask of the legal fields, 0 if the game is over
+	 */
+	public long legalMoves() {
+		long occupied = black | white;
+		if(getMoveCount() < INITIAL_MOVES)
+			return CENTRE_FIELDS & ~occupied;
+		long own = getBitboard(toMove);
+		return Bitboard.legalMoves(own, occupied & ~own);
+	}
+
+	/**
+	 * Returns the pieces that a move of the player to move on the given field would capture.
+	 * As a position cannot change, this can be called from any thread.
+	 *
+	 * @param x the x position of the field
+	 * @param y the y position of the field
+	 * @return the mask of the captured pieces, 0 if the move captures nothing or is not legal
+	 */
+	public long getFlips(int x, int y) {
+		if(getMoveCount() < INITIAL_MOVES || x < 0 || x >= Bitboard.SIZE || y < 0 || y >= Bitboard.SIZE
+				|| ((black | white) & Bitboard.bit(x, y)) != 0)
+			return 0;
+		long own = getBitboard(toMove);
+		return Bitboard.flips(own, (black | white) & ~own, Bitboard.square(x, y));
+	}
+
+	/**
+	 * Parses a position from its text notation. A player to move who has to pass is replaced as in the constructor.
+	 *
+	 * @param text the text notation
+	 * @return the position
+	 * @throws IllegalArgumentException if the text is not a valid position.
+	 */
+	public static Position parse(String text) {
+		if(text.length() != TEXT_LENGTH || text.charAt(Bitboard.SQUARES) != ' ')
+			throw new IllegalArgumentException("Not a position: " + text);
+		long black = 0, white = 0;
+		for (int square = 0; square < Bitboard.SQUARES; square++) {
+			char field = text.charAt(square);
+			if(field == BLACK_FIELD)
+				black |= 1L << square;
+			else if(field == WHITE_FIELD)
+				white |= 1L << square;
+			else if(field != EMPTY_FIELD)
+				throw new IllegalArgumentException("Unknown field '" + field + "' in position: " + text);
+		}
+		char side = text.charAt(Bitboard.SQUARES + 1);
+		if(side != BLACK_FIELD && side != WHITE_FIELD)
+			throw new IllegalArgumentException("Unknown player to move '" + side + "' in position: " + text);
+		return new Position(black, white, side == BLACK_FIELD ? ReversiModel.PlayerColour.BLACK : ReversiModel.PlayerColour.WHITE);
+	}
+
+	/**
+	 * @return the text notation of the position
+	 */
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder(TEXT_LENGTH);
+		for (int square = 0; square < Bitboard.SQUARES; square++) {
+			long field = 1L << square;
+			text.append((black & field) != 0 ? BLACK_FIELD : (white & field) != 0 ? WHITE_FIELD : EMPTY_FIELD);
+		}
+		return text.append(' ').append(toMove == ReversiModel.PlayerColour.BLACK ? BLACK_FIELD : WHITE_FIELD).toString();
+	}
+
+	/**
+	 * Writes the key of this position at the current position of the buffer.
+	 *
+	 * @param buffer a buffer with at least KEY_BYTES bytes remaining
+	 */
+	public void writeKey(ByteBuffer buffer) {
+		writeKey(black, white, toMove, buffer);
+	}
+
+	/**
+	 * Writes the key of the current position of a model at the current position of the buffer,
+	 * without creating a Position.
+	 *
+	 * @param model  the model
+	 * @param buffer a buffer with at least KEY_BYTES bytes remaining
+	 */
+	public static void writeKey(ReversiModel model, ByteBuffer buffer) {
+		writeKey(model.getBitboard(ReversiModel.PlayerColour.BLACK), model.getBitboard(ReversiModel.PlayerColour.WHITE),
+				model.nextToMove(), buffer);
+	}
+
+	/**
+	 * Reads a key at the current position of the buffer.
+	 *
+	 * @param buffer a buffer with at least KEY_BYTES bytes remaining
+	 * @return the position of the key
+	 */
+	public static Position readKey(ByteBuffer buffer) {
+		long black = buffer.getLong();
+		long white = buffer.getLong();
+		long marker = black & white;
+		if(marker == 0)
+			return new Position(black, white, ReversiModel.PlayerColour.BLACK);
+		return new Position(black & ~marker, white & ~marker, ReversiModel.PlayerColour.WHITE);
+	}
+
+	/**
+	 * Returns the first half of the key of a position, the BLACK bitboard with the side marker.
+	 *
+	 * @param black  the pieces of BLACK
+	 * @param white  the pieces of WHITE
+	 * @param toMove the player to move
+	 * @return the first eight bytes of the key
+	 */
+	public static long keyBlack(long black, long white, ReversiModel.PlayerColour toMove) {
+		return black | sideMarker(black, white, toMove);
+	}
+
+	/**
+	 * Returns the second half of the key of a position, the WHITE bitboard with the side marker.
+	 *
+	 * @param black  the pieces of BLACK
+	 * @param white  the pieces of WHITE
+	 * @param toMove the player to move
+	 * @return the last eight bytes of the key
+	 */
+	public static long keyWhite(long black, long white, ReversiModel.PlayerColour toMove) {
+		return white | sideMarker(black, white, toMove);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if(!(other instanceof Position))
+			return false;
+		Position position = (Position) other;
+		return black == position.black && white == position.white && toMove == position.toMove;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(keyBlack(black, white, toMove) * 31 + keyWhite(black, white, toMove));
+	}
+
+	private static void writeKey(long black, long white, ReversiModel.PlayerColour toMove, ByteBuffer buffer) {
+		long marker = sideMarker(black, white, toMove);
+		buffer.putLong(black | marker);
+		buffer.putLong(white | marker);
+	}
+
+	/**
+	 * Returns the player who really moves in a position: BLACK on a full board, the opponent of the given player
+	 * if only the opponent can move, and otherwise the given player. Passes follow the switch of the model;
+	 * no one passes during the four initial moves.
+	 * @param black the pieces of BLACK
+	 * @param white the pieces of WHITE
+	 * @param toMove the given player to move
+	 * @return the player to move
+	 */
+	private static ReversiModel.PlayerColour playerToMove(long black, long white, ReversiModel.PlayerColour toMove) {
+		long occupied = black | white;
+		if(occupied == -1L)
+			return ReversiModel.PlayerColour.BLACK;
+		if(Long.bitCount(occupied) < INITIAL_MOVES)
+			return toMove;
+		long own = toMove == ReversiModel.PlayerColour.BLACK ? black : white;
+		if(Bitboard.legalMoves(own, occupied & ~own) == 0 && Bitboard.legalMoves(occupied & ~own, own) != 0)
+			return toMove == ReversiModel.PlayerColour.BLACK ? ReversiModel.PlayerColour.WHITE : ReversiModel.PlayerColour.BLACK;
+		return toMove;
+	}
+
+	/**
+	 * Returns the field marking WHITE to move in a key: the lowest empty field, or no field for BLACK or a full board.
+	 * @param black the pieces of BLACK
+	 * @param white the pieces of WHITE
+	 * @param toMove the player to move
+	 * @return the mask of the marker field, 0 if there is none
+	 */
+	private static long sideMarker(long black, long white, ReversiModel.PlayerColour toMove) {
+		if(toMove == ReversiModel.PlayerColour.BLACK)
+			return 0;
+		long empty = ~(black | white);
+		return empty & -empty;
+	}
+}
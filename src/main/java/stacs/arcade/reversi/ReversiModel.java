@@ -1,25 +1,49 @@
 package stacs.arcade.reversi;
 
+import stacs.arcade.reversi.metrics.MoveMetrics;
+
 /**
- * Implementation of the model for the Othello game.
+ * Implementation of the model for the Othello game on the standard 8x8 board.
+ * Other board sizes are played with VariantModel.
  *
  * @author 190023753
  */
 public class ReversiModel {
 
 	public enum PlayerColour {BLACK, WHITE}
-	private PlayerColour[][] board = null;
+	private long blackPieces, whitePieces;
+	private long hash;
+	private long blackMobility, whiteMobility;
 	private PlayerColour currentPlayerToMove;
 
-	private static final int BOARD_WIDTH = 8;
-	private static final int BOARD_HEIGHT = 8;
+	private static final int BOARD_WIDTH = Bitboard.SIZE;
+	private static final int BOARD_HEIGHT = Bitboard.SIZE;
 	private static final int CONSTRAINED_MOVES = 4;
-	private static final int BOUNDARY_A = 3;
-	private static final int BOUNDARY_B = 4;
-	private int totalMoves, piecesCaptured,blackStones,whiteStones;
+	private static final int BOUNDARY_A = BOARD_WIDTH / 2 - 1;
+	private static final int BOUNDARY_B = BOARD_WIDTH / 2;
+	private static final long CENTRE_FIELDS = Bitboard.bit(BOUNDARY_A, BOUNDARY_A) | Bitboard.bit(BOUNDARY_A, BOUNDARY_B)
+			| Bitboard.bit(BOUNDARY_B, BOUNDARY_A) | Bitboard.bit(BOUNDARY_B, BOUNDARY_B);
+	private int totalMoves,blackStones,whiteStones;
+	private int firstRecordedMove;
+
+	/* One entry per move made so far, indexed by move number: the field of the placed piece,
+	 * the mask of the pieces it captured and the legal moves of both players before it.
+	 * Every move places a piece, so 64 entries are enough.
+	 */
+	private final byte[] moveHistory = new byte[Bitboard.SQUARES];
+	private final long[] captureHistory = new long[Bitboard.SQUARES];
+	private final long[] blackMobilityHistory = new long[Bitboard.SQUARES];
+	private final long[] whiteMobilityHistory = new long[Bitboard.SQUARES];
 
 	private String illegalMoveMessage = "This is an illegal move - ";
 
+	/* The last published position, for threads other than the one making the moves. Only kept while publishing. */
+	private boolean publishing;
+	private volatile Position snapshot;
+
+	/* Receives every move made through tryMove or makeMove, null while no metrics are kept. */
+	private MoveMetrics metrics;
+
 	/**
 	 * A simple constructor of the class, required for construction by the
 	 * class that contains the tests.
@@ -33,12 +57,57 @@ public class ReversiModel {
 	}
 
 	/**
-	 * Initializes a PlayerColour instance to hold the positions of the board
+	 * Creates an independent copy of the given model, including its move history,
+	 * so that moves made on the copy can be taken back just like on the original.
+	 *
+	 * @param other the model to copy
+	 */
+	public ReversiModel(ReversiModel other) {
+		blackPieces = other.blackPieces;
+		whitePieces = other.whitePieces;
+		hash = other.hash;
+		blackMobility = other.blackMobility;
+		whiteMobility = other.whiteMobility;
+		currentPlayerToMove = other.currentPlayerToMove;
+		totalMoves = other.totalMoves;
+		blackStones = other.blackStones;
+		whiteStones = other.whiteStones;
+		firstRecordedMove = other.firstRecordedMove;
+		System.arraycopy(other.moveHistory, 0, moveHistory, 0, totalMoves);
+		System.arraycopy(other.captureHistory, 0, captureHistory, 0, totalMoves);
+		System.arraycopy(other.blackMobilityHistory, 0, blackMobilityHistory, 0, totalMoves);
+		System.arraycopy(other.whiteMobilityHistory, 0, whiteMobilityHistory, 0, totalMoves);
+	}
+
+	/**
+	 * Creates a model holding the given position. The moves that led to the position are not known,
+	 * so only moves made on the new model can be taken back.
+	 *
+	 * @param position the position to set up
+	 */
+	public ReversiModel(Position position) {
+		blackPieces = position.getBitboard(PlayerColour.BLACK);
+		whitePieces = position.getBitboard(PlayerColour.WHITE);
+		currentPlayerToMove = position.nextToMove();
+		hash = Zobrist.hash(blackPieces, whitePieces, currentPlayerToMove);
+		totalMoves = position.getMoveCount();
+		firstRecordedMove = totalMoves;
+		blackStones = Long.bitCount(blackPieces);
+		whiteStones = Long.bitCount(whitePieces);
+		updateMobility();
+	}
+
+	/**
+	 * Initializes the two bitboards that hold the positions of the board
 	 * and sets BLACK as the first player to make a move.
 	 */
 	private void initializeGame(){
 
-		board = new PlayerColour[BOARD_HEIGHT][BOARD_WIDTH];
+		blackPieces = 0;
+		whitePieces = 0;
+		hash = 0;
+		blackMobility = CENTRE_FIELDS;
+		whiteMobility = CENTRE_FIELDS;
 		currentPlayerToMove = PlayerColour.BLACK;
 	}
 
@@ -50,8 +119,13 @@ public class ReversiModel {
 	 * @return the PlayerColour instance at (x,y) or null
 	 */
 	public PlayerColour getAt(int x, int y) {
-		if(board[x][y] != null)
-			return board[x][y];
+		if(!isWithingBoundaries(x,y))
+			return null;
+		long field = Bitboard.bit(x, y);
+		if((blackPieces & field) != 0)
+			return PlayerColour.BLACK;
+		if((whitePieces & field) != 0)
+			return PlayerColour.WHITE;
 		return null;
 	}
 
@@ -64,6 +138,102 @@ public class ReversiModel {
 		return currentPlayerToMove;
 	}
 
+	/**
+	 * Returns the bitboard of the pieces of the given player, using the square index of Bitboard.square(x,y).
+	 *
+	 * @param player the colour of the player
+	 * @return the mask of the fields occupied by the player
+	 */
+	public long getBitboard(PlayerColour player) {
+		return getPieces(player);
+	}
+
+	/**
+	 * Returns every field on which the given player could legally place a piece, as a bitboard.
+	 * During the four initial moves these are the empty center fields, afterwards the fields that capture
+	 * at least one piece of the opponent. Turn order is not taken into account.
+	 * The masks of both players are kept up to date by every move, so this costs no board scan.
+	 *
+	 * @param player the colour of the player
+	 * @return the mask of the legal fields, 0 if the player has no legal move
+	 */
+	public long legalMoves(PlayerColour player) {
+		return player == PlayerColour.BLACK ? blackMobility : whiteMobility;
+	}
+
+	/**
+	 * Writes the square index of every legal field of the given player into the buffer.
+	 * The buffer can be reused between calls, so listing moves does not allocate.
+	 *
+	 * @param player the colour of the player
+	 * @param buffer an array of at least Bitboard.SQUARES entries that receives the square indices
+	 * @return the number of legal fields written to the buffer
+	 */
+	public int legalMoves(PlayerColour player, int[] buffer) {
+		return Bitboard.squares(legalMoves(player), buffer);
+	}
+
+	/**
+	 * Returns whether the game is over, which is the case when neither player has a legal move.
+	 *
+	 * @return true if the game is over, false otherwise
+	 */
+	public boolean isGameOver() {
+		return (blackMobility | whiteMobility) == 0;
+	}
+
+	/**
+	 * Returns the winner of a finished game, the player with more stones on the board.
+	 *
+	 * @return the colour of the winner, null if the game is a draw
+	 * @throws IllegalStateException if the game is not over yet.
+	 */
+	public PlayerColour winner() {
+		if(!isGameOver())
+			throw new IllegalStateException("The game is not over yet");
+		if(blackStones == whiteStones)
+			return null;
+		return blackStones > whiteStones ? PlayerColour.BLACK : PlayerColour.WHITE;
+	}
+
+	/**
+	 * Checks, without throwing and without changing the board, whether the player to move may place a piece
+	 * on the given field. Follows the same rules as makeMove.
+	 *
+	 * @param x the x position of the field
+	 * @param y the y position of the field
+	 * @return true if makeMove would accept the move for nextToMove(), false otherwise
+	 */
+	public boolean isLegal(int x, int y) {
+		return isWithingBoundaries(x,y) && (legalMoves(nextToMove()) & Bitboard.bit(x, y)) != 0;
+	}
+
+	/**
+	 * Returns the pieces that a move of the player to move on the given field would capture, without changing the board.
+	 * This is what makeMove applies, so it can be used to preview a move or to find the fields that change with it.
+	 *
+	 * @param x the x position of the field
+	 * @param y the y position of the field
+	 * @return the mask of the captured pieces, 0 if the move captures nothing or is not legal
+	 */
+	public long getFlips(int x, int y) {
+		if(totalMoves < CONSTRAINED_MOVES || !isWithingBoundaries(x,y) || getAt(x,y) != null)
+			return 0;
+		return Bitboard.flips(getPieces(nextToMove()), getPieces(opponentOf(nextToMove())), Bitboard.square(x, y));
+	}
+
+	/**
+	 * Returns the number of pieces that a move of the player to move on the given field would capture,
+	 * without changing the board.
+	 *
+	 * @param x the x position of the field
+	 * @param y the y position of the field
+	 * @return the number of captured pieces, 0 if the move captures nothing or is not legal
+	 */
+	public int getFlipCount(int x, int y) {
+		return Long.bitCount(getFlips(x, y));
+	}
+
 	/**
 	 * Make a move by placing a piece of the given colour on the given field.
 	 *
@@ -74,329 +244,341 @@ public class ReversiModel {
 	 * if the field is already occupied if the coordinates are out of range or is an illegal move.
 	 */
 	public void makeMove(PlayerColour player, int x, int y) throws IllegalMoveException {
+		MoveResult result = tryMove(player, x, y);
+		if(result != MoveResult.OK)
+			throw new IllegalMoveException(illegalMoveMessage + result.getMessage());
+	}
+
+	/**
+	 * Makes a move like makeMove, but reports a rejected move by its result instead of throwing.
+	 * Rejecting a move allocates nothing and leaves the board unchanged, so this is the cheaper call
+	 * where illegal moves are expected, such as moves sent by clients.
+	 *
+	 * @param player the PlayerColour of the player to make the move
+	 * @param x      the x position of the field that the player wants to place its piece
+	 * @param y      the y position of the field that the player wants to place its piece
+	 * @return OK if the move was made, otherwise the reason it was rejected
+	 */
+	public MoveResult tryMove(PlayerColour player, int x, int y) {
+		if(metrics == null)
+			return applyMove(player, x, y);
+		long start = System.nanoTime();
+		MoveResult result = applyMove(player, x, y);
+		long nanos = System.nanoTime() - start;
+		metrics.record(result, result.isLegal() ? Long.bitCount(captureHistory[totalMoves - 1]) : 0, nanos);
+		return result;
+	}
 
-		/* Checks that the right player is playing - If not, throws illegalMoveException.
-		 * Check for moves outside the boundaries - If field does not exist, throws illegalMoveException.
+	/**
+	 * Validates a move and applies it if it is legal.
+	 * @param player the PlayerColour of the player to make the move
+	 * @param x the x position of the field
+	 * @param y the y position of the field
+	 * @return OK if the move was made, otherwise the reason it was rejected
+	 */
+	private MoveResult applyMove(PlayerColour player, int x, int y) {
+
+		/* Checks that the right player is playing - If not, rejects with WRONG_TURN.
+		 * Check for moves outside the boundaries - If field does not exist, rejects with OUT_OF_BOUNDS.
 		 * Checks if the move is one of the 4 initial moves - If yes calls method to handle appropriately.
-		 * If not 4 initial moves calls method to check if that move will result to a the capture of a piece - If not throws illegalMoveException.
+		 * If not 4 initial moves checks that the move will result to a the capture of a piece - If not rejects with NO_CAPTURE.
 		 */
 
 		if(!isValidPlayer(player))
-			throw new IllegalMoveException(illegalMoveMessage + "This is not your turn, you cannot perform that move now.");
+			return MoveResult.WRONG_TURN;
 
 		if(!isWithingBoundaries(x,y))
-			throw new IllegalMoveException(illegalMoveMessage + "Field does not exists");
+			return MoveResult.OUT_OF_BOUNDS;
 
 		if(totalMoves < CONSTRAINED_MOVES){
-			handleFourInitialMoves(x,y);
+			MoveResult result = handleFourInitialMoves(x,y);
+			if(result != MoveResult.OK)
+				return result;
 		}else {
-			piecesCaptured = getNumOfCapturedPieces(x, y);
-			if(piecesCaptured == 0 )
-				throw new IllegalMoveException(illegalMoveMessage + "Does not result to a captured piece of the opponent");
-			board[x][y] = nextToMove();
+			if(getAt(x,y) != null)
+				return MoveResult.OCCUPIED;
+			long captured = getFlips(x, y);
+			if(captured == 0)
+				return MoveResult.NO_CAPTURE;
+			placePiece(x, y);
+			capturePiece(captured);
+			captureHistory[totalMoves] = captured;
 		}
 
+		moveHistory[totalMoves] = (byte) Bitboard.square(x, y);
+		blackMobilityHistory[totalMoves] = blackMobility;
+		whiteMobilityHistory[totalMoves] = whiteMobility;
+		updateStones(Long.bitCount(captureHistory[totalMoves]));
 		totalMoves++;
-		updateStones();
+		updateMobility();
 		switchPlayerTurn();
+		if(publishing)
+			publish();
+		return MoveResult.OK;
 	}
 
 	/**
-	 * This method compares the PlayerColour value passed in the makeMove method with the nextToMove() method's
-	 * return variable to validate that the correct player is making a move.
-	 * @param playerColour the Colour of player that to check.
-	 * @return true if the playerColour  is the next player to move, false otherwise.
+	 * Takes back the last move made, restoring the board, the stone counts and the player to move.
+	 * The move is undone from the recorded field and capture mask, so no copy of the board is kept.
+	 *
+	 * @throws IllegalStateException if no move has been made, or none since the position was set up.
 	 */
-	private boolean isValidPlayer(PlayerColour playerColour){
-		return playerColour == nextToMove();
+	public void unmakeMove() {
+		if(totalMoves == firstRecordedMove)
+			throw new IllegalStateException("There is no move to take back");
+
+		totalMoves--;
+		long field = 1L << moveHistory[totalMoves];
+		long captured = captureHistory[totalMoves];
+		blackMobility = blackMobilityHistory[totalMoves];
+		whiteMobility = whiteMobilityHistory[totalMoves];
+		PlayerColour mover = (blackPieces & field) != 0 ? PlayerColour.BLACK : PlayerColour.WHITE;
+		if(mover != currentPlayerToMove)
+			hash ^= Zobrist.whiteToMove();
+		currentPlayerToMove = mover;
+
+		hash ^= Zobrist.piece(mover, moveHistory[totalMoves]);
+		blackPieces &= ~field;
+		whitePieces &= ~field;
+		capturePiece(captured);
+		int count = Long.bitCount(captured);
+		if(nextToMove() == PlayerColour.BLACK){
+			blackStones -= count + 1;
+			whiteStones += count;
+		}else {
+			whiteStones -= count + 1;
+			blackStones += count;
+		}
+		if(publishing)
+			publish();
 	}
 
 	/**
-	 * This method checks that the coordinates of the field that the new move will be made are valid.
-	 * Valid fields have x and y values from 0-7
-	 * @param x the x position of the field that the player wants to place its piece
-	 * @param y the y position of the field that the player wants to place its piece
-	 * @return true if the field exists, false otherwise.
+	 * Sets the metrics that every later move made through tryMove or makeMove is recorded in, with its result,
+	 * its captured pieces and its time. Several models may share one instance. Copies of the model keep no metrics,
+	 * so moves searched on copies are not counted.
+	 *
+	 * @param metrics the metrics, null to stop recording
 	 */
-	private boolean isWithingBoundaries(int x, int y){
-		return x >= 0 && x < BOARD_WIDTH && y >= 0 && y < BOARD_HEIGHT;
+	public void setMetrics(MoveMetrics metrics) {
+		this.metrics = metrics;
 	}
 
 	/**
-	 * This method is used to validate that the four initial pieces are placed in the center of the board.
-	 * The four valid moves are (3,3), (3,4), (4,3), (4,4)
-	 * @param x the x position of the field that the player wants to place its piece
-	 * @param y the y position of the field that the player wants to place its piece
-	 * @throws IllegalMoveException when the field is not valid or is occupied.
+	 * @return the metrics moves are recorded in, null if none are kept
 	 */
-	private void handleFourInitialMoves(int x, int y) throws IllegalMoveException{
-
-		if( (x == BOUNDARY_A || x == BOUNDARY_B) && (y == BOUNDARY_A || y == BOUNDARY_B) && getAt(x,y) == null){
-			board[x][y] = nextToMove();
-		} else if (getAt(x,y) != null){
-			throw new IllegalMoveException(illegalMoveMessage + "This piece is occupied");
-		} else {
-			throw new IllegalMoveException(illegalMoveMessage + "This is an illegal move. The 4 initial pieces must be placed in the center");
-		}
+	public MoveMetrics getMetrics() {
+		return metrics;
 	}
 
 	/**
-	 * This method checks each of the 8 surrounding directions of the fields that the player wants to place its piece.
-	 * Keeps track of the captured pieces.
-	 * @param x the x position of the field that the player wants to place its piece
-	 * @param y the y position of the field that the player wants to place its piece
-	 * @return an integer variable representing the number of captured pieces.
+	 * Turns the publishing of snapshots on or off. While it is on, every move and every move taken back
+	 * publishes the new position, so that other threads can read it through getSnapshot().
+	 * Copies of the model do not publish.
+	 *
+	 * @param publishing true to publish a snapshot after every change of the board
 	 */
-	private int getNumOfCapturedPieces(int x, int y){
-
-		/* Calls each method to check one of the 8 surrounding directions.
-		 * Foreach direction checks that the first field is not empty and that is occupied by the opponents piece.
-		 * Keeps checking until it a null piece or a piece with the current player colour is found.
-		 * The captured pieces are then updated.
-		 */
-
-		piecesCaptured = 0 ;
-		checkTopLeftDirection(x,y);
-		checkTopDirection(x,y);
-		checkTopRightDirection(x,y);
-		checkLeftDirection(x,y);
-		checkRightDirection(x,y);
-		checkBottomLeftDirection(x,y);
-		checkBottomDirection(x,y);
-		checkBottomRightDirection(x,y);
-
-		return piecesCaptured;
+	public void setPublishing(boolean publishing) {
+		this.publishing = publishing;
+		snapshot = publishing ? Position.of(this) : null;
 	}
 
 	/**
-	 * Checks the top-left direction.
-	 * @param currentPlayerX the x position of the field that the player wants to place its piece
-	 * @param currentPlayerY the y position of the field that the player wants to place its piece
+	 * Returns an immutable snapshot of the position. While publishing is on, this is the last published position,
+	 * which any thread may read at any time without locking and which never shows a half-made move.
+	 * Otherwise it is taken from the model on demand, which is only safe on the thread making the moves.
+	 *
+	 * @return the position of the board
 	 */
-	private void checkTopLeftDirection(int currentPlayerX, int currentPlayerY){
-		int x = currentPlayerX;
-		int y = currentPlayerY;
-		int tempCounter = 0;
-		boolean isInRange = isWithingBoundaries(x - 1,y - 1);
-
-		while ( isInRange && nextToMove() != board[x-1][y-1] &&  board[x-1][y-1] != null) {
-			tempCounter ++;
-			x --;
-			y--;
-		}
-
-		isInRange = isWithingBoundaries(x - 1, y - 1);
-		if(isInRange && board[x-1][y-1] == nextToMove()){
-			for (int i = 1; i <= tempCounter; i++) {
-				capturePiece(currentPlayerX - i,currentPlayerY - i );
-			}
-		}
+	public Position getSnapshot() {
+		Position published = snapshot;
+		return published != null ? published : Position.of(this);
 	}
 
 	/**
-	 * Checks the top direction.
-	 * @param currentPlayerX the x position of the field that the player wants to place its piece
-	 * @param currentPlayerY the y position of the field that the player wants to place its piece
+	 * Returns the field of a move made so far, as a square index.
+	 *
+	 * @param ply the number of the move, from 0 to getTotalMoves() - 1
+	 * @return the square index of the move
+	 * @throws IndexOutOfBoundsException if that move has not been made, or was made before the position was set up.
 	 */
-	private void checkTopDirection(int currentPlayerX, int currentPlayerY){
-		int  x = currentPlayerX;
-		int  y = currentPlayerY;
-		int tempCounter = 0;
-		boolean isInRange = isWithingBoundaries(x, y - 1);
-
-		while (isInRange && nextToMove() != board[x][y-1] &&  board[x][y-1]!= null) {
-			tempCounter++;
-			y --;
-		}
-
-		isInRange = isWithingBoundaries(x, y - 1);
-		if(isInRange  && board[x][y-1] == nextToMove()){
-			for (int i = 1; i <= tempCounter; i++) {
-				capturePiece(currentPlayerX,currentPlayerY - i);
-			}
-		}
+	public int getMoveAt(int ply) {
+		if(ply < firstRecordedMove || ply >= totalMoves)
+			throw new IndexOutOfBoundsException("Move " + ply + " has not been made");
+		return moveHistory[ply];
 	}
 
 	/**
-	 * Checks the top-right direction.
-	 * @param currentPlayerX the x position of the field that the player wants to place its piece
-	 * @param currentPlayerY the y position of the field that the player wants to place its piece
+	 * Returns the pieces captured by a move made so far.
+	 *
+	 * @param ply the number of the move, from 0 to getTotalMoves() - 1
+	 * @return the mask of the fields that changed colour with the move
+	 * @throws IndexOutOfBoundsException if that move has not been made, or was made before the position was set up.
 	 */
-	private void checkTopRightDirection(int currentPlayerX, int currentPlayerY) {
-		int tempCounter = 0;
-		int  x = currentPlayerX;
-		int  y = currentPlayerY;
-		boolean isInRange = isWithingBoundaries(x + 1, y - 1);
-
-		while (isInRange && nextToMove() != board[x + 1][y - 1] && board[x + 1][y - 1] != null) {
-			tempCounter++;
-			x++;
-			y--;
-		}
-
-		isInRange = isWithingBoundaries(x + 1, y - 1);
-		if (isInRange && board[x + 1][y - 1] == nextToMove()) {
-			for (int i = 1; i <= tempCounter; i++) {
-				capturePiece(currentPlayerX + i, currentPlayerY - i);
-			}
-		}
+	public long getCapturesAt(int ply) {
+		if(ply < firstRecordedMove || ply >= totalMoves)
+			throw new IndexOutOfBoundsException("Move " + ply + " has not been made");
+		return captureHistory[ply];
 	}
 
 	/**
-	 * Checks the left direction.
-	 * @param currentPlayerX the x position of the field that the player wants to place its piece
-	 * @param currentPlayerY the y position of the field that the player wants to place its piece
+	 * Returns the Zobrist hash of the current position, including the player to move.
+	 * The hash is kept up to date as pieces are placed and captured.
+	 *
+	 * @return the hash of the position
 	 */
-	private void checkLeftDirection(int currentPlayerX, int currentPlayerY){
-
-		int x = currentPlayerX;
-		int y = currentPlayerY;
-		int tempCounter = 0;
-		boolean isInRange = isWithingBoundaries(x - 1, y);
-
-		while (isInRange && nextToMove() != board[x-1][y] && board[x-1][y]!= null) {
-			tempCounter++;
-			x--;
-		}
-
-		isInRange = isWithingBoundaries(x - 1, y);
-		if(isInRange && board[x-1][y] == nextToMove()){
-			for (int i = 1; i <= tempCounter; i++) {
-				capturePiece(currentPlayerX - i,currentPlayerY);
-			}
-		}
+	public long getHash() {
+		return hash;
 	}
 
 	/**
-	 * Checks the right direction.
-	 * @param currentPlayerX the x position of the field that the player wants to place its piece
-	 * @param currentPlayerY the y position of the field that the player wants to place its piece
+	 * Returns the number of moves made so far, including the four initial moves.
+	 *
+	 * @return the number of moves
 	 */
-	private void checkRightDirection(int currentPlayerX, int currentPlayerY){
-		int x = currentPlayerX;
-		int y = currentPlayerY;
-		int tempCounter = 0;
-		boolean isInRange = isWithingBoundaries(x + 1, y);
-
-		while (isInRange && nextToMove() != board[x+1][y] &&  board[x+1][y] != null) {
-			tempCounter++;
-			x++;
-		}
-
-		isInRange = isWithingBoundaries(x + 1, y);
-		if(isInRange && board[x+1][y] == nextToMove()){
-			for (int i = 1; i <= tempCounter; i++) {
-				capturePiece(currentPlayerX + i,currentPlayerY);
-			}
-		}
+	public int getTotalMoves() {
+		return totalMoves;
 	}
 
 	/**
-	 * Checks the bottom-left direction.
-	 * @param currentPlayerX the x position of the field that the player wants to place its piece
-	 * @param currentPlayerY the y position of the field that the player wants to place its piece
+	 * Returns the number of the first move that is known to the model: 0 for a game played from the start,
+	 * or the number of pieces of the Position the model was set up from. Earlier moves cannot be read or taken back.
+	 *
+	 * @return the number of the first recorded move
 	 */
-	private void checkBottomLeftDirection(int currentPlayerX, int currentPlayerY){
-		int tempCounter = 0;
-		int x = currentPlayerX;
-		int y = currentPlayerY;
-		boolean isInRange = isWithingBoundaries(x - 1, y + 1);
-
-		while (isInRange && nextToMove() != board[x-1][y+1] && board[x-1][y+1] != null) {
-			tempCounter++;
-			x--;
-			y++;
-		}
+	public int getFirstRecordedMove() {
+		return firstRecordedMove;
+	}
 
-		isInRange = isWithingBoundaries(x - 1, y + 1);
-		if(isInRange && board[x-1][y+1] == nextToMove()){
-			for (int i = 1; i <= tempCounter; i++) {
-				capturePiece(currentPlayerX - i,currentPlayerY + i );
-			}
-		}
+	/**
+	 * This method compares the PlayerColour value passed in the makeMove method with the nextToMove() method's
+	 * return variable to validate that the correct player is making a move.
+	 * @param playerColour the Colour of player that to check.
+	 * @return true if the playerColour  is the next player to move, false otherwise.
+	 */
+	private boolean isValidPlayer(PlayerColour playerColour){
+		return playerColour == nextToMove();
 	}
 
 	/**
-	 * Checks the bottom direction.
-	 * @param currentPlayerX the x position of the field that the player wants to place its piece
-	 * @param currentPlayerY the y position of the field that the player wants to place its piece
+	 * This method checks that the coordinates of the field that the new move will be made are valid.
+	 * Valid fields have x and y values from 0-7
+	 * @param x the x position of the field that the player wants to place its piece
+	 * @param y the y position of the field that the player wants to place its piece
+	 * @return true if the field exists, false otherwise.
 	 */
-	private void checkBottomDirection(int currentPlayerX, int currentPlayerY){
-		int tempCounter = 0;
-		int x = currentPlayerX;
-		int y = currentPlayerY;
-		boolean isInRange = isWithingBoundaries(x,y + 1);
+	private boolean isWithingBoundaries(int x, int y){
+		return x >= 0 && x < BOARD_WIDTH && y >= 0 && y < BOARD_HEIGHT;
+	}
 
-		while (isInRange && nextToMove() != board[x][y+1] && board[x][y+1] != null) {
-			tempCounter++;
-			y++;
-		}
+	/**
+	 * This method is used to validate that the four initial pieces are placed in the center of the board.
+	 * The four valid moves are (3,3), (3,4), (4,3), (4,4)
+	 * @param x the x position of the field that the player wants to place its piece
+	 * @param y the y position of the field that the player wants to place its piece
+	 * @return OK if the piece was placed, OCCUPIED or OPENING_CONSTRAINT if the field is not valid.
+	 */
+	private MoveResult handleFourInitialMoves(int x, int y){
 
-		isInRange = isWithingBoundaries(x, y + 1);
-		if(isInRange && board[x][y+1] == nextToMove()){
-			for (int i = 1; i <= tempCounter; i++) {
-				capturePiece(currentPlayerX,currentPlayerY + i);
-			}
+		if( (x == BOUNDARY_A || x == BOUNDARY_B) && (y == BOUNDARY_A || y == BOUNDARY_B) && getAt(x,y) == null){
+			captureHistory[totalMoves] = 0;
+			placePiece(x, y);
+			return MoveResult.OK;
+		} else if (getAt(x,y) != null){
+			return MoveResult.OCCUPIED;
+		} else {
+			return MoveResult.OPENING_CONSTRAINT;
 		}
 	}
 
 	/**
-	 * Checks the bottom-right direction.
-	 * @param currentPlayerX the x position of the field that the player wants to place its piece
-	 * @param currentPlayerY the y position of the field that the player wants to place its piece
+	 * This method captures pieces by changing their colour to the colour of the capturer.
+	 * @param captured the mask of the fields holding the captured pieces
 	 */
-	private void checkBottomRightDirection(int currentPlayerX, int currentPlayerY){
-		int tempCounter = 0;
-		int  x = currentPlayerX;
-		int  y = currentPlayerY;
-		boolean isInRange = isWithingBoundaries(x + 1, y + 1);
+	private void capturePiece(long captured){
+		blackPieces ^= captured;
+		whitePieces ^= captured;
+		hash ^= Zobrist.capture(captured);
+	}
 
-		while (isInRange && nextToMove() != board[x+1][y+1] && board[x+1][y+1] != null) {
-			tempCounter++;
-			x++;
-			y++;
-		}
+	/**
+	 * This method places a piece of the current player on the given field.
+	 * @param x the x position of the field that the player wants to place its piece
+	 * @param y the y position of the field that the player wants to place its piece
+	 */
+	private void placePiece(int x, int y){
+		hash ^= Zobrist.piece(nextToMove(), Bitboard.square(x, y));
+		if(nextToMove() == PlayerColour.BLACK)
+			blackPieces |= Bitboard.bit(x, y);
+		else whitePieces |= Bitboard.bit(x, y);
+	}
 
-		isInRange = isWithingBoundaries(x + 1, y + 1);
-		if(isInRange && board[x+1][y+1] == nextToMove()){
-			for (int i = 1; i <= tempCounter; i++) {
-				capturePiece(currentPlayerX + i,currentPlayerY + i);
-			}
-		}
+	/**
+	 * Returns the bitboard holding the pieces of the given player.
+	 * @param player the colour of the player
+	 * @return the mask of the fields occupied by the player
+	 */
+	private long getPieces(PlayerColour player){
+		return player == PlayerColour.BLACK ? blackPieces : whitePieces;
 	}
 
 	/**
-	 * This method captures a piece by changing its colour to the colour of the capturer.
-	 * @param xCaptured the x position of the field that the player wants to place its piece
-	 * @param yCaptured the x position of the field that the player wants to place its piece
+	 * Returns the colour of the opponent of the given player.
+	 * @param player the colour of the player
+	 * @return the colour of the opponent
 	 */
-	private void capturePiece(int xCaptured, int yCaptured){
-		board[xCaptured][yCaptured] = nextToMove();
-		piecesCaptured++;
+	private static PlayerColour opponentOf(PlayerColour player){
+		return player == PlayerColour.BLACK ? PlayerColour.WHITE : PlayerColour.BLACK;
 	}
 
 	/**
-	 * This method updates the stones of the player, by adding the number of piecesCaptured to the stones of the currentPlayer and
+	 * This method updates the stones of the player, by adding the number of captured pieces to the stones of the currentPlayer and
 	 * deducting it from the opponents stones, when a capturing move is made.
 	 * It also adds one to the current player because he/she placed a piece to make perform the move.
+	 * @param captured the number of pieces captured by the move
 	 */
-	private void updateStones(){
+	private void updateStones(int captured){
 		if(nextToMove() == PlayerColour.BLACK){
-			blackStones += piecesCaptured + 1;
-			whiteStones -= piecesCaptured;
+			blackStones += captured + 1;
+			whiteStones -= captured;
 		}else {
-			whiteStones += piecesCaptured + 1;
-			blackStones -= piecesCaptured;
+			whiteStones += captured + 1;
+			blackStones -= captured;
 		}
 	}
 
+	/**
+	 * This method recomputes the legal moves of both players after a move.
+	 * During the four initial moves these are the empty center fields for both players.
+	 */
+	private void updateMobility(){
+		if(totalMoves < CONSTRAINED_MOVES){
+			blackMobility = CENTRE_FIELDS & ~(blackPieces | whitePieces);
+			whiteMobility = blackMobility;
+		}else {
+			blackMobility = Bitboard.legalMoves(blackPieces, whitePieces);
+			whiteMobility = Bitboard.legalMoves(whitePieces, blackPieces);
+		}
+	}
+
+	/**
+	 * Publishes the current position as the snapshot for other threads.
+	 */
+	private void publish(){
+		snapshot = new Position(blackPieces, whitePieces, currentPlayerToMove);
+	}
+
 	/**
 	 * This method switches the players turn, by changing teh value of the currentPlayerToMove object.
+	 * If the opponent has no legal move but the current player has, the opponent passes and the
+	 * current player moves again.
 	 */
 	private void switchPlayerTurn(){
-		if(currentPlayerToMove == PlayerColour.BLACK)
-			currentPlayerToMove = PlayerColour.WHITE;
-		else currentPlayerToMove = PlayerColour.BLACK;
+		PlayerColour opponent = opponentOf(currentPlayerToMove);
+		if(legalMoves(opponent) == 0 && legalMoves(currentPlayerToMove) != 0)
+			return;
+		hash ^= Zobrist.whiteToMove();
+		currentPlayerToMove = opponent;
 	}
 
 	/**
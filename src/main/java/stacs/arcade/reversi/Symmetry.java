@@ -0,0 +1,138 @@
+package stacs.arcade.reversi;
+
+/**
+ * The 8 symmetries of the board, as transforms of bitboards and square indices.
+ * A symmetry is a number 0-7 made of three flags, applied in this order: TRANSPOSE swaps x and y,
+ * FLIP_VERTICAL maps y to 7 - y and MIRROR_HORIZONTAL maps x to 7 - x. Rotations are combinations of these.
+ * The canonical orientation of a position is the one with the smallest bitboards, so all symmetric
+ * variants of a position share one canonical form and can share one entry in a table.
+ *
+ * @author 190023753
+ */
+public final class Symmetry {
+
+	public static final int IDENTITY = 0;
+	public static final int FLIP_VERTICAL = 1;
+	public static final int MIRROR_HORIZONTAL = 2;
+	public static final int TRANSPOSE = 4;
+	public static final int COUNT = 8;
+
+	private static final byte[][] SQUARE_MAP = new byte[COUNT][Bitboard.SQUARES];
+	private static final int[] INVERSE = new int[COUNT];
+
+	static {
+		for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+			for (int square = 0; square < Bitboard.SQUARES; square++)
+				SQUARE_MAP[symmetry][square] = (byte) Long.numberOfTrailingZeros(transform(symmetry, 1L << square));
+		}
+		for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+			for (int inverse = 0; inverse < COUNT; inverse++) {
+				if(undoes(inverse, symmetry))
+					INVERSE[symmetry] = inverse;
+			}
+		}
+	}
+
+	private Symmetry() {
+	}
+
+	/**
+	 * Applies a symmetry to a bitboard.
+	 * @param symmetry the symmetry, 0-7
+	 * @param board the bitboard
+	 * @return the transformed bitboard
+	 */
+	public static long transform(int symmetry, long board) {
+		if((symmetry & TRANSPOSE) != 0)
+			board = transpose(board);
+		if((symmetry & FLIP_VERTICAL) != 0)
+			board = Long.reverseBytes(board);
+		if((symmetry & MIRROR_HORIZONTAL) != 0)
+			board = mirrorHorizontal(board);
+		return board;
+	}
+
+	/**
+	 * Applies a symmetry to a square index.
+	 * @param symmetry the symmetry, 0-7
+	 * @param square the square index, 0-63
+	 * @return the transformed square index
+	 */
+	public static int transformSquare(int symmetry, int square) {
+		return SQUARE_MAP[symmetry][square];
+	}
+
+	/**
+	 * Returns the symmetry that undoes the given one.
+	 * @param symmetry the symmetry, 0-7
+	 * @return the inverse symmetry
+	 */
+	public static int inverse(int symmetry) {
+		return INVERSE[symmetry];
+	}
+
+	/**
+	 * Returns the symmetry that brings a position into its canonical orientation,
+	 * the one whose BLACK bitboard and then WHITE bitboard are smallest as unsigned numbers.
+	 * The player to move is not changed by a symmetry, so it plays no part.
+	 * @param black the pieces of BLACK
+	 * @param white the pieces of WHITE
+	 * @return the symmetry to apply, IDENTITY if the position is already canonical
+	 */
+	public static int canonicalSymmetry(long black, long white) {
+		int best = IDENTITY;
+		long bestBlack = black, bestWhite = white;
+		for (int symmetry = 1; symmetry < COUNT; symmetry++) {
+			long transformedBlack = transform(symmetry, black);
+			int order = Long.compareUnsigned(transformedBlack, bestBlack);
+			if(order > 0)
+				continue;
+			long transformedWhite = transform(symmetry, white);
+			if(order < 0 || Long.compareUnsigned(transformedWhite, bestWhite) < 0){
+				best = symmetry;
+				bestBlack = transformedBlack;
+				bestWhite = transformedWhite;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the canonical form of a position.
+	 * @param position the position
+	 * @return the position in its canonical orientation
+	 */
+	public static Position canonical(Position position) {
+		long black = position.getBitboard(ReversiModel.PlayerColour.BLACK);
+		long white = position.getBitboard(ReversiModel.PlayerColour.WHITE);
+		int symmetry = canonicalSymmetry(black, white);
+		if(symmetry == IDENTITY)
+			return position;
+		return new Position(transform(symmetry, black), transform(symmetry, white), position.nextToMove());
+	}
+
+	private static boolean undoes(int inverse, int symmetry) {
+		for (int square = 0; square < Bitboard.SQUARES; square++) {
+			if(SQUARE_MAP[inverse][SQUARE_MAP[symmetry][square]] != square)
+				return false;
+		}
+		return true;
+	}
+
+	/* Swaps x and y by exchanging 4x4, 2x2 and 1x1 blocks across the diagonal from (0,0) to (7,7). */
+	private static long transpose(long board) {
+		long t = 0x0F0F0F0F00000000L & (board ^ (board << 28));
+		board ^= t ^ (t >>> 28);
+		t = 0x3333000033330000L & (board ^ (board << 14));
+		board ^= t ^ (t >>> 14);
+		t = 0x5500550055005500L & (board ^ (board << 7));
+		return board ^ t ^ (t >>> 7);
+	}
+
+	/* Reverses the bits within each row, mapping x to 7 - x. */
+	private static long mirrorHorizontal(long board) {
+		board = ((board >>> 1) & 0x5555555555555555L) | ((board & 0x5555555555555555L) << 1);
+		board = ((board >>> 2) & 0x3333333333333333L) | ((board & 0x3333333333333333L) << 2);
+		return ((board >>> 4) & 0x0F0F0F0F0F0F0F0FL) | ((board & 0x0F0F0F0F0F0F0F0FL) << 4);
+	}
+}
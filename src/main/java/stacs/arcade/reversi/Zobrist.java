@@ -0,0 +1,91 @@
+package stacs.arcade.reversi;
+
+/**
+ * Zobrist keys for hashing Reversi positions.
+ * The hash of a position is the XOR of one key per occupied field and colour,
+ * plus a side key when WHITE is to move, so it can be updated as pieces are placed and captured.
+ * The keys are generated from a fixed seed and are the same in every run.
+ *
+ * @author 190023753
+ */
+public final class Zobrist {
+
+	private static final long[] BLACK_KEYS = new long[Bitboard.SQUARES];
+	private static final long[] WHITE_KEYS = new long[Bitboard.SQUARES];
+	private static final long[] CAPTURE_KEYS = new long[Bitboard.SQUARES];
+	private static final long WHITE_TO_MOVE;
+
+	static {
+		long seed = 0x5EED_0F_0DD5L;
+		for (int square = 0; square < Bitboard.SQUARES; square++) {
+			seed = nextKey(seed);
+			BLACK_KEYS[square] = mix(seed);
+			seed = nextKey(seed);
+			WHITE_KEYS[square] = mix(seed);
+			CAPTURE_KEYS[square] = BLACK_KEYS[square] ^ WHITE_KEYS[square];
+		}
+		WHITE_TO_MOVE = mix(nextKey(seed));
+	}
+
+	private Zobrist() {
+	}
+
+	/**
+	 * Returns the key of a piece of the given colour on the given square.
+	 * @param player the colour of the piece
+	 * @param square the square index, 0-63
+	 * @return the key to XOR into the hash
+	 */
+	public static long piece(ReversiModel.PlayerColour player, int square) {
+		return player == ReversiModel.PlayerColour.BLACK ? BLACK_KEYS[square] : WHITE_KEYS[square];
+	}
+
+	/**
+	 * Returns the change of the hash when the pieces of the mask change colour.
+	 * @param captured the mask of the captured pieces
+	 * @return the key to XOR into the hash
+	 */
+	public static long capture(long captured) {
+		long key = 0;
+		while (captured != 0) {
+			key ^= CAPTURE_KEYS[Long.numberOfTrailingZeros(captured)];
+			captured &= captured - 1;
+		}
+		return key;
+	}
+
+	/**
+	 * Returns the key that is part of the hash while WHITE is to move.
+	 * @return the side key
+	 */
+	public static long whiteToMove() {
+		return WHITE_TO_MOVE;
+	}
+
+	/**
+	 * Computes the hash of a position from scratch.
+	 * @param black the pieces of BLACK
+	 * @param white the pieces of WHITE
+	 * @param toMove the player to move
+	 * @return the hash of the position
+	 */
+	public static long hash(long black, long white, ReversiModel.PlayerColour toMove) {
+		long hash = toMove == ReversiModel.PlayerColour.WHITE ? WHITE_TO_MOVE : 0;
+		for (long pieces = black; pieces != 0; pieces &= pieces - 1)
+			hash ^= BLACK_KEYS[Long.numberOfTrailingZeros(pieces)];
+		for (long pieces = white; pieces != 0; pieces &= pieces - 1)
+			hash ^= WHITE_KEYS[Long.numberOfTrailingZeros(pieces)];
+		return hash;
+	}
+
+	/* SplitMix64, used only to fill the key tables. */
+	private static long nextKey(long seed) {
+		return seed + 0x9E3779B97F4A7C15L;
+	}
+
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
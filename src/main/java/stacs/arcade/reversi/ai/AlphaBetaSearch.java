@@ -0,0 +1,323 @@
+package stacs.arcade.reversi.ai;
+
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.Symmetry;
+import stacs.arcade.reversi.Zobrist;
+
+/**
+ * A negamax search with alpha-beta pruning and iterative deepening over the Reversi model.
+ * The search runs on its own copy of the position, making and taking back moves on it,
+ * and stops at a hard wall-clock deadline, returning the best move of the deepest
+ * iteration reached so far.
+ * Positions are cached in a transposition table keyed by the model's Zobrist hash, which may be
+ * shared with searches on other threads. Early in the game, where symmetric variants of a position are common,
+ * positions are looked up in their canonical orientation, so the variants share one entry.
+ * A table entry only cuts the search off if it was stored at the same remaining depth; deeper entries only
+ * give the move to try first. Every position of an iteration is reached at one remaining depth, so within one
+ * search this loses nothing, and the score of a depth does not depend on what other searches on the table found.
+ * An instance is not thread-safe; use one instance per thread.
+ *
+ * @author 190023753
+ */
+public class AlphaBetaSearch {
+
+	public static final int MAX_DEPTH = Bitboard.SQUARES;
+	static final int INFINITY = 1_000_000;
+	static final int FINAL_DISC_SCORE = 1_000;
+	private static final int DEFAULT_TABLE_BITS = 20;
+
+	/* The clock is read once every CHECK_INTERVAL + 1 nodes and after every root move, and the deadline is
+	 * brought forward by a margin that leaves time to unwind the search and build the result.
+	 */
+	static final int CHECK_INTERVAL = 63;
+	private static final long MAX_SAFETY_MARGIN_NANOS = 5_000_000;
+
+	/* Moves are tried in groups: corners first, then the other fields, then the fields next to the corners
+	 * along the edges (C-fields) and last the fields diagonally next to the corners (X-fields).
+	 */
+	private static final long CORNERS = 0x8100000000000081L;
+	private static final long C_FIELDS = 0x4281000000008142L;
+	private static final long X_FIELDS = 0x0042000000004200L;
+	private static final long[] MOVE_ORDER = {CORNERS, ~(CORNERS | C_FIELDS | X_FIELDS), C_FIELDS, X_FIELDS};
+
+	/* Positions with at most this many pieces are stored in the table in their canonical orientation.
+	 * Later in the game symmetric transpositions are too rare to pay for finding the orientation.
+	 */
+	private static final int CANONICAL_PIECES = 16;
+
+	private final Evaluator evaluator;
+	private final TranspositionTable table;
+	private ReversiModel model;
+	private long nodes, deadline;
+	private boolean aborted;
+	private volatile boolean stopRequested;
+
+	/**
+	 * Creates a search that scores its leaves with the given evaluator and caches positions in the given table.
+	 *
+	 * @param evaluator the evaluator used at the leaves
+	 * @param table     the transposition table, possibly shared with other searches
+	 */
+	public AlphaBetaSearch(Evaluator evaluator, TranspositionTable table) {
+		this.evaluator = evaluator;
+		this.table = table;
+	}
+
+	/**
+	 * Creates a search that scores its leaves with the given evaluator, with a private transposition table
+	 * of 2^20 entries.
+	 *
+	 * @param evaluator the evaluator used at the leaves
+	 */
+	public AlphaBetaSearch(Evaluator evaluator) {
+		this(evaluator, new TranspositionTable(DEFAULT_TABLE_BITS, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+	}
+
+	/**
+	 * Creates a search that scores its leaves with a SimpleEvaluator, with a private transposition table.
+	 */
+	public AlphaBetaSearch() {
+		this(new SimpleEvaluator());
+	}
+
+	/**
+	 * Searches the position as deep as the time budget allows.
+	 *
+	 * @param position     the position to search, which is not modified
+	 * @param budgetMillis the wall-clock budget in milliseconds
+	 * @return the best move found and the search statistics
+	 */
+	public SearchResult search(ReversiModel position, long budgetMillis) {
+		return search(position, MAX_DEPTH, budgetMillis);
+	}
+
+	/**
+	 * Searches the position with iterative deepening up to the given depth or until the time budget runs out.
+	 * If the budget runs out during an iteration, the best move of that iteration is kept when at least one
+	 * move of it was searched completely, otherwise the best move of the previous iteration is returned.
+	 *
+	 * @param position     the position to search, which is not modified
+	 * @param maxDepth     the maximum depth in moves
+	 * @param budgetMillis the wall-clock budget in milliseconds
+	 * @return the best move found and the search statistics
+	 */
+	public SearchResult search(ReversiModel position, int maxDepth, long budgetMillis) {
+		stopRequested = false;
+		table.newSearch();
+		return search(position, 1, maxDepth, budgetMillis);
+	}
+
+	/**
+	 * Runs the iterative deepening from the given depth without starting a new table generation
+	 * or clearing a pending stop request, so that several searches can work on the same table as one search.
+	 *
+	 * @param position     the position to search, which is not modified
+	 * @param firstDepth   the depth of the first iteration
+	 * @param maxDepth     the maximum depth in moves
+	 * @param budgetMillis the wall-clock budget in milliseconds
+	 * @return the best move found and the search statistics
+	 */
+	SearchResult search(ReversiModel position, int firstDepth, int maxDepth, long budgetMillis) {
+		long start = System.nanoTime();
+		long budget = budgetMillis * 1_000_000L;
+		deadline = start + budget - Math.min(MAX_SAFETY_MARGIN_NANOS, budget / 10);
+		model = new ReversiModel(position);
+		evaluator.reset(model);
+		nodes = 0;
+		aborted = false;
+
+		long moves = model.legalMoves(model.nextToMove());
+		if(moves == 0)
+			return new SearchResult(-1, finalScore(model), 0, 1, System.nanoTime() - start);
+
+		ReversiModel.PlayerColour player = model.nextToMove();
+		int bestMove = firstMove(moves);
+		int bestScore = -INFINITY;
+		int completedDepth = 0;
+		int depthLimit = Math.min(maxDepth, Bitboard.SQUARES - model.getTotalMoves());
+
+		for (int depth = Math.min(firstDepth, depthLimit); depth <= depthLimit && !aborted; depth++) {
+			int iterationMove = -1;
+			int iterationScore = -INFINITY;
+
+			for (int i = 0; i <= MOVE_ORDER.length && !aborted; i++) {
+				long group = i == 0 ? 1L << bestMove : moves & MOVE_ORDER[i - 1] & ~(1L << bestMove);
+				while (group != 0 && !aborted) {
+					int square = Long.numberOfTrailingZeros(group);
+					group &= group - 1;
+
+					play(square);
+					int score = model.nextToMove() == player ? negamax(depth - 1, iterationScore, INFINITY)
+							: -negamax(depth - 1, -INFINITY, -iterationScore);
+					unplay();
+
+					/* A move only replaces a better or equal one tried before it, so ties go to the earlier move. */
+					if(!aborted && score > iterationScore){
+						iterationScore = score;
+						iterationMove = square;
+					}
+					if(System.nanoTime() >= deadline || stopRequested)
+						aborted = true;
+				}
+			}
+
+			if(iterationMove >= 0){
+				bestMove = iterationMove;
+				bestScore = iterationScore;
+			}
+			if(!aborted)
+				completedDepth = depth;
+		}
+
+		if(bestScore == -INFINITY)
+			bestScore = evaluator.evaluate(model);
+		return new SearchResult(bestMove, bestScore, completedDepth, nodes, System.nanoTime() - start);
+	}
+
+	/**
+	 * Asks a running search to stop as soon as possible, as if its deadline had passed.
+	 * May be called from any thread.
+	 */
+	public void stop() {
+		stopRequested = true;
+	}
+
+	/**
+	 * Clears a stop request left over from a previous search.
+	 */
+	void clearStop() {
+		stopRequested = false;
+	}
+
+	/**
+	 * The fail-soft negamax search below the root.
+	 * @param depth the remaining depth in moves
+	 * @param alpha the lower bound of the search window
+	 * @param beta the upper bound of the search window
+	 * @return the score of the position from the point of view of the player to move, meaningless if aborted
+	 */
+	private int negamax(int depth, int alpha, int beta) {
+		if((++nodes & CHECK_INTERVAL) == 0 && (System.nanoTime() >= deadline || stopRequested))
+			aborted = true;
+		if(aborted)
+			return 0;
+		if(model.isGameOver())
+			return finalScore(model);
+		if(depth == 0)
+			return evaluator.evaluate(model);
+
+		int symmetry = Symmetry.IDENTITY;
+		long hash = model.getHash();
+		if(model.getTotalMoves() <= CANONICAL_PIECES){
+			long black = model.getBitboard(ReversiModel.PlayerColour.BLACK);
+			long white = model.getBitboard(ReversiModel.PlayerColour.WHITE);
+			symmetry = Symmetry.canonicalSymmetry(black, white);
+			if(symmetry != Symmetry.IDENTITY)
+				hash = Zobrist.hash(Symmetry.transform(symmetry, black), Symmetry.transform(symmetry, white), model.nextToMove());
+		}
+
+		long entry = table.probe(hash);
+		long tableMove = 0;
+		if(entry != TranspositionTable.NO_ENTRY){
+			int score = TranspositionTable.score(entry);
+			if(TranspositionTable.depth(entry) == depth){
+				int bound = TranspositionTable.bound(entry);
+				if(bound == TranspositionTable.EXACT
+						|| (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+						|| (bound == TranspositionTable.UPPER_BOUND && score <= alpha))
+					return score;
+			}
+			if(TranspositionTable.move(entry) >= 0)
+				tableMove = 1L << Symmetry.transformSquare(Symmetry.inverse(symmetry), TranspositionTable.move(entry));
+		}
+
+		ReversiModel.PlayerColour player = model.nextToMove();
+		long moves = model.legalMoves(player);
+		tableMove &= moves;
+
+		int originalAlpha = alpha;
+		int best = -INFINITY;
+		int bestMove = -1;
+		for (int i = 0; i <= MOVE_ORDER.length; i++) {
+			long group = i == 0 ? tableMove : moves & MOVE_ORDER[i - 1] & ~tableMove;
+			while (group != 0) {
+				int square = Long.numberOfTrailingZeros(group);
+				group &= group - 1;
+
+				/* If the opponent has to pass, the same player moves again and the score keeps its sign. */
+				play(square);
+				int score = model.nextToMove() == player ? negamax(depth - 1, alpha, beta)
+						: -negamax(depth - 1, -beta, -alpha);
+				unplay();
+
+				if(aborted)
+					return 0;
+				if(score > best){
+					best = score;
+					bestMove = square;
+					if(score > alpha){
+						alpha = score;
+						if(alpha >= beta){
+							table.store(hash, depth, TranspositionTable.LOWER_BOUND, best, Symmetry.transformSquare(symmetry, bestMove));
+							return best;
+						}
+					}
+				}
+			}
+		}
+
+		table.store(hash, depth, best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND, best,
+				bestMove < 0 ? bestMove : Symmetry.transformSquare(symmetry, bestMove));
+		return best;
+	}
+
+	/**
+	 * Scores a finished game by its final disc difference, with the empty fields counted for the winner as in
+	 * EndgameSolver, scaled so that it outweighs any evaluation.
+	 * @param model a position where the game is over
+	 * @return the score from the point of view of the player to move
+	 */
+	static int finalScore(ReversiModel model) {
+		ReversiModel.PlayerColour player = model.nextToMove();
+		long own = model.getBitboard(player);
+		long opponent = model.getBitboard(player == ReversiModel.PlayerColour.BLACK
+				? ReversiModel.PlayerColour.WHITE : ReversiModel.PlayerColour.BLACK);
+		return EndgameSolver.finalDifference(own, opponent) * FINAL_DISC_SCORE;
+	}
+
+	/**
+	 * Returns the first move of the given moves in search order.
+	 * @param moves the mask of legal moves, not 0
+	 * @return the square index of the move
+	 */
+	private static int firstMove(long moves) {
+		for (long order : MOVE_ORDER) {
+			if((moves & order) != 0)
+				return Long.numberOfTrailingZeros(moves & order);
+		}
+		throw new IllegalArgumentException("No moves to choose from");
+	}
+
+	/**
+	 * Plays a move generated by the search for the player to move.
+	 * @param square the square index of a legal move
+	 */
+	private void play(int square) {
+		try {
+			model.makeMove(model.nextToMove(), Bitboard.x(square), Bitboard.y(square));
+		} catch (IllegalMoveException e) {
+			throw new IllegalStateException("The search generated an illegal move", e);
+		}
+		evaluator.moveMade(model);
+	}
+
+	/**
+	 * Takes back the last move played by the search.
+	 */
+	private void unplay() {
+		evaluator.moveUndone(model);
+		model.unmakeMove();
+	}
+}
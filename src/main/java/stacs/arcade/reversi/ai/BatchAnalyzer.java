@@ -0,0 +1,178 @@
+package stacs.arcade.reversi.ai;
+
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.Position;
+import stacs.arcade.reversi.ReversiModel;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Scores many positions at once: disc counts, legal moves, mobility and, if a depth is given, the best move of
+ * a fixed-depth search. Positions are read straight from their packed keys or from Position objects, without
+ * replaying any moves, and the batch is cut into chunks that are analysed in parallel on a fork-join pool
+ * that the analyzer owns.
+ * A chunk borrows a search with its own transposition table from the analyzer and gives it back when it is done,
+ * so the searches are reused across chunks and batches, and there are never more of them than threads in the pool.
+ * Closing the analyzer stops its threads and drops the searches.
+ * An analyzer may be used by several threads at once.
+ *
+ * @author 190023753
+ */
+public class BatchAnalyzer implements AutoCloseable {
+
+	static final int CHUNK_SIZE = 64;
+	private static final int OPENING_MOVES = 4;
+	private static final int TABLE_BITS = 16;
+	private static final long SEARCH_BUDGET_MILLIS = 3_600_000;
+
+	private final int depth;
+	private final Supplier<Evaluator> evaluators;
+	private final ForkJoinPool pool;
+	/* The searches not used by a chunk at the moment. */
+	private final Queue<AlphaBetaSearch> searches = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Creates an analyzer with a pool of the given number of threads.
+	 *
+	 * @param depth      the depth of the search for the best move, 0 for no search
+	 * @param evaluators creates the evaluator of each search
+	 * @param threads    the number of threads the chunks are analysed on
+	 */
+	public BatchAnalyzer(int depth, Supplier<Evaluator> evaluators, int threads) {
+		if(depth < 0)
+			throw new IllegalArgumentException("Depth must not be negative: " + depth);
+		this.depth = depth;
+		this.evaluators = evaluators;
+		this.pool = new ForkJoinPool(threads);
+	}
+
+	/**
+	 * Creates an analyzer searching with a SimpleEvaluator on one thread per available processor.
+	 *
+	 * @param depth the depth of the search for the best move, 0 for no search
+	 */
+	public BatchAnalyzer(int depth) {
+		this(depth, SimpleEvaluator::new, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Analyses the positions.
+	 *
+	 * @param positions the positions
+	 * @return the results, in the order of the positions
+	 */
+	public BatchResult analyze(Position[] positions) {
+		BatchResult result = new BatchResult(positions.length);
+		run(positions.length, (from, to, search) -> {
+			for (int i = from; i < to; i++) {
+				analyze(positions[i], result, i, search);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Analyses the positions packed as keys, as written by Position.writeKey, between the position and
+	 * the limit of the buffer. The buffer itself is not changed.
+	 *
+	 * @param keys the packed positions
+	 * @return the results, in the order of the keys
+	 * @throws IllegalArgumentException if the remaining bytes are not a whole number of keys.
+	 */
+	public BatchResult analyze(ByteBuffer keys) {
+		if(keys.remaining() % Position.KEY_BYTES != 0)
+			throw new IllegalArgumentException("Not a whole number of keys: " + keys.remaining() + " bytes");
+		int start = keys.position();
+		BatchResult result = new BatchResult(keys.remaining() / Position.KEY_BYTES);
+		run(result.size(), (from, to, search) -> {
+			ByteBuffer view = keys.duplicate();
+			view.position(start + from * Position.KEY_BYTES);
+			for (int i = from; i < to; i++)
+				analyze(Position.readKey(view), result, i, search);
+		});
+		return result;
+	}
+
+	/**
+	 * Stops the threads of the pool and drops the searches. The analyzer cannot be used afterwards.
+	 */
+	@Override
+	public void close() {
+		pool.shutdown();
+		searches.clear();
+	}
+
+	/**
+	 * Cuts the batch into chunks and analyses them on the pool, each with a borrowed search.
+	 * @param size the number of positions
+	 * @param chunk analyses the positions of one chunk
+	 */
+	private void run(int size, Chunk chunk) {
+		int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(i -> {
+			AlphaBetaSearch search = depth > 0 ? borrowSearch() : null;
+			try {
+				chunk.analyze(i * CHUNK_SIZE, Math.min(size, (i + 1) * CHUNK_SIZE), search);
+			} finally {
+				if(search != null)
+					searches.add(search);
+			}
+		})).join();
+	}
+
+	/**
+	 * Takes a search that no chunk is using, or creates one if there is none.
+	 * @return the search
+	 */
+	private AlphaBetaSearch borrowSearch() {
+		AlphaBetaSearch search = searches.poll();
+		if(search != null)
+			return search;
+		return new AlphaBetaSearch(evaluators.get(),
+				new TranspositionTable(TABLE_BITS, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+	}
+
+	/**
+	 * Fills the results of one position.
+	 * @param position the position
+	 * @param result the results
+	 * @param index the index of the position
+	 * @param search the search for the best move, null if the analyzer does not search
+	 */
+	private void analyze(Position position, BatchResult result, int index, AlphaBetaSearch search) {
+		long black = position.getBitboard(ReversiModel.PlayerColour.BLACK);
+		long white = position.getBitboard(ReversiModel.PlayerColour.WHITE);
+		long own = position.getBitboard(position.nextToMove());
+		long legal = position.legalMoves();
+		result.legalMoves[index] = legal;
+		result.blackDiscs[index] = Long.bitCount(black);
+		result.whiteDiscs[index] = Long.bitCount(white);
+		result.mobility[index] = Long.bitCount(legal);
+		result.opponentMobility[index] = position.getMoveCount() < OPENING_MOVES ? Long.bitCount(legal)
+				: Long.bitCount(Bitboard.legalMoves((black | white) & ~own, own));
+		result.bestMoves[index] = -1;
+		result.scores[index] = 0;
+		if(depth > 0 && legal != 0){
+			SearchResult best = search.search(position.toModel(), depth, SEARCH_BUDGET_MILLIS);
+			result.bestMoves[index] = best.getBestMove();
+			result.scores[index] = best.getScore();
+		}
+	}
+
+	/**
+	 * The analysis of the positions of one chunk.
+	 */
+	private interface Chunk {
+		/**
+		 * @param from the index of the first position
+		 * @param to the index after the last position
+		 * @param search the search for the best moves, null if the analyzer does not search
+		 */
+		void analyze(int from, int to, AlphaBetaSearch search);
+	}
+}
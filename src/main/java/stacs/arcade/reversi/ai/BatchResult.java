@@ -0,0 +1,91 @@
+package stacs.arcade.reversi.ai;
+
+/**
+ * The results of a batch analysis in structure-of-arrays form: entry i of every array belongs to position i
+ * of the batch. The getters return the arrays themselves, not copies, so results can be read column by column
+ * without boxing or copying.
+ *
+ * @author 190023753
+ */
+public final class BatchResult {
+
+	final long[] legalMoves;
+	final int[] blackDiscs;
+	final int[] whiteDiscs;
+	final int[] mobility;
+	final int[] opponentMobility;
+	final int[] bestMoves;
+	final int[] scores;
+
+	/**
+	 * Creates empty result arrays.
+	 *
+	 * @param size the number of positions
+	 */
+	BatchResult(int size) {
+		legalMoves = new long[size];
+		blackDiscs = new int[size];
+		whiteDiscs = new int[size];
+		mobility = new int[size];
+		opponentMobility = new int[size];
+		bestMoves = new int[size];
+		scores = new int[size];
+	}
+
+	/**
+	 * @return the number of positions
+	 */
+	public int size() {
+		return legalMoves.length;
+	}
+
+	/**
+	 * @return the legal moves of the player to move, as bitboards
+	 */
+	public long[] getLegalMoves() {
+		return legalMoves;
+	}
+
+	/**
+	 * @return the number of BLACK pieces
+	 */
+	public int[] getBlackDiscs() {
+		return blackDiscs;
+	}
+
+	/**
+	 * @return the number of WHITE pieces
+	 */
+	public int[] getWhiteDiscs() {
+		return whiteDiscs;
+	}
+
+	/**
+	 * @return the number of legal moves of the player to move
+	 */
+	public int[] getMobility() {
+		return mobility;
+	}
+
+	/**
+	 * @return the number of fields where the opponent of the player to move could capture
+	 */
+	public int[] getOpponentMobility() {
+		return opponentMobility;
+	}
+
+	/**
+	 * @return the square index of the best move found, -1 where the game is over or no search was asked for
+	 */
+	public int[] getBestMoves() {
+		return bestMoves;
+	}
+
+	/**
+	 * @return the search score of the best move from the point of view of the player to move,
+	 * 0 where no search was asked for
+	 */
+	public int[] getScores() {
+		return scores;
+	}
+}
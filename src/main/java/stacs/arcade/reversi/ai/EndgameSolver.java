@@ -0,0 +1,661 @@
+package stacs.arcade.reversi.ai;
+
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.ReversiModel;
+
+/**
+ * An exact endgame solver: searches a position to the end of the game and returns the final disc difference
+ * with perfect play. The solver works on the two bitboards directly instead of the model, computing the flips
+ * of each move and passing the new bitboards down, so no move has to be taken back.
+ * The score is the number of stones of the player to move minus those of the opponent when neither can move,
+ * with the empty fields left at that point counted for the winner, as in tournament Othello.
+ * <p>
+ * The root is searched with null windows around a guess of the score, moving the guess after each search
+ * until the score is proved, which costs fewer positions than one search with the full window.
+ * Moves are ordered fastest-first at every node above the last five empty fields, trying first the moves that
+ * leave the opponent the fewest replies, counting corners twice, and the fewest empty fields next to the mover's
+ * pieces. With fifteen or more empty fields the best reply on mobility and corners is added to that order, as a
+ * guess of which move is best rather than only which one is fastest to search.
+ * The last five empty fields are solved by dedicated routines that only compute flips, trying first the fields in
+ * quadrants with an odd number of empty fields.
+ * Positions with many empty fields are cached in a transposition table, whose best move is tried first. With ten or
+ * more empty fields the table is also probed for the positions after each move, as one of them may already be
+ * known to be good enough to cut the position off.
+ * A position is cut off without search when the stable pieces of the opponent already keep the score at or
+ * below the lower bound of the window. Stable pieces are those of the edges that no sequence of moves on the edge
+ * can capture, and the pieces inside the board that are held along each line by a full line or a stable neighbour.
+ * An instance is not thread-safe; use one instance per thread.
+ *
+ * @author 190023753
+ */
+public class EndgameSolver {
+
+	/* Positions with at most this many empty fields are solved by solveSmall, above it moves are ordered fastest-first. */
+	private static final int SMALL_EMPTIES = 5;
+	/* With at least this many empty fields moves are also ordered by the best reply on mobility. */
+	private static final int SHALLOW_EMPTIES = 15;
+	/* With at least this many empty fields the table is probed for the positions after each move before searching. */
+	private static final int ETC_EMPTIES = 10;
+	/* The weight of a corner held in the shallow search, against 4 per move. */
+	private static final int CORNER_WEIGHT = 8;
+	/* Positions with at least this many empty fields are cached in the table. */
+	private static final int TABLE_EMPTIES = 7;
+	private static final int DEFAULT_TABLE_BITS = 20;
+	private static final int INFINITY = 1 << 20;
+	private static final long CORNERS = 0x8100000000000081L;
+	private static final long[] QUADRANTS = {0x000000000F0F0F0FL, 0x00000000F0F0F0F0L, 0x0F0F0F0F00000000L, 0xF0F0F0F000000000L};
+	private static final long NOT_FIRST_COLUMN = 0xFEFEFEFEFEFEFEFEL;
+	private static final long NOT_LAST_COLUMN = 0x7F7F7F7F7F7F7F7FL;
+	private static final long FIRST_COLUMN = 0x0101010101010101L;
+	private static final long INNER = 0x007E7E7E7E7E7E00L;
+
+	/* Every row, column and diagonal of the board, used to find the lines that are full. */
+	private static final long[] ROWS = new long[Bitboard.SIZE];
+	private static final long[] COLUMNS = new long[Bitboard.SIZE];
+	private static final long[] DIAGONALS = new long[2 * Bitboard.SIZE - 1];
+	private static final long[] ANTI_DIAGONALS = new long[2 * Bitboard.SIZE - 1];
+	/* The fields around each field. A move captures nothing unless an opponent piece is among them. */
+	private static final long[] NEIGHBOURS = new long[Bitboard.SQUARES];
+	/* The fields from each field to the edge of the board along each direction, without the field itself:
+	 * first the four directions towards higher square indexes, then the four towards lower ones.
+	 */
+	private static final int DIRECTIONS = 8;
+	private static final long[] RAYS = new long[Bitboard.SQUARES * DIRECTIONS];
+	private static final int[] DX = {1, -1, 0, 1, -1, 1, 0, -1};
+	private static final int[] DY = {0, 1, 1, 1, 0, -1, -1, -1};
+	/* The stable pieces of an edge, indexed by the pieces of the player and of the other player on the edge. */
+	private static final byte[] EDGE_STABLE = new byte[1 << 16];
+	/* The fields of the first column, indexed by the packed column of column(long). */
+	private static final long[] COLUMN_A = new long[1 << Bitboard.SIZE];
+
+	static {
+		for (int square = 0; square < Bitboard.SQUARES; square++) {
+			int x = Bitboard.x(square), y = Bitboard.y(square);
+			ROWS[y] |= 1L << square;
+			COLUMNS[x] |= 1L << square;
+			DIAGONALS[x - y + Bitboard.SIZE - 1] |= 1L << square;
+			ANTI_DIAGONALS[x + y] |= 1L << square;
+			NEIGHBOURS[square] = neighbours(1L << square);
+			for (int direction = 0; direction < DIRECTIONS; direction++) {
+				for (int i = x + DX[direction], j = y + DY[direction]; i >= 0 && i < Bitboard.SIZE && j >= 0 && j < Bitboard.SIZE;
+						i += DX[direction], j += DY[direction])
+					RAYS[square * DIRECTIONS + direction] |= 1L << Bitboard.square(i, j);
+			}
+		}
+		for (int own = 0; own < 1 << Bitboard.SIZE; own++) {
+			for (int y = 0; y < Bitboard.SIZE; y++) {
+				if((own >>> y & 1) != 0)
+					COLUMN_A[own] |= 1L << Bitboard.square(0, y);
+			}
+			for (int other = 0; other < 1 << Bitboard.SIZE; other++) {
+				if((own & other) == 0)
+					EDGE_STABLE[own << 8 | other] = (byte) edgeStable(own, other, own);
+			}
+		}
+	}
+
+	/* Per number of empty fields: the moves of a position in search order and their ordering keys. */
+	private final int[][] moves = new int[Bitboard.SQUARES + 1][Bitboard.SQUARES];
+	private final int[][] keys = new int[Bitboard.SQUARES + 1][Bitboard.SQUARES];
+	private final TranspositionTable table;
+	private long nodes;
+	/* The best move found so far by the searches of the root. */
+	private int rootMove;
+
+	/**
+	 * Creates a solver that caches positions in the given table.
+	 *
+	 * @param table the transposition table, which must not be shared with a search on other scores
+	 */
+	public EndgameSolver(TranspositionTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * Creates a solver with a private transposition table of 2^20 entries.
+	 */
+	public EndgameSolver() {
+		this(new TranspositionTable(DEFAULT_TABLE_BITS, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED));
+	}
+
+	/**
+	 * Solves the position of the model exactly.
+	 *
+	 * @param model the position to solve, after the four initial moves, which is not modified
+	 * @return the best move and the final disc difference from the point of view of the player to move,
+	 * with the number of empty fields as depth
+	 * @throws IllegalArgumentException if the model is still in its four initial moves.
+	 */
+	public SearchResult solve(ReversiModel model) {
+		if(model.getTotalMoves() < 4)
+			throw new IllegalArgumentException("The solver starts after the four initial moves");
+		long start = System.nanoTime();
+		table.newSearch();
+		nodes = 1;
+		ReversiModel.PlayerColour player = model.nextToMove();
+		long own = model.getBitboard(player);
+		long opponent = model.getBitboard(player == ReversiModel.PlayerColour.BLACK
+				? ReversiModel.PlayerColour.WHITE : ReversiModel.PlayerColour.BLACK);
+		int empties = Long.bitCount(~(own | opponent));
+
+		long legal = Bitboard.legalMoves(own, opponent);
+		if(legal == 0)
+			return new SearchResult(-1, solve(own, opponent, -Bitboard.SQUARES, Bitboard.SQUARES), empties, nodes,
+					System.nanoTime() - start);
+
+		int count = order(own, opponent, legal, empties);
+		rootMove = moves[empties][0];
+		int lower = -Bitboard.SQUARES, upper = Bitboard.SQUARES;
+		int guess = 0;
+		while (lower < upper) {
+			/* Scores are even, so a window of one odd score below and one above the guess proves it exact or a bound. */
+			int bound = Math.max(lower, Math.min(upper, guess)) | 1;
+			if(bound > upper)
+				bound -= 2;
+			int score = searchRoot(own, opponent, empties, count, bound - 2, bound);
+			if(score <= bound - 2)
+				upper = score;
+			else if(score >= bound)
+				lower = score;
+			else
+				lower = upper = score;
+			guess = score;
+		}
+		return new SearchResult(rootMove, lower, empties, nodes, System.nanoTime() - start);
+	}
+
+	/**
+	 * Searches the moves of the root within a window, remembering the move that raises the lower bound in rootMove
+	 * and moving it to the front of the move list for the next search.
+	 * @param own the pieces of the player to move
+	 * @param opponent the pieces of the opponent
+	 * @param empties the number of empty fields
+	 * @param count the number of moves in the move buffer of the root
+	 * @param alpha the lower bound of the search window
+	 * @param beta the upper bound of the search window
+	 * @return the score of the best move if it lies inside the window, otherwise a bound on the side of the window
+	 */
+	private int searchRoot(long own, long opponent, int empties, int count, int alpha, int beta) {
+		int[] buffer = moves[empties];
+		int best = -Bitboard.SQUARES - 1;
+		for (int i = 0; i < count; i++) {
+			int square = buffer[i];
+			long flips = Bitboard.flips(own, opponent, square);
+			long nextOwn = opponent & ~flips;
+			long nextOpponent = own | flips | 1L << square;
+			int score = -solve(nextOwn, nextOpponent, -beta, -alpha);
+			if(score > best){
+				best = score;
+				if(score > alpha){
+					rootMove = square;
+					moveToFront(buffer, count, square);
+					alpha = score;
+					if(alpha >= beta)
+						break;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Solves a position given by its bitboards, within a search window.
+	 *
+	 * @param own      the pieces of the player to move
+	 * @param opponent the pieces of the opponent
+	 * @param alpha    the lower bound of the search window
+	 * @param beta     the upper bound of the search window
+	 * @return the final disc difference if it lies inside the window, otherwise a bound on the side of the window
+	 */
+	public int solve(long own, long opponent, int alpha, int beta) {
+		long empty = ~(own | opponent);
+		int empties = Long.bitCount(empty);
+		if(empties <= SMALL_EMPTIES)
+			return solveSmall(own, opponent, empty, alpha, beta);
+		nodes++;
+
+		/* The opponent keeps its stable pieces, so the score is at most 64 minus twice their number.
+		 * Few pieces are stable while many fields are empty, so the check only pays off when alpha is high for them.
+		 */
+		if(alpha >= 2 * empties && Bitboard.SQUARES - 2 * Long.bitCount(opponent) <= alpha){
+			int maximum = Bitboard.SQUARES - 2 * Long.bitCount(stablePieces(opponent, own | opponent));
+			if(maximum <= alpha)
+				return maximum;
+		}
+
+		long legal = Bitboard.legalMoves(own, opponent);
+		if(legal == 0){
+			if(Bitboard.legalMoves(opponent, own) == 0)
+				return finalDifference(own, opponent);
+			return -solve(opponent, own, -beta, -alpha);
+		}
+
+		long hash = 0;
+		int tableMove = -1;
+		if(empties >= TABLE_EMPTIES){
+			hash = hash(own, opponent);
+			long entry = table.probe(hash);
+			if(entry != TranspositionTable.NO_ENTRY){
+				int score = TranspositionTable.score(entry);
+				int bound = TranspositionTable.bound(entry);
+				if(bound == TranspositionTable.EXACT
+						|| (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+						|| (bound == TranspositionTable.UPPER_BOUND && score <= alpha))
+					return score;
+				tableMove = TranspositionTable.move(entry);
+			}
+			if(empties >= ETC_EMPTIES){
+				for (long fields = legal; fields != 0; fields &= fields - 1) {
+					int square = Long.numberOfTrailingZeros(fields);
+					long flips = Bitboard.flips(own, opponent, square);
+					long child = table.probe(hash(opponent & ~flips, own | flips | 1L << square));
+					if(child != TranspositionTable.NO_ENTRY && TranspositionTable.bound(child) != TranspositionTable.LOWER_BOUND
+							&& -TranspositionTable.score(child) >= beta)
+						return -TranspositionTable.score(child);
+				}
+			}
+		}
+
+		int count = order(own, opponent, legal, empties);
+		if(tableMove >= 0)
+			moveToFront(moves[empties], count, tableMove);
+		int originalAlpha = alpha;
+		int best = -Bitboard.SQUARES - 1;
+		int bestMove = -1;
+		for (int i = 0; i < count; i++) {
+			int square = moves[empties][i];
+			long flips = Bitboard.flips(own, opponent, square);
+			long nextOwn = opponent & ~flips;
+			long nextOpponent = own | flips | 1L << square;
+
+			/* The first move is searched with the full window, the others with a null window that only
+			 * proves them worse, and searched again if the proof fails.
+			 */
+			int score;
+			if(i == 0)
+				score = -solve(nextOwn, nextOpponent, -beta, -alpha);
+			else {
+				score = -solve(nextOwn, nextOpponent, -alpha - 1, -alpha);
+				if(score > alpha && score < beta)
+					score = -solve(nextOwn, nextOpponent, -beta, -score);
+			}
+
+			if(score > best){
+				best = score;
+				bestMove = square;
+				if(score > alpha){
+					alpha = score;
+					if(alpha >= beta)
+						break;
+				}
+			}
+		}
+
+		if(empties >= TABLE_EMPTIES){
+			int bound = best >= beta ? TranspositionTable.LOWER_BOUND
+					: best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+			table.store(hash, empties, bound, best, bestMove);
+		}
+		return best;
+	}
+
+	/**
+	 * @return the number of positions visited by the last call of solve(ReversiModel)
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Writes the legal moves into the move buffer of the given number of empty fields, in search order.
+	 * @param own the pieces of the player to move
+	 * @param opponent the pieces of the opponent
+	 * @param legal the mask of legal moves
+	 * @param empties the number of empty fields
+	 * @return the number of moves
+	 */
+	private int order(long own, long opponent, long legal, int empties) {
+		int[] buffer = moves[empties];
+		int[] key = keys[empties];
+		int count = 0;
+		long odd = oddQuadrants(~(own | opponent));
+		for (; legal != 0; legal &= legal - 1) {
+			int square = Long.numberOfTrailingZeros(legal);
+			long flips = Bitboard.flips(own, opponent, square);
+			long nextOwn = own | flips | 1L << square;
+			long nextOpponent = opponent & ~flips;
+			long replies = Bitboard.legalMoves(nextOpponent, nextOwn);
+			int value = 16 * (Long.bitCount(replies) + Long.bitCount(replies & CORNERS))
+					+ 4 * Long.bitCount(neighbours(nextOwn) & ~(nextOwn | nextOpponent))
+					+ ((odd >>> square & 1) == 0 ? 2 : 0) + ((CORNERS >>> square & 1) == 0 ? 1 : 0);
+			if(empties >= SHALLOW_EMPTIES)
+				value += 16 * shallow(nextOpponent, nextOwn);
+
+			int i = count++;
+			for (; i > 0 && key[i - 1] > value; i--) {
+				key[i] = key[i - 1];
+				buffer[i] = buffer[i - 1];
+			}
+			key[i] = value;
+			buffer[i] = square;
+		}
+		return count;
+	}
+
+	/**
+	 * Estimates a position by its best move on mobility, only used to order moves.
+	 * @param own the pieces of the player to move
+	 * @param opponent the pieces of the opponent
+	 * @return the estimate from the point of view of the player to move
+	 */
+	private int shallow(long own, long opponent) {
+		long legal = Bitboard.legalMoves(own, opponent);
+		if(legal == 0)
+			return mobility(legal, own, opponent);
+		int best = -INFINITY;
+		for (; legal != 0; legal &= legal - 1) {
+			int square = Long.numberOfTrailingZeros(legal);
+			long flips = Bitboard.flips(own, opponent, square);
+			long nextOpponent = own | flips | 1L << square;
+			long nextOwn = opponent & ~flips;
+			best = Math.max(best, -mobility(Bitboard.legalMoves(nextOwn, nextOpponent), nextOwn, nextOpponent));
+		}
+		return best;
+	}
+
+	/**
+	 * Scores the mobility of a position: the moves of each player, corners counted twice, less the empty fields
+	 * next to their pieces.
+	 * @param legal the legal moves of the player to move
+	 * @param own the pieces of the player to move
+	 * @param opponent the pieces of the opponent
+	 * @return the score from the point of view of the player to move
+	 */
+	private static int mobility(long legal, long own, long opponent) {
+		long replies = Bitboard.legalMoves(opponent, own);
+		long empty = ~(own | opponent);
+		return 4 * (Long.bitCount(legal) + Long.bitCount(legal & CORNERS) - Long.bitCount(replies) - Long.bitCount(replies & CORNERS))
+				+ Long.bitCount(neighbours(opponent) & empty) - Long.bitCount(neighbours(own) & empty)
+				+ CORNER_WEIGHT * (Long.bitCount(own & CORNERS) - Long.bitCount(opponent & CORNERS));
+	}
+
+	/**
+	 * Solves a position with at most five empty fields, trying the fields of odd quadrants first.
+	 * @param own the pieces of the player to move
+	 * @param opponent the pieces of the opponent
+	 * @param empty the mask of empty fields
+	 * @param alpha the lower bound of the search window
+	 * @param beta the upper bound of the search window
+	 * @return the final disc difference, or a bound on the side of the window
+	 */
+	private int solveSmall(long own, long opponent, long empty, int alpha, int beta) {
+		if(empty == 0)
+			return finalDifference(own, opponent);
+		long rest = empty & (empty - 1);
+		if(rest == 0)
+			return solveLast(own, opponent, Long.numberOfTrailingZeros(empty));
+		if((rest & (rest - 1)) == 0)
+			return solveTwo(own, opponent, Long.numberOfTrailingZeros(empty), Long.numberOfTrailingZeros(rest), beta);
+		nodes++;
+
+		long odd = oddQuadrants(empty);
+		int best = -Bitboard.SQUARES - 1;
+		for (int pass = 0; pass < 2; pass++) {
+			for (long fields = empty & (pass == 0 ? odd : ~odd); fields != 0; fields &= fields - 1) {
+				int square = Long.numberOfTrailingZeros(fields);
+				if((NEIGHBOURS[square] & opponent) == 0)
+					continue;
+				long flips = Bitboard.flips(own, opponent, square);
+				if(flips == 0)
+					continue;
+				long placed = 1L << square;
+				int score = -solveSmall(opponent & ~flips, own | flips | placed, empty & ~placed, -beta, -alpha);
+				if(score > best){
+					best = score;
+					if(score > alpha){
+						alpha = score;
+						if(alpha >= beta)
+							return best;
+					}
+				}
+			}
+		}
+		if(best > -Bitboard.SQUARES - 1)
+			return best;
+
+		for (long fields = empty; fields != 0; fields &= fields - 1) {
+			int square = Long.numberOfTrailingZeros(fields);
+			if((NEIGHBOURS[square] & own) != 0 && Bitboard.flips(opponent, own, square) != 0)
+				return -solveSmall(opponent, own, empty, -beta, -alpha);
+		}
+		return finalDifference(own, opponent);
+	}
+
+	/**
+	 * Solves a position with two empty fields.
+	 * @param own the pieces of the player to move
+	 * @param opponent the pieces of the opponent
+	 * @param first the first empty field
+	 * @param second the second empty field
+	 * @param beta the upper bound of the search window
+	 * @return the final disc difference, or a bound on the side of the window
+	 */
+	private int solveTwo(long own, long opponent, int first, int second, int beta) {
+		nodes++;
+		int best = -Bitboard.SQUARES - 1;
+		long flips;
+		if((NEIGHBOURS[first] & opponent) != 0 && (flips = Bitboard.flips(own, opponent, first)) != 0){
+			best = -solveLast(opponent & ~flips, own | flips | 1L << first, second);
+			if(best >= beta)
+				return best;
+		}
+		if((NEIGHBOURS[second] & opponent) != 0 && (flips = Bitboard.flips(own, opponent, second)) != 0)
+			best = Math.max(best, -solveLast(opponent & ~flips, own | flips | 1L << second, first));
+		if(best > -Bitboard.SQUARES - 1)
+			return best;
+
+		/* The player to move has to pass, and the opponent takes the field that is worse for the player. */
+		int worst = Bitboard.SQUARES + 1;
+		if((NEIGHBOURS[first] & own) != 0 && (flips = Bitboard.flips(opponent, own, first)) != 0)
+			worst = solveLast(own & ~flips, opponent | flips | 1L << first, second);
+		if((NEIGHBOURS[second] & own) != 0 && (flips = Bitboard.flips(opponent, own, second)) != 0)
+			worst = Math.min(worst, solveLast(own & ~flips, opponent | flips | 1L << second, first));
+		return worst < Bitboard.SQUARES + 1 ? worst : finalDifference(own, opponent);
+	}
+
+	/**
+	 * Solves a position with one empty field: the player to move takes it if it can, otherwise the opponent.
+	 * @param own the pieces of the player to move
+	 * @param opponent the pieces of the opponent
+	 * @param square the empty field
+	 * @return the final disc difference
+	 */
+	private int solveLast(long own, long opponent, int square) {
+		nodes++;
+		int difference = 2 * Long.bitCount(own) - Bitboard.SQUARES + 1;
+		int flips = (NEIGHBOURS[square] & opponent) == 0 ? 0 : lastFlips(own, square);
+		if(flips != 0)
+			return difference + 2 * flips + 1;
+		flips = (NEIGHBOURS[square] & own) == 0 ? 0 : lastFlips(opponent, square);
+		if(flips != 0)
+			return difference - 2 * flips - 1;
+		return Integer.signum(difference) + difference;
+	}
+
+	/**
+	 * Counts the pieces a move on the last empty field captures. As every other field is occupied, the pieces
+	 * captured along a line are those between the move and the nearest piece of the player on the line.
+	 * @param pieces the pieces of the player making the move
+	 * @param square the empty field
+	 * @return the number of captured pieces
+	 */
+	private static int lastFlips(long pieces, int square) {
+		int flips = 0;
+		int ray = square * DIRECTIONS;
+		for (int direction = 0; direction < DIRECTIONS / 2; direction++, ray++) {
+			long line = pieces & RAYS[ray];
+			if(line != 0)
+				flips += Long.bitCount(RAYS[ray] & ((line & -line) - 1));
+		}
+		for (int direction = DIRECTIONS / 2; direction < DIRECTIONS; direction++, ray++) {
+			long line = pieces & RAYS[ray];
+			if(line != 0)
+				flips += Long.bitCount(RAYS[ray] & -(Long.highestOneBit(line) << 1));
+		}
+		return flips;
+	}
+
+	/**
+	 * Returns the fields of the quadrants holding an odd number of empty fields.
+	 * @param empty the mask of empty fields
+	 * @return the mask of the odd quadrants
+	 */
+	private static long oddQuadrants(long empty) {
+		long odd = 0;
+		for (long quadrant : QUADRANTS) {
+			if((Long.bitCount(empty & quadrant) & 1) != 0)
+				odd |= quadrant;
+		}
+		return odd;
+	}
+
+	/**
+	 * Finds pieces that can never be captured. A piece on an edge can only be captured along the edge, so the stable
+	 * pieces of the edges are looked up in EDGE_STABLE. A piece inside the board is stable if along each of the four
+	 * lines through it the line is full or the piece is next to a stable piece of the same colour.
+	 * @param pieces the pieces of one player
+	 * @param occupied the fields occupied by either player
+	 * @return the mask of stable pieces
+	 */
+	static long stablePieces(long pieces, long occupied) {
+		long other = occupied & ~pieces;
+		long stable = EDGE_STABLE[(int) (pieces & 0xFF) << 8 | (int) (other & 0xFF)] & 0xFFL
+				| (EDGE_STABLE[(int) (pieces >>> 56) << 8 | (int) (other >>> 56)] & 0xFFL) << 56
+				| COLUMN_A[EDGE_STABLE[column(pieces) << 8 | column(other)] & 0xFF]
+				| COLUMN_A[EDGE_STABLE[column(pieces >>> 7) << 8 | column(other >>> 7)] & 0xFF] << 7;
+		long fullRows = fullLines(occupied, ROWS), fullColumns = fullLines(occupied, COLUMNS);
+		long fullDiagonals = fullLines(occupied, DIAGONALS), fullAntiDiagonals = fullLines(occupied, ANTI_DIAGONALS);
+		long inner = pieces & INNER;
+		stable |= inner & fullRows & fullColumns & fullDiagonals & fullAntiDiagonals;
+		if(stable == 0)
+			return 0;
+		while (true) {
+			long next = stable | inner & (fullRows | stable << 1 | stable >>> 1) & (fullColumns | stable << 8 | stable >>> 8)
+					& (fullDiagonals | stable << 9 | stable >>> 9) & (fullAntiDiagonals | stable << 7 | stable >>> 7);
+			if(next == stable)
+				return stable;
+			stable = next;
+		}
+	}
+
+	/**
+	 * Packs the first column of a bitboard into the bits of a byte, the piece of row y into bit y.
+	 * @param pieces the bitboard
+	 * @return the packed column
+	 */
+	private static int column(long pieces) {
+		return (int) (((pieces & FIRST_COLUMN) * 0x0102040810204080L) >>> 56);
+	}
+
+	/**
+	 * Finds the pieces of an edge that stay with their player whatever moves are made on the edge, by playing
+	 * every sequence of moves of both players on its empty fields.
+	 * @param own the pieces of the player on the edge, one bit per field
+	 * @param other the pieces of the other player on the edge
+	 * @param stable the pieces of the player not captured in the moves before
+	 * @return the pieces of the player never captured
+	 */
+	private static int edgeStable(int own, int other, int stable) {
+		stable &= own;
+		int empty = ~(own | other) & 0xFF;
+		for (int fields = empty; fields != 0 && stable != 0; fields &= fields - 1) {
+			int field = fields & -fields;
+			int captured = edgeFlips(own, other, field);
+			stable = edgeStable(own | field | captured, other & ~captured, stable);
+			captured = edgeFlips(other, own, field);
+			stable = edgeStable(own & ~captured, other | field | captured, stable);
+		}
+		return stable;
+	}
+
+	/**
+	 * @param own the pieces of the player placing a piece on the edge
+	 * @param other the pieces of the other player on the edge
+	 * @param field the field of the new piece, one bit
+	 * @return the pieces of the other player captured along the edge, possibly none
+	 */
+	private static int edgeFlips(int own, int other, int field) {
+		int captured = 0;
+		int line = 0;
+		for (int next = field << 1; (next & other & 0xFF) != 0; next <<= 1)
+			line |= next;
+		if(((line == 0 ? field : Integer.highestOneBit(line)) << 1 & own) != 0)
+			captured |= line;
+		line = 0;
+		for (int next = field >>> 1; (next & other) != 0; next >>>= 1)
+			line |= next;
+		if(line != 0 && (Integer.lowestOneBit(line) >>> 1 & own) != 0)
+			captured |= line;
+		return captured;
+	}
+
+	/**
+	 * Returns the fields of every line that is completely occupied.
+	 * @param occupied the fields occupied by either player
+	 * @param lines the lines to check
+	 * @return the union of the full lines
+	 */
+	private static long fullLines(long occupied, long[] lines) {
+		long full = 0;
+		for (long line : lines) {
+			if((occupied & line) == line)
+				full |= line;
+		}
+		return full;
+	}
+
+	/**
+	 * Returns the fields next to the given pieces in any of the eight directions.
+	 * @param pieces the mask of pieces
+	 * @return the mask of neighbouring fields, which may include the pieces themselves
+	 */
+	private static long neighbours(long pieces) {
+		return (pieces << 1 & NOT_FIRST_COLUMN) | (pieces >>> 1 & NOT_LAST_COLUMN) | pieces << 8 | pieces >>> 8
+				| (pieces << 9 & NOT_FIRST_COLUMN) | (pieces << 7 & NOT_LAST_COLUMN)
+				| (pieces >>> 7 & NOT_FIRST_COLUMN) | (pieces >>> 9 & NOT_LAST_COLUMN);
+	}
+
+	/**
+	 * Moves a square to the front of a move list, keeping the order of the others.
+	 * @param buffer the move list
+	 * @param count the number of moves in the list
+	 * @param square the square to move to the front, ignored if it is not in the list
+	 */
+	private static void moveToFront(int[] buffer, int count, int square) {
+		for (int i = 0; i < count; i++) {
+			if(buffer[i] == square){
+				System.arraycopy(buffer, 0, buffer, 1, i);
+				buffer[0] = square;
+				return;
+			}
+		}
+	}
+
+	/* Hashes the two bitboards of a position, from the point of view of the player to move. */
+	private static long hash(long own, long opponent) {
+		long hash = own * 0x9E3779B97F4A7C15L + Long.rotateLeft(opponent, 32) * 0xC2B2AE3D27D4EB4FL;
+		hash = (hash ^ (hash >>> 29)) * 0xBF58476D1CE4E5B9L;
+		return hash ^ (hash >>> 32);
+	}
+
+	/**
+	 * Scores a finished game by the standard rule: the disc difference, with the empty fields counted for the winner.
+	 * @param own the pieces of the player to move
+	 * @param opponent the pieces of the opponent
+	 * @return the final disc difference from the point of view of the player to move
+	 */
+	static int finalDifference(long own, long opponent) {
+		int difference = Long.bitCount(own) - Long.bitCount(opponent);
+		return difference + Integer.signum(difference) * Long.bitCount(~(own | opponent));
+	}
+}
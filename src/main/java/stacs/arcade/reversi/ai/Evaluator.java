@@ -0,0 +1,47 @@
+package stacs.arcade.reversi.ai;
+
+import stacs.arcade.reversi.ReversiModel;
+
+/**
+ * Static evaluation of a Reversi position, used at the leaves of a search.
+ *
+ * @author 190023753
+ */
+public interface Evaluator {
+
+	/**
+	 * Scores the position from the point of view of the player to move.
+	 * Higher scores are better for that player, and the score of the opponent is the negation.
+	 * Symmetric positions must get the same score, as the search shares table entries between them.
+	 *
+	 * @param model the position to score
+	 * @return the score of the position
+	 */
+	int evaluate(ReversiModel model);
+
+	/**
+	 * Called by a search when it starts working on a position, before any move is made on it.
+	 * Evaluators that keep state about the position, updated move by move, set it up here.
+	 *
+	 * @param model the position the search works on
+	 */
+	default void reset(ReversiModel model) {
+	}
+
+	/**
+	 * Called by a search right after it made a move on the model.
+	 * The move and its captures are the last ones recorded by the model.
+	 *
+	 * @param model the position after the move
+	 */
+	default void moveMade(ReversiModel model) {
+	}
+
+	/**
+	 * Called by a search right before it takes back the last move made on the model.
+	 *
+	 * @param model the position before the move is taken back
+	 */
+	default void moveUndone(ReversiModel model) {
+	}
+}
@@ -0,0 +1,371 @@
+package stacs.arcade.reversi.ai;
+
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.ReversiModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A Monte Carlo tree search with UCT selection and random playouts, needing no evaluation function.
+ * All workers grow one shared tree held in a NodeArena. A worker descending through a node adds a virtual loss
+ * to it, so that the other workers are steered to different branches until its playout result arrives.
+ * The descent and the playouts work on bitboards and allocate nothing; a node is only expanded after it has
+ * been visited once, and when the arena is full the leaves are no longer expanded, so the search continues
+ * with playouts from the existing tree.
+ * <p>
+ * The search ends after a number of playouts or when the time budget runs out, whichever comes first.
+ * The reported move is the most visited child of the root, its score the result expected for the player to
+ * move in per mille, 0 for a certain loss and 1000 for a certain win, and the nodes are the playouts run.
+ * An instance runs one search at a time and holds its helper threads until it is closed.
+ *
+ * @author 190023753
+ */
+public class MonteCarloSearch implements AutoCloseable {
+
+	public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+
+	private static final int OPENING_MOVES = 4;
+	private static final long CENTRE_FIELDS = Bitboard.bit(3, 3) | Bitboard.bit(3, 4) | Bitboard.bit(4, 3) | Bitboard.bit(4, 4);
+	private static final int VIRTUAL_LOSS = 3;
+	private static final int WIN = 2;
+	private static final int DRAW = 1;
+
+	private final NodeArena arena;
+	private final double exploration;
+	private final Worker[] workers;
+	private final ExecutorService helpers;
+	private final AtomicLong playouts = new AtomicLong();
+	private volatile boolean stopRequested;
+
+	/**
+	 * Creates a search.
+	 *
+	 * @param threads     the number of worker threads, including the calling thread
+	 * @param nodes       the maximum number of tree nodes, more than Bitboard.SQUARES so the root can be expanded
+	 * @param exploration the weight of the exploration term of UCT
+	 * @param seed        the seed of the random playouts
+	 */
+	public MonteCarloSearch(int threads, int nodes, double exploration, long seed) {
+		if(threads < 1)
+			throw new IllegalArgumentException("A search needs at least one thread");
+		if(nodes <= Bitboard.SQUARES)
+			throw new IllegalArgumentException("A search needs room for more than " + Bitboard.SQUARES + " nodes: " + nodes);
+		this.arena = new NodeArena(nodes);
+		this.exploration = exploration;
+		SplittableRandom random = new SplittableRandom(seed);
+		workers = new Worker[threads];
+		for (int i = 0; i < threads; i++)
+			workers[i] = new Worker(random.split());
+		helpers = threads > 1 ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+			Thread thread = new Thread(runnable, "reversi-mcts-helper");
+			thread.setDaemon(true);
+			return thread;
+		}) : null;
+	}
+
+	/**
+	 * Creates a single-threaded search with the default exploration weight.
+	 *
+	 * @param nodes the maximum number of tree nodes
+	 * @param seed  the seed of the random playouts
+	 */
+	public MonteCarloSearch(int nodes, long seed) {
+		this(1, nodes, DEFAULT_EXPLORATION, seed);
+	}
+
+	/**
+	 * Searches the position until the given number of playouts has been run or the time budget runs out.
+	 *
+	 * @param position     the position to search, which is not modified
+	 * @param maxPlayouts  the number of playouts
+	 * @param budgetMillis the wall-clock budget in milliseconds
+	 * @return the most visited move, its expected result in per mille, the deepest node reached and the playouts
+	 */
+	public SearchResult search(ReversiModel position, long maxPlayouts, long budgetMillis) {
+		long start = System.nanoTime();
+		long deadline = start + budgetMillis * 1_000_000;
+		long black = position.getBitboard(ReversiModel.PlayerColour.BLACK);
+		long white = position.getBitboard(ReversiModel.PlayerColour.WHITE);
+		boolean blackToMove = position.nextToMove() == ReversiModel.PlayerColour.BLACK;
+		stopRequested = false;
+		playouts.set(0);
+		arena.reset();
+		workers[0].load(black, white, blackToMove);
+		workers[0].expand(0);
+		if(arena.getChildCount(0) == 0)
+			return new SearchResult(-1, 0, 0, 0, System.nanoTime() - start);
+
+		List<Future<?>> futures = new ArrayList<>(workers.length - 1);
+		for (int i = 1; i < workers.length; i++) {
+			Worker worker = workers[i];
+			futures.add(helpers.submit(() -> worker.run(black, white, blackToMove, maxPlayouts, deadline)));
+		}
+		workers[0].run(black, white, blackToMove, maxPlayouts, deadline);
+		for (Future<?> future : futures)
+			join(future);
+
+		int best = -1;
+		int depth = 0;
+		for (Worker worker : workers)
+			depth = Math.max(depth, worker.maxDepth);
+		int first = arena.getFirstChild(0);
+		for (int child = first; child < first + arena.getChildCount(0); child++) {
+			if(best < 0 || arena.getVisits(child) > arena.getVisits(best))
+				best = child;
+		}
+		int visits = arena.getVisits(best);
+		int score = visits == 0 ? 0 : (int) (arena.getRewards(best) * 1000 / (WIN * (long) visits));
+		return new SearchResult(arena.getMove(best), score, depth, Math.min(playouts.get(), maxPlayouts),
+				System.nanoTime() - start);
+	}
+
+	/**
+	 * Searches the position until the time budget runs out.
+	 *
+	 * @param position     the position to search, which is not modified
+	 * @param budgetMillis the wall-clock budget in milliseconds
+	 * @return the most visited move, its expected result in per mille, the deepest node reached and the playouts
+	 */
+	public SearchResult search(ReversiModel position, long budgetMillis) {
+		return search(position, Long.MAX_VALUE, budgetMillis);
+	}
+
+	/**
+	 * Asks a running search to finish after the playouts in progress.
+	 */
+	public void stop() {
+		stopRequested = true;
+	}
+
+	/**
+	 * @return the number of worker threads, including the calling thread
+	 */
+	public int getThreads() {
+		return workers.length;
+	}
+
+	/**
+	 * @return the tree of the last search
+	 */
+	NodeArena getArena() {
+		return arena;
+	}
+
+	/**
+	 * Stops the helper threads. The search cannot be used afterwards.
+	 */
+	@Override
+	public void close() {
+		if(helpers != null)
+			helpers.shutdownNow();
+	}
+
+	/**
+	 * @param own the pieces of the player to move
+	 * @param opponent the pieces of the opponent
+	 * @return the legal moves of the player to move, following the rules of ReversiModel
+	 */
+	private static long legalMoves(long own, long opponent) {
+		long occupied = own | opponent;
+		if(Long.bitCount(occupied) < OPENING_MOVES)
+			return CENTRE_FIELDS & ~occupied;
+		return Bitboard.legalMoves(own, opponent);
+	}
+
+	private static void join(Future<?> future) {
+		try {
+			future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a search helper", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A search helper failed", e.getCause());
+		}
+	}
+
+	/**
+	 * One thread of the search, with its own board, random numbers and path through the tree.
+	 */
+	private final class Worker {
+
+		private final SplittableRandom random;
+		private final int[] path = new int[Bitboard.SQUARES + 1];
+		private final boolean[] blackMoved = new boolean[Bitboard.SQUARES + 1];
+		private long black;
+		private long white;
+		private boolean blackToMove;
+		private boolean gameOver;
+		private int maxDepth;
+
+		/**
+		 * @param random the random numbers of the playouts of this worker
+		 */
+		Worker(SplittableRandom random) {
+			this.random = random;
+		}
+
+		/**
+		 * Runs playouts from the root until the search ends.
+		 * @param rootBlack the pieces of BLACK at the root
+		 * @param rootWhite the pieces of WHITE at the root
+		 * @param rootBlackToMove true if BLACK is to move at the root
+		 * @param maxPlayouts the number of playouts of all workers together
+		 * @param deadline the System.nanoTime() at which the search ends
+		 */
+		void run(long rootBlack, long rootWhite, boolean rootBlackToMove, long maxPlayouts, long deadline) {
+			maxDepth = 0;
+			while (!stopRequested && System.nanoTime() < deadline && playouts.getAndIncrement() < maxPlayouts) {
+				load(rootBlack, rootWhite, rootBlackToMove);
+				int length = descend();
+				maxDepth = Math.max(maxDepth, length - 1);
+				int result = playout();
+				arena.addVisits(0, 1);
+				for (int i = 1; i < length; i++) {
+					int node = path[i];
+					arena.addReward(node, result == 0 ? DRAW : (result > 0) == blackMoved[i] ? WIN : 0);
+					arena.addVisits(node, 1 - VIRTUAL_LOSS);
+				}
+			}
+		}
+
+		/**
+		 * Sets the board of this worker.
+		 * @param black the pieces of BLACK
+		 * @param white the pieces of WHITE
+		 * @param blackToMove true if BLACK is to move
+		 */
+		void load(long black, long white, boolean blackToMove) {
+			this.black = black;
+			this.white = white;
+			this.blackToMove = blackToMove;
+			this.gameOver = legalMoves(own(), opponent()) == 0;
+		}
+
+		/**
+		 * Walks from the root to a leaf along the children with the highest UCT value, playing their moves on
+		 * the board and adding a virtual loss to each, and expands the leaf if it has been visited before,
+		 * which shows as more visits than the virtual loss this worker has just added.
+		 * @return the length of the path, including the root
+		 */
+		private int descend() {
+			int node = 0;
+			int length = 1;
+			path[0] = 0;
+			while (true) {
+				if(!arena.isExpanded(node) && (arena.getVisits(node) <= VIRTUAL_LOSS || !expand(node)))
+					return length;
+				if(arena.getChildCount(node) == 0)
+					return length;
+				node = select(node);
+				arena.addVisits(node, VIRTUAL_LOSS);
+				path[length] = node;
+				blackMoved[length] = blackToMove;
+				length++;
+				play(arena.getMove(node));
+			}
+		}
+
+		/**
+		 * Allocates and publishes the children of a node, one per legal move on the board of this worker.
+		 * @param node the node for the current board
+		 * @return true if the node is now expanded, false if another thread holds it or the arena is full
+		 */
+		boolean expand(int node) {
+			if(!arena.claim(node))
+				return false;
+			long moves = gameOver ? 0 : legalMoves(own(), opponent());
+			int count = Long.bitCount(moves);
+			int first = arena.allocate(count);
+			if(first < 0){
+				arena.release(node);
+				return false;
+			}
+			for (int child = first; moves != 0; moves &= moves - 1, child++)
+				arena.init(child, Long.numberOfTrailingZeros(moves));
+			arena.expand(node, first, count);
+			return true;
+		}
+
+		/**
+		 * @param node an expanded node with children
+		 * @return the child with the highest UCT value, the first unvisited one if there is any
+		 */
+		private int select(int node) {
+			int first = arena.getFirstChild(node);
+			int end = first + arena.getChildCount(node);
+			double logVisits = Math.log(Math.max(1, arena.getVisits(node)));
+			int best = first;
+			double bestValue = Double.NEGATIVE_INFINITY;
+			for (int child = first; child < end; child++) {
+				int visits = arena.getVisits(child);
+				if(visits == 0)
+					return child;
+				double value = arena.getRewards(child) / (double) (WIN * visits)
+						+ exploration * Math.sqrt(logVisits / visits);
+				if(value > bestValue){
+					bestValue = value;
+					best = child;
+				}
+			}
+			return best;
+		}
+
+		/**
+		 * Plays random moves until the game is over.
+		 * @return the number of BLACK pieces minus the number of WHITE pieces at the end
+		 */
+		private int playout() {
+			while (!gameOver) {
+				long moves = legalMoves(own(), opponent());
+				for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--)
+					moves &= moves - 1;
+				play(Long.numberOfTrailingZeros(moves));
+			}
+			return Long.bitCount(black) - Long.bitCount(white);
+		}
+
+		/**
+		 * Plays a legal move of the player to move and passes the turn as ReversiModel does: to the opponent if
+		 * it can move, otherwise back to the player, otherwise the game is over.
+		 * @param square the square index of the move
+		 */
+		private void play(int square) {
+			long own = own(), opponent = opponent();
+			long flips = Long.bitCount(own | opponent) < OPENING_MOVES ? 0 : Bitboard.flips(own, opponent, square);
+			own |= flips | 1L << square;
+			opponent &= ~flips;
+			if(blackToMove){
+				black = own;
+				white = opponent;
+			}else {
+				white = own;
+				black = opponent;
+			}
+			if(legalMoves(opponent, own) != 0)
+				blackToMove = !blackToMove;
+			else if(legalMoves(own, opponent) == 0)
+				gameOver = true;
+		}
+
+		/**
+		 * @return the pieces of the player to move
+		 */
+		private long own() {
+			return blackToMove ? black : white;
+		}
+
+		/**
+		 * @return the pieces of the opponent of the player to move
+		 */
+		private long opponent() {
+			return blackToMove ? white : black;
+		}
+	}
+}
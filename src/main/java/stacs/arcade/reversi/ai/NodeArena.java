@@ -0,0 +1,183 @@
+package stacs.arcade.reversi.ai;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The nodes of a Monte Carlo search tree, held in parallel arrays indexed by node number instead of one object
+ * per node, so that a search of millions of nodes allocates nothing after the arena is created.
+ * Node 0 is the root. The children of a node are allocated as one contiguous run of indices when it is expanded.
+ * <p>
+ * The statistics are atomic so that several threads can update them at once. The move, first child and
+ * child count of a node are written once, before its state is set to EXPANDED, and only read after the state
+ * has been seen as EXPANDED, so they need no synchronisation of their own.
+ *
+ * @author 190023753
+ */
+final class NodeArena {
+
+	static final int UNEXPANDED = 0;
+	static final int EXPANDING = 1;
+	static final int EXPANDED = 2;
+
+	/* The square index of the move leading to each node. */
+	private final byte[] moves;
+	private final int[] firstChild;
+	private final byte[] childCount;
+	private final AtomicIntegerArray visits;
+	/* The results of the playouts through each node in half points for the player who made its move. */
+	private final AtomicLongArray rewards;
+	private final AtomicIntegerArray states;
+	private final AtomicInteger size = new AtomicInteger();
+
+	/**
+	 * @param capacity the maximum number of nodes
+	 */
+	NodeArena(int capacity) {
+		if(capacity < 1)
+			throw new IllegalArgumentException("An arena needs room for the root");
+		moves = new byte[capacity];
+		firstChild = new int[capacity];
+		childCount = new byte[capacity];
+		visits = new AtomicIntegerArray(capacity);
+		rewards = new AtomicLongArray(capacity);
+		states = new AtomicIntegerArray(capacity);
+	}
+
+	/**
+	 * Empties the arena, leaving only an unexpanded root. Must not be called while a search runs.
+	 */
+	void reset() {
+		init(0, -1);
+		size.set(1);
+	}
+
+	/**
+	 * Reserves a run of nodes for the children of a node.
+	 * @param count the number of children
+	 * @return the index of the first child, -1 if the arena is full
+	 */
+	int allocate(int count) {
+		while (true) {
+			int first = size.get();
+			if(first + count > moves.length)
+				return -1;
+			if(size.compareAndSet(first, first + count))
+				return first;
+		}
+	}
+
+	/**
+	 * Clears a newly allocated node.
+	 * @param node the node
+	 * @param move the square index of the move leading to it
+	 */
+	void init(int node, int move) {
+		moves[node] = (byte) move;
+		childCount[node] = 0;
+		visits.set(node, 0);
+		rewards.set(node, 0);
+		states.set(node, UNEXPANDED);
+	}
+
+	/**
+	 * Claims an unexpanded node for expansion, so that no other thread expands it at the same time.
+	 * @param node the node
+	 * @return true if the calling thread must now expand or release the node
+	 */
+	boolean claim(int node) {
+		return states.compareAndSet(node, UNEXPANDED, EXPANDING);
+	}
+
+	/**
+	 * Gives up the claim on a node that could not be expanded.
+	 * @param node the node
+	 */
+	void release(int node) {
+		states.set(node, UNEXPANDED);
+	}
+
+	/**
+	 * Publishes the children of a claimed node.
+	 * @param node the node
+	 * @param first the index of the first child
+	 * @param count the number of children, 0 if the game is over at the node
+	 */
+	void expand(int node, int first, int count) {
+		firstChild[node] = first;
+		childCount[node] = (byte) count;
+		states.set(node, EXPANDED);
+	}
+
+	/**
+	 * @param node a node
+	 * @return true if the children of the node may be read
+	 */
+	boolean isExpanded(int node) {
+		return states.get(node) == EXPANDED;
+	}
+
+	/**
+	 * @param node a node
+	 * @return the square index of the move leading to it, -1 for the root
+	 */
+	int getMove(int node) {
+		return moves[node];
+	}
+
+	/**
+	 * @param node an expanded node
+	 * @return the index of its first child
+	 */
+	int getFirstChild(int node) {
+		return firstChild[node];
+	}
+
+	/**
+	 * @param node an expanded node
+	 * @return the number of its children
+	 */
+	int getChildCount(int node) {
+		return childCount[node];
+	}
+
+	/**
+	 * @param node a node
+	 * @return the number of playouts through it, including the virtual losses of running playouts
+	 */
+	int getVisits(int node) {
+		return visits.get(node);
+	}
+
+	/**
+	 * @param node a node
+	 * @return the sum of the playout results in half points for the player who made its move
+	 */
+	long getRewards(int node) {
+		return rewards.get(node);
+	}
+
+	/**
+	 * @param node a node
+	 * @param count the number of visits to add, negative to take back virtual losses
+	 */
+	void addVisits(int node, int count) {
+		visits.addAndGet(node, count);
+	}
+
+	/**
+	 * @param node a node
+	 * @param reward the half points to add
+	 */
+	void addReward(int node, int reward) {
+		rewards.addAndGet(node, reward);
+	}
+
+	/**
+	 * @return the number of nodes in use
+	 */
+	int size() {
+		return size.get();
+	}
+}
@@ -0,0 +1,130 @@
+package stacs.arcade.reversi.ai;
+
+import stacs.arcade.reversi.ReversiModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * A multi-threaded search using Lazy SMP: every worker runs its own AlphaBetaSearch on its own copy of the
+ * position, and the workers share one transposition table, so each one profits from the others' results.
+ * Half of the workers start one iteration deeper to spread the work.
+ * The search ends when the first worker, which runs on the calling thread, finishes; the others are then
+ * stopped, and the move and score of the first worker are reported.
+ * As the workers only cut off on table entries of the same depth, the entries written by the other workers
+ * hold true bounds for that depth and never change a score the first worker computes. The first worker tries
+ * the root moves in a fixed order, the best move of the previous iteration first, and only replaces its best move
+ * by a later one with a higher score, so ties go to the move tried first. A search that reaches its depth limit
+ * therefore reports the same move and score as a serial search to that depth, whatever the timing of the workers.
+ * If the time budget runs out first, the result is that of the first worker as described for
+ * AlphaBetaSearch.search: the depth is the last one it completed, and the move is the best one of the iteration
+ * it was in if it completed at least one move of it, which depends on how far it got.
+ * An instance runs one search at a time and holds its helper threads until it is closed.
+ *
+ * @author 190023753
+ */
+public class ParallelSearch implements AutoCloseable {
+
+	private final AlphaBetaSearch[] workers;
+	private final TranspositionTable table;
+	private final ExecutorService helpers;
+
+	/**
+	 * Creates a parallel search.
+	 *
+	 * @param threads    the number of worker threads, including the calling thread
+	 * @param evaluators creates the evaluator of each worker
+	 * @param table      the transposition table shared by the workers
+	 */
+	public ParallelSearch(int threads, Supplier<Evaluator> evaluators, TranspositionTable table) {
+		if(threads < 1)
+			throw new IllegalArgumentException("A search needs at least one thread");
+		this.table = table;
+		workers = new AlphaBetaSearch[threads];
+		for (int i = 0; i < threads; i++)
+			workers[i] = new AlphaBetaSearch(evaluators.get(), table);
+		helpers = threads > 1 ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+			Thread thread = new Thread(runnable, "reversi-search-helper");
+			thread.setDaemon(true);
+			return thread;
+		}) : null;
+	}
+
+	/**
+	 * Searches the position on all workers until the depth limit or the time budget is reached.
+	 *
+	 * @param position     the position to search, which is not modified
+	 * @param maxDepth     the maximum depth in moves
+	 * @param budgetMillis the wall-clock budget in milliseconds
+	 * @return the best move found, with the nodes and time of all workers together
+	 */
+	public SearchResult search(ReversiModel position, int maxDepth, long budgetMillis) {
+		long start = System.nanoTime();
+		table.newSearch();
+		for (AlphaBetaSearch worker : workers)
+			worker.clearStop();
+
+		List<Future<SearchResult>> futures = new ArrayList<>(workers.length - 1);
+		for (int i = 1; i < workers.length; i++) {
+			AlphaBetaSearch worker = workers[i];
+			int firstDepth = 1 + (i & 1);
+			futures.add(helpers.submit(() -> worker.search(position, firstDepth, maxDepth, budgetMillis)));
+		}
+
+		SearchResult[] results = new SearchResult[workers.length];
+		results[0] = workers[0].search(position, 1, maxDepth, budgetMillis);
+		for (int i = 1; i < workers.length; i++)
+			workers[i].stop();
+		for (int i = 1; i < workers.length; i++)
+			results[i] = join(futures.get(i - 1));
+
+		long nodes = 0;
+		for (SearchResult result : results)
+			nodes += result.getNodes();
+		return new SearchResult(results[0].getBestMove(), results[0].getScore(), results[0].getDepth(), nodes,
+				System.nanoTime() - start);
+	}
+
+	/**
+	 * Searches the position on all workers as deep as the time budget allows.
+	 *
+	 * @param position     the position to search, which is not modified
+	 * @param budgetMillis the wall-clock budget in milliseconds
+	 * @return the best move found, with the nodes and time of all workers together
+	 */
+	public SearchResult search(ReversiModel position, long budgetMillis) {
+		return search(position, AlphaBetaSearch.MAX_DEPTH, budgetMillis);
+	}
+
+	/**
+	 * @return the number of worker threads, including the calling thread
+	 */
+	public int getThreads() {
+		return workers.length;
+	}
+
+	/**
+	 * Stops the helper threads. The search cannot be used afterwards.
+	 */
+	@Override
+	public void close() {
+		if(helpers != null)
+			helpers.shutdownNow();
+	}
+
+	private static SearchResult join(Future<SearchResult> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a search helper", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A search helper failed", e.getCause());
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package stacs.arcade.reversi.ai;
+
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.ReversiModel.PlayerColour;
+
+import java.util.Arrays;
+
+/**
+ * An evaluator that sums the weights of edge, corner, line and diagonal patterns and of the mobility of both players.
+ * The code of every pattern is kept up to date move by move through the search hooks, so an evaluation is one
+ * table load per pattern instead of a scan of the board. A position that did not come through the hooks is
+ * recognised by its bitboards and its codes are computed from scratch.
+ * <p>
+ * An evaluator keeps the codes of one position, so every search needs its own instance.
+ *
+ * @author 190023753
+ */
+public class PatternEvaluator implements Evaluator {
+
+	private final int[] patterns;
+	private final int[] mobility;
+	private final int[] codes = new int[PatternWeights.PATTERN_SQUARES.length];
+	private long black, white;
+
+	/**
+	 * Creates an evaluator with the given weights.
+	 * @param weights the weights, which may be shared between evaluators
+	 */
+	public PatternEvaluator(PatternWeights weights) {
+		this.patterns = weights.patterns;
+		this.mobility = weights.mobility;
+		reset(0, 0);
+	}
+
+	/**
+	 * Creates an evaluator with the default weights.
+	 */
+	public PatternEvaluator() {
+		this(PatternWeights.defaults());
+	}
+
+	@Override
+	public int evaluate(ReversiModel model) {
+		if(model.getBitboard(PlayerColour.BLACK) != black || model.getBitboard(PlayerColour.WHITE) != white)
+			reset(model);
+
+		int score = 0;
+		for (int pattern = 0; pattern < codes.length; pattern++)
+			score += patterns[PatternWeights.PATTERN_OFFSETS[pattern] + codes[pattern]];
+		score += mobility[Long.bitCount(model.legalMoves(PlayerColour.BLACK))]
+				- mobility[Long.bitCount(model.legalMoves(PlayerColour.WHITE))];
+		return model.nextToMove() == PlayerColour.BLACK ? score : -score;
+	}
+
+	@Override
+	public void reset(ReversiModel model) {
+		reset(model.getBitboard(PlayerColour.BLACK), model.getBitboard(PlayerColour.WHITE));
+	}
+
+	@Override
+	public void moveMade(ReversiModel model) {
+		int ply = model.getTotalMoves() - 1;
+		int square = model.getMoveAt(ply);
+		long captured = model.getCapturesAt(ply);
+		boolean byBlack = model.getAt(Bitboard.x(square), Bitboard.y(square)) == PlayerColour.BLACK;
+
+		add(square, byBlack ? PatternWeights.BLACK : PatternWeights.WHITE);
+		flip(captured, byBlack ? PatternWeights.BLACK - PatternWeights.WHITE : PatternWeights.WHITE - PatternWeights.BLACK);
+		black = model.getBitboard(PlayerColour.BLACK);
+		white = model.getBitboard(PlayerColour.WHITE);
+	}
+
+	@Override
+	public void moveUndone(ReversiModel model) {
+		int ply = model.getTotalMoves() - 1;
+		int square = model.getMoveAt(ply);
+		long captured = model.getCapturesAt(ply);
+		boolean byBlack = model.getAt(Bitboard.x(square), Bitboard.y(square)) == PlayerColour.BLACK;
+
+		add(square, byBlack ? -PatternWeights.BLACK : -PatternWeights.WHITE);
+		flip(captured, byBlack ? PatternWeights.WHITE - PatternWeights.BLACK : PatternWeights.BLACK - PatternWeights.WHITE);
+		long field = 1L << square;
+		if(byBlack){
+			black = model.getBitboard(PlayerColour.BLACK) & ~field & ~captured;
+			white = model.getBitboard(PlayerColour.WHITE) | captured;
+		} else {
+			white = model.getBitboard(PlayerColour.WHITE) & ~field & ~captured;
+			black = model.getBitboard(PlayerColour.BLACK) | captured;
+		}
+	}
+
+	/**
+	 * Returns the code of a pattern in the position last seen, for tests.
+	 * @param pattern the index of the pattern
+	 * @return the base 3 code of the pattern
+	 */
+	int getCode(int pattern) {
+		return codes[pattern];
+	}
+
+	/**
+	 * Computes the codes of all patterns from scratch.
+	 * @param black the pieces of BLACK
+	 * @param white the pieces of WHITE
+	 */
+	private void reset(long black, long white) {
+		this.black = black;
+		this.white = white;
+		Arrays.fill(codes, 0);
+		for (long pieces = black; pieces != 0; pieces &= pieces - 1)
+			add(Long.numberOfTrailingZeros(pieces), PatternWeights.BLACK);
+		for (long pieces = white; pieces != 0; pieces &= pieces - 1)
+			add(Long.numberOfTrailingZeros(pieces), PatternWeights.WHITE);
+	}
+
+	/**
+	 * Changes the digit of a field in every pattern holding it.
+	 * @param square the field
+	 * @param change the change of the digit
+	 */
+	private void add(int square, int change) {
+		int[] members = PatternWeights.SQUARE_PATTERNS[square];
+		int[] powers = PatternWeights.SQUARE_POWERS[square];
+		for (int i = 0; i < members.length; i++)
+			codes[members[i]] += change * powers[i];
+	}
+
+	/**
+	 * Changes the digits of several fields in every pattern holding them.
+	 * @param fields the mask of the fields
+	 * @param change the change of every digit
+	 */
+	private void flip(long fields, int change) {
+		for (; fields != 0; fields &= fields - 1)
+			add(Long.numberOfTrailingZeros(fields), change);
+	}
+}
@@ -0,0 +1,358 @@
+package stacs.arcade.reversi.ai;
+
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.Symmetry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The weight tables of a PatternEvaluator, and the patterns they belong to.
+ * <p>
+ * A pattern is a fixed list of fields. Its code is the number in base 3 whose digit i is the content of field i:
+ * 0 for empty, 1 for BLACK and 2 for WHITE. Every shape of pattern (an edge, a corner region, a diagonal...)
+ * is placed on the board in all its orientations, and all orientations share one table of 3^length weights,
+ * indexed by the code. The tables of all shapes are stored one after another in a single flat array.
+ * Weights are the value of the pattern for BLACK; a second table gives the value of having a number of legal moves.
+ * <p>
+ * Tables are made symmetric when they are created: a pattern and its mirror image within the same fields get the
+ * same weight, and swapping the colours negates it, so the evaluation does not depend on the orientation of the board.
+ *
+ * @author 190023753
+ */
+public final class PatternWeights {
+
+	public static final int MAGIC = 0x52565057;
+
+	static final int EMPTY = 0;
+	static final int BLACK = 1;
+	static final int WHITE = 2;
+
+	/* The shapes in their orientation at the corner (0,0), as square indices. */
+	private static final int[][] SHAPES = {
+			{0, 1, 2, 3, 4, 5, 6, 7, 9, 14},           // the edge and its two X-squares
+			{0, 1, 2, 8, 9, 10, 16, 17, 18},           // the 3x3 corner
+			{0, 1, 2, 3, 4, 8, 9, 10, 11, 12},         // the 2x5 corner
+			{8, 9, 10, 11, 12, 13, 14, 15},            // the second line
+			{16, 17, 18, 19, 20, 21, 22, 23},          // the third line
+			{24, 25, 26, 27, 28, 29, 30, 31},          // the fourth line
+			{0, 9, 18, 27, 36, 45, 54, 63},            // the main diagonal
+			{1, 10, 19, 28, 37, 46, 55},               // the diagonals of length 7 to 4
+			{2, 11, 20, 29, 38, 47},
+			{3, 12, 21, 30, 39},
+			{4, 13, 22, 31}
+	};
+
+	/* The value of every field in the default weights, for the quarter of the board at (0,0). */
+	private static final int[][] FIELD_VALUES = {
+			{100, -20, 10, 5},
+			{-20, -40, -2, -1},
+			{10, -2, 2, 1},
+			{5, -1, 1, 0}
+	};
+	private static final int C_SQUARE_TAKEN = 10;
+	private static final int X_SQUARE_TAKEN = 0;
+	private static final double MOBILITY_SCALE = 10;
+
+	static final int MOBILITY_ENTRIES = Bitboard.SQUARES + 1;
+
+	/* The fields and the shape of every pattern on the board. */
+	static final int[][] PATTERN_SQUARES;
+	static final int[] PATTERN_OFFSETS;
+	/* For every field, the patterns it belongs to and the power of 3 of its digit in each. */
+	static final int[][] SQUARE_PATTERNS;
+	static final int[][] SQUARE_POWERS;
+
+	private static final int[] SHAPE_OFFSETS = new int[SHAPES.length + 1];
+	private static final int[] POWERS = {1, 3, 9, 27, 81, 243, 729, 2187, 6561, 19683, 59049};
+
+	private static PatternWeights defaults;
+
+	static {
+		List<int[]> squares = new ArrayList<>();
+		List<Integer> offsets = new ArrayList<>();
+		for (int shape = 0; shape < SHAPES.length; shape++) {
+			SHAPE_OFFSETS[shape + 1] = SHAPE_OFFSETS[shape] + POWERS[SHAPES[shape].length];
+			List<Long> masks = new ArrayList<>();
+			for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+				int[] placed = transform(symmetry, SHAPES[shape]);
+				long mask = mask(placed);
+				if(!masks.contains(mask)){
+					masks.add(mask);
+					squares.add(placed);
+					offsets.add(SHAPE_OFFSETS[shape]);
+				}
+			}
+		}
+		PATTERN_SQUARES = squares.toArray(new int[0][]);
+		PATTERN_OFFSETS = offsets.stream().mapToInt(Integer::intValue).toArray();
+
+		SQUARE_PATTERNS = new int[Bitboard.SQUARES][];
+		SQUARE_POWERS = new int[Bitboard.SQUARES][];
+		for (int square = 0; square < Bitboard.SQUARES; square++) {
+			List<int[]> memberships = new ArrayList<>();
+			for (int pattern = 0; pattern < PATTERN_SQUARES.length; pattern++) {
+				for (int i = 0; i < PATTERN_SQUARES[pattern].length; i++) {
+					if(PATTERN_SQUARES[pattern][i] == square)
+						memberships.add(new int[]{pattern, POWERS[i]});
+				}
+			}
+			SQUARE_PATTERNS[square] = memberships.stream().mapToInt(m -> m[0]).toArray();
+			SQUARE_POWERS[square] = memberships.stream().mapToInt(m -> m[1]).toArray();
+		}
+	}
+
+	final int[] patterns;
+	final int[] mobility;
+
+	/**
+	 * Creates weight tables, made symmetric as described above.
+	 * @param patterns the tables of all shapes one after another, of length patternEntries()
+	 * @param mobility the value of having 0 to 64 legal moves
+	 * @throws IllegalArgumentException if a table has the wrong length.
+	 */
+	PatternWeights(int[] patterns, int[] mobility) {
+		if(patterns.length != patternEntries() || mobility.length != MOBILITY_ENTRIES)
+			throw new IllegalArgumentException("Pattern weights need " + patternEntries() + " pattern and "
+					+ MOBILITY_ENTRIES + " mobility entries");
+		this.patterns = new int[patterns.length];
+		for (int shape = 0; shape < SHAPES.length; shape++)
+			symmetrise(shape, patterns, this.patterns);
+		this.mobility = mobility.clone();
+	}
+
+	/**
+	 * Returns hand-made weights that value corners and edges, and penalise the fields next to an empty corner.
+	 * @return the default weights, shared by all callers
+	 */
+	public static synchronized PatternWeights defaults() {
+		if(defaults == null)
+			defaults = new PatternWeights(defaultPatterns(), defaultMobility());
+		return defaults;
+	}
+
+	/**
+	 * Reads weights written by write(Path), for example after tuning them on a set of games.
+	 * @param file the file to read
+	 * @return the weights
+	 * @throws IOException if the file cannot be read or does not hold pattern weights.
+	 */
+	public static PatternWeights read(Path file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if(in.readInt() != MAGIC)
+				throw new IOException(file + " does not hold pattern weights");
+			int[] patterns = readTable(in, patternEntries(), file);
+			int[] mobility = readTable(in, MOBILITY_ENTRIES, file);
+			return new PatternWeights(patterns, mobility);
+		} catch (EOFException e) {
+			throw new IOException(file + " is truncated", e);
+		}
+	}
+
+	/**
+	 * Writes the weights to a file.
+	 * @param file the file to write, replaced if it exists
+	 * @throws IOException if the file cannot be written.
+	 */
+	public void write(Path file) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			writeTable(out, patterns);
+			writeTable(out, mobility);
+		}
+	}
+
+	/**
+	 * @return the number of entries in the pattern tables of all shapes together
+	 */
+	static int patternEntries() {
+		return SHAPE_OFFSETS[SHAPES.length];
+	}
+
+	/**
+	 * Reads a table with its length.
+	 * @param in the stream to read
+	 * @param length the expected length
+	 * @param file the file, for error messages
+	 * @return the table
+	 * @throws IOException if the table cannot be read or has another length.
+	 */
+	private static int[] readTable(DataInputStream in, int length, Path file) throws IOException {
+		if(in.readInt() != length)
+			throw new IOException(file + " holds weights for other patterns");
+		int[] table = new int[length];
+		for (int i = 0; i < length; i++)
+			table[i] = in.readInt();
+		return table;
+	}
+
+	/**
+	 * Writes a table with its length.
+	 * @param out the stream to write
+	 * @param table the table
+	 * @throws IOException if the table cannot be written.
+	 */
+	private static void writeTable(DataOutputStream out, int[] table) throws IOException {
+		out.writeInt(table.length);
+		for (int weight : table)
+			out.writeInt(weight);
+	}
+
+	/**
+	 * Writes the symmetric form of the table of one shape: every weight becomes the average over the codes
+	 * of the same pattern seen in all orientations that keep its fields, and of the negated codes with swapped colours.
+	 * @param shape the shape
+	 * @param source the tables to make symmetric
+	 * @param target the tables to write
+	 */
+	private static void symmetrise(int shape, int[] source, int[] target) {
+		int[][] permutations = selfPermutations(SHAPES[shape]);
+		int length = SHAPES[shape].length;
+		int offset = SHAPE_OFFSETS[shape];
+		int[] digits = new int[length];
+		for (int code = 0; code < POWERS[length]; code++) {
+			decode(code, digits);
+			long sum = 0;
+			for (int[] permutation : permutations) {
+				int permuted = 0, swapped = 0;
+				for (int i = 0; i < length; i++) {
+					permuted += digits[i] * POWERS[permutation[i]];
+					swapped += (digits[i] == EMPTY ? EMPTY : BLACK + WHITE - digits[i]) * POWERS[permutation[i]];
+				}
+				sum += source[offset + permuted] - source[offset + swapped];
+			}
+			target[offset + code] = (int) (sum / (2 * permutations.length));
+		}
+	}
+
+	/**
+	 * Finds the symmetries that map a shape onto its own fields, as permutations of its digits.
+	 * @param shape the fields of the shape
+	 * @return for every such symmetry, the new position of every digit
+	 */
+	private static int[][] selfPermutations(int[] shape) {
+		List<int[]> permutations = new ArrayList<>();
+		for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+			int[] placed = transform(symmetry, shape);
+			if(mask(placed) != mask(shape))
+				continue;
+			int[] permutation = new int[shape.length];
+			for (int i = 0; i < shape.length; i++) {
+				for (int j = 0; j < shape.length; j++) {
+					if(shape[j] == placed[i])
+						permutation[i] = j;
+				}
+			}
+			if(permutations.stream().noneMatch(p -> Arrays.equals(p, permutation)))
+				permutations.add(permutation);
+		}
+		return permutations.toArray(new int[0][]);
+	}
+
+	/**
+	 * Builds the default pattern tables from the field values, shared out between the patterns holding each field.
+	 * @return the tables of all shapes
+	 */
+	private static int[] defaultPatterns() {
+		int[] coverage = new int[Bitboard.SQUARES];
+		for (int[] pattern : PATTERN_SQUARES) {
+			for (int square : pattern)
+				coverage[square]++;
+		}
+		int[] patterns = new int[patternEntries()];
+		for (int shape = 0; shape < SHAPES.length; shape++) {
+			int[] fields = SHAPES[shape];
+			int[] digits = new int[fields.length];
+			for (int code = 0; code < POWERS[fields.length]; code++) {
+				decode(code, digits);
+				double value = 0;
+				for (int i = 0; i < fields.length; i++) {
+					if(digits[i] != EMPTY){
+						double field = fieldValue(fields[i], fields, digits) / (double) coverage[fields[i]];
+						value += digits[i] == BLACK ? field : -field;
+					}
+				}
+				patterns[SHAPE_OFFSETS[shape] + code] = (int) Math.round(value);
+			}
+		}
+		return patterns;
+	}
+
+	/**
+	 * Builds the default mobility table, which grows with the square root of the number of moves.
+	 * @return the mobility table
+	 */
+	private static int[] defaultMobility() {
+		int[] mobility = new int[MOBILITY_ENTRIES];
+		for (int moves = 0; moves < MOBILITY_ENTRIES; moves++)
+			mobility[moves] = (int) Math.round(MOBILITY_SCALE * Math.sqrt(moves));
+		return mobility;
+	}
+
+	/**
+	 * Returns the default value of an occupied field of a pattern. The fields next to a corner lose their
+	 * penalty once the corner is taken, which the pattern can only see when it holds the corner too.
+	 * @param square the field
+	 * @param fields the fields of the pattern
+	 * @param digits the content of the fields
+	 * @return the value of the field
+	 */
+	private static int fieldValue(int square, int[] fields, int[] digits) {
+		int x = Bitboard.x(square), y = Bitboard.y(square);
+		int column = Math.min(x, Bitboard.SIZE - 1 - x);
+		int row = Math.min(y, Bitboard.SIZE - 1 - y);
+		if(column <= 1 && row <= 1 && column + row > 0){
+			int corner = Bitboard.square(x < Bitboard.SIZE / 2 ? 0 : Bitboard.SIZE - 1, y < Bitboard.SIZE / 2 ? 0 : Bitboard.SIZE - 1);
+			for (int i = 0; i < fields.length; i++) {
+				if(fields[i] == corner && digits[i] != EMPTY)
+					return column + row == 2 ? X_SQUARE_TAKEN : C_SQUARE_TAKEN;
+			}
+		}
+		return FIELD_VALUES[row][column];
+	}
+
+	/**
+	 * Splits a code into its base 3 digits.
+	 * @param code the code
+	 * @param digits the array to fill, as long as the pattern
+	 */
+	private static void decode(int code, int[] digits) {
+		for (int i = 0; i < digits.length; i++) {
+			digits[i] = code % 3;
+			code /= 3;
+		}
+	}
+
+	/**
+	 * Applies a symmetry to the fields of a pattern.
+	 * @param symmetry the symmetry, 0-7
+	 * @param fields the fields
+	 * @return the transformed fields, in the same order
+	 */
+	private static int[] transform(int symmetry, int[] fields) {
+		int[] placed = new int[fields.length];
+		for (int i = 0; i < fields.length; i++)
+			placed[i] = Symmetry.transformSquare(symmetry, fields[i]);
+		return placed;
+	}
+
+	/**
+	 * @param fields the fields of a pattern
+	 * @return the mask of the fields
+	 */
+	private static long mask(int[] fields) {
+		long mask = 0;
+		for (int square : fields)
+			mask |= 1L << square;
+		return mask;
+	}
+}
@@ -0,0 +1,96 @@
+package stacs.arcade.reversi.ai;
+
+import stacs.arcade.reversi.Bitboard;
+
+/**
+ * The outcome of a search: the best move found and the work done to find it.
+ *
+ * @author 190023753
+ */
+public class SearchResult {
+
+	private final int bestMove;
+	private final int score;
+	private final int depth;
+	private final long nodes;
+	private final long elapsedNanos;
+
+	/**
+	 * Creates a search result.
+	 *
+	 * @param bestMove     the square index of the best move, -1 if there is no legal move
+	 * @param score        the score of the best move from the point of view of the player to move
+	 * @param depth        the deepest iteration that completed
+	 * @param nodes        the number of positions visited
+	 * @param elapsedNanos the wall-clock time spent searching
+	 */
+	public SearchResult(int bestMove, int score, int depth, long nodes, long elapsedNanos) {
+		this.bestMove = bestMove;
+		this.score = score;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return the square index of the best move, -1 if there is no legal move
+	 */
+	public int getBestMove() {
+		return bestMove;
+	}
+
+	/**
+	 * @return the x position of the best move, -1 if there is no legal move
+	 */
+	public int getX() {
+		return bestMove < 0 ? -1 : Bitboard.x(bestMove);
+	}
+
+	/**
+	 * @return the y position of the best move, -1 if there is no legal move
+	 */
+	public int getY() {
+		return bestMove < 0 ? -1 : Bitboard.y(bestMove);
+	}
+
+	/**
+	 * @return the score of the best move from the point of view of the player to move
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * @return the deepest iteration that completed
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * @return the number of positions visited
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * @return the wall-clock time spent searching, in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return the number of positions visited per second of wall-clock time
+	 */
+	public long getNodesPerSecond() {
+		return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "SearchResult[move=" + getX() + "," + getY() + " score=" + score + " depth=" + depth
+				+ " nodes=" + nodes + " nps=" + getNodesPerSecond() + "]";
+	}
+}
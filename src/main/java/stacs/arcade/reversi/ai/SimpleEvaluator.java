@@ -0,0 +1,32 @@
+package stacs.arcade.reversi.ai;
+
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.ReversiModel.PlayerColour;
+
+/**
+ * An evaluator combining disc count, mobility and corner ownership.
+ * Every term is computed with a few bitboard operations.
+ *
+ * @author 190023753
+ */
+public class SimpleEvaluator implements Evaluator {
+
+	private static final long CORNERS = 0x8100000000000081L;
+	private static final int DISC_WEIGHT = 1;
+	private static final int MOBILITY_WEIGHT = 4;
+	private static final int CORNER_WEIGHT = 25;
+
+	@Override
+	public int evaluate(ReversiModel model) {
+		PlayerColour player = model.nextToMove();
+		PlayerColour opponent = player == PlayerColour.BLACK ? PlayerColour.WHITE : PlayerColour.BLACK;
+		long own = model.getBitboard(player);
+		long other = model.getBitboard(opponent);
+
+		int discs = Long.bitCount(own) - Long.bitCount(other);
+		int mobility = Long.bitCount(model.legalMoves(player)) - Long.bitCount(model.legalMoves(opponent));
+		int corners = Long.bitCount(own & CORNERS) - Long.bitCount(other & CORNERS);
+
+		return DISC_WEIGHT * discs + MOBILITY_WEIGHT * mobility + CORNER_WEIGHT * corners;
+	}
+}
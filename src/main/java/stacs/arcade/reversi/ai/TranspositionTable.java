@@ -0,0 +1,152 @@
+package stacs.arcade.reversi.ai;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size transposition table held in two primitive arrays, shared by any number of search threads
+ * without locks.
+ * Each entry packs depth, bound type, score, best move and search generation into one long. The key slot
+ * stores the position hash XOR-ed with that long, so an entry whose two halves were written by different
+ * threads fails verification on probe and is treated as a miss.
+ *
+ * @author 190023753
+ */
+public class TranspositionTable {
+
+	/**
+	 * Decides whether a store may overwrite the entry already held in its slot.
+	 */
+	public enum ReplacementPolicy {
+		/** Every store overwrites the slot. */
+		ALWAYS,
+		/** A store overwrites the slot only if it is at least as deep, or the slot is from an older search. */
+		DEPTH_PREFERRED
+	}
+
+	public static final int LOWER_BOUND = 1;
+	public static final int UPPER_BOUND = 2;
+	public static final int EXACT = 3;
+	public static final long NO_ENTRY = 0;
+
+	/* Layout of an entry: score in bits 0-31, depth in bits 32-39, bound in bits 40-41,
+	 * best move + 1 in bits 42-48 (0 for none) and the search generation in bits 49-56.
+	 * A valid entry always has a non-zero bound, so it is never equal to NO_ENTRY.
+	 */
+	private static final int DEPTH_SHIFT = 32;
+	private static final int BOUND_SHIFT = 40;
+	private static final int MOVE_SHIFT = 42;
+	private static final int GENERATION_SHIFT = 49;
+
+	private final long[] keys;
+	private final long[] entries;
+	private final int indexMask;
+	private final ReplacementPolicy policy;
+	private int generation;
+
+	/**
+	 * Creates a table with 2^sizeBits entries of 16 bytes each.
+	 *
+	 * @param sizeBits the base-2 logarithm of the number of entries, 1-30
+	 * @param policy   the replacement policy for stores into occupied slots
+	 */
+	public TranspositionTable(int sizeBits, ReplacementPolicy policy) {
+		if(sizeBits < 1 || sizeBits > 30)
+			throw new IllegalArgumentException("The table size must be between 2^1 and 2^30 entries");
+		keys = new long[1 << sizeBits];
+		entries = new long[1 << sizeBits];
+		indexMask = (1 << sizeBits) - 1;
+		this.policy = policy;
+	}
+
+	/**
+	 * Looks up the entry of a position.
+	 *
+	 * @param hash the Zobrist hash of the position
+	 * @return the packed entry, or NO_ENTRY if the table holds nothing valid for this hash
+	 */
+	public long probe(long hash) {
+		int index = (int) hash & indexMask;
+		long entry = entries[index];
+		if(entry == NO_ENTRY || (keys[index] ^ entry) != hash)
+			return NO_ENTRY;
+		return entry;
+	}
+
+	/**
+	 * Stores the result of searching a position, subject to the replacement policy.
+	 *
+	 * @param hash  the Zobrist hash of the position
+	 * @param depth the depth the position was searched to, 0-255
+	 * @param bound LOWER_BOUND, UPPER_BOUND or EXACT
+	 * @param score the score of the position
+	 * @param move  the square index of the best move, -1 if none
+	 */
+	public void store(long hash, int depth, int bound, int score, int move) {
+		int index = (int) hash & indexMask;
+		if(policy == ReplacementPolicy.DEPTH_PREFERRED){
+			long current = entries[index];
+			if(current != NO_ENTRY && (keys[index] ^ current) != hash
+					&& generation(current) == (generation & 0xFF) && depth(current) > depth)
+				return;
+		}
+
+		long entry = (score & 0xFFFFFFFFL)
+				| ((long) depth << DEPTH_SHIFT)
+				| ((long) bound << BOUND_SHIFT)
+				| ((long) (move + 1) << MOVE_SHIFT)
+				| ((long) (generation & 0xFF) << GENERATION_SHIFT);
+		keys[index] = hash ^ entry;
+		entries[index] = entry;
+	}
+
+	/**
+	 * Marks the start of a new search, so that depth-preferred replacement no longer protects older entries.
+	 */
+	public void newSearch() {
+		generation++;
+	}
+
+	/**
+	 * Removes every entry from the table. Must not run concurrently with a search.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(entries, 0);
+	}
+
+	/**
+	 * @param entry a packed entry returned by probe
+	 * @return the score stored in the entry
+	 */
+	public static int score(long entry) {
+		return (int) entry;
+	}
+
+	/**
+	 * @param entry a packed entry returned by probe
+	 * @return the depth stored in the entry
+	 */
+	public static int depth(long entry) {
+		return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+	}
+
+	/**
+	 * @param entry a packed entry returned by probe
+	 * @return LOWER_BOUND, UPPER_BOUND or EXACT
+	 */
+	public static int bound(long entry) {
+		return (int) (entry >>> BOUND_SHIFT) & 0x3;
+	}
+
+	/**
+	 * @param entry a packed entry returned by probe
+	 * @return the square index of the best move, -1 if none
+	 */
+	public static int move(long entry) {
+		return ((int) (entry >>> MOVE_SHIFT) & 0x7F) - 1;
+	}
+
+	private static int generation(long entry) {
+		return (int) (entry >>> GENERATION_SHIFT) & 0xFF;
+	}
+}
@@ -0,0 +1,134 @@
+package stacs.arcade.reversi.book;
+
+import stacs.arcade.reversi.Position;
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.Symmetry;
+import stacs.arcade.reversi.ai.AlphaBetaSearch;
+import stacs.arcade.reversi.ai.SearchResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An opening book read from a file written by OpeningBookBuilder. The file is memory-mapped and
+ * looked up by binary search, so a lookup reads a handful of entries and creates no objects but its result.
+ * <pre>
+ * header   magic (int), version (int), entry count (long)
+ * entries  key (two longs), score (int), best move (byte), search depth (byte), two unused bytes
+ * </pre>
+ * Entries are sorted by key, compared as unsigned numbers. Keys are the Position keys of the canonical
+ * orientation, and the best move is stored in that orientation.
+ * Only positions after the model's four initial moves are in the book. A book may be shared by several threads.
+ *
+ * @author 190023753
+ */
+public class OpeningBook implements Closeable {
+
+	public static final int MAGIC = 0x52564F42;
+	public static final int VERSION = 1;
+
+	/* The number of moves of the model's opening phase, in which the pieces are placed on the center fields. */
+	static final int OPENING_MOVES = 4;
+	static final int HEADER_SIZE = 16;
+	static final int ENTRY_SIZE = 24;
+	static final int SCORE_OFFSET = 16;
+	static final int MOVE_OFFSET = 20;
+	static final int DEPTH_OFFSET = 21;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer entries;
+	private final long entryCount;
+
+	/**
+	 * Opens and maps a book file.
+	 *
+	 * @param file the book file
+	 * @throws IOException if the file cannot be read or is not an opening book.
+	 */
+	public OpeningBook(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			if(channel.size() > Integer.MAX_VALUE)
+				throw new IOException(file + " is too large for an opening book");
+			entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if(channel.size() < HEADER_SIZE || entries.getInt(0) != MAGIC)
+				throw new IOException(file + " is not an opening book");
+			if(entries.getInt(4) != VERSION)
+				throw new IOException(file + " has unsupported book version " + entries.getInt(4));
+			entryCount = entries.getLong(8);
+			if(HEADER_SIZE + entryCount * ENTRY_SIZE > channel.size())
+				throw new IOException(file + " is truncated");
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the number of positions in the book
+	 */
+	public long size() {
+		return entryCount;
+	}
+
+	/**
+	 * Looks up the position of a model.
+	 *
+	 * @param model the position to look up, which is not modified
+	 * @return the book move and score, with the depth it was searched to, or null if the position is not in the book
+	 */
+	public SearchResult lookup(ReversiModel model) {
+		long start = System.nanoTime();
+		if(model.getTotalMoves() < OPENING_MOVES)
+			return null;
+
+		long black = model.getBitboard(ReversiModel.PlayerColour.BLACK);
+		long white = model.getBitboard(ReversiModel.PlayerColour.WHITE);
+		int symmetry = Symmetry.canonicalSymmetry(black, white);
+		black = Symmetry.transform(symmetry, black);
+		white = Symmetry.transform(symmetry, white);
+		long keyBlack = Position.keyBlack(black, white, model.nextToMove());
+		long keyWhite = Position.keyWhite(black, white, model.nextToMove());
+
+		long low = 0, high = entryCount - 1;
+		while (low <= high) {
+			long middle = (low + high) >>> 1;
+			int offset = (int) (HEADER_SIZE + middle * ENTRY_SIZE);
+			int order = Long.compareUnsigned(entries.getLong(offset), keyBlack);
+			if(order == 0)
+				order = Long.compareUnsigned(entries.getLong(offset + Long.BYTES), keyWhite);
+			if(order < 0)
+				low = middle + 1;
+			else if(order > 0)
+				high = middle - 1;
+			else {
+				int move = Symmetry.transformSquare(Symmetry.inverse(symmetry), entries.get(offset + MOVE_OFFSET));
+				return new SearchResult(move, entries.getInt(offset + SCORE_OFFSET), entries.get(offset + DEPTH_OFFSET),
+						0, System.nanoTime() - start);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Plays from the book, searching positions that are not in it.
+	 *
+	 * @param model        the position, which is not modified
+	 * @param fallback     the search used on a miss
+	 * @param budgetMillis the wall-clock budget of the search in milliseconds
+	 * @return the book result, or the search result on a miss
+	 */
+	public SearchResult search(ReversiModel model, AlphaBetaSearch fallback, long budgetMillis) {
+		SearchResult result = lookup(model);
+		return result != null ? result : fallback.search(model, budgetMillis);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
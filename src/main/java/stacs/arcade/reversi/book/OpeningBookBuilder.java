@@ -0,0 +1,169 @@
+package stacs.arcade.reversi.book;
+
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.Position;
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.Symmetry;
+import stacs.arcade.reversi.ai.AlphaBetaSearch;
+import stacs.arcade.reversi.ai.SearchResult;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds an opening book offline by searching every position reachable within a number of moves
+ * after the model's four initial moves. Symmetric positions are searched and stored once, in their
+ * canonical orientation.
+ *
+ * @author 190023753
+ */
+public class OpeningBookBuilder {
+
+	private static final long NO_TIME_LIMIT_MILLIS = 24L * 60 * 60 * 1000;
+
+	private static final Comparator<Position> KEY_ORDER = (first, second) -> {
+		int order = Long.compareUnsigned(keyBlack(first), keyBlack(second));
+		return order != 0 ? order : Long.compareUnsigned(keyWhite(first), keyWhite(second));
+	};
+
+	private final AlphaBetaSearch search;
+	private final int searchDepth;
+	private final Map<Position, SearchResult> results = new HashMap<>();
+
+	/**
+	 * Creates a builder that searches each book position to a fixed depth.
+	 *
+	 * @param search      the search used for the book positions
+	 * @param searchDepth the depth in moves of each search
+	 */
+	public OpeningBookBuilder(AlphaBetaSearch search, int searchDepth) {
+		this.search = search;
+		this.searchDepth = searchDepth;
+	}
+
+	/**
+	 * Searches every position reachable from the empty board within the given number of moves
+	 * after the four initial moves, including the positions right after them.
+	 *
+	 * @param moves the number of moves after the initial moves
+	 */
+	public void addTree(int moves) {
+		Set<Position> level = new HashSet<>();
+		collect(new ReversiModel(), OpeningBook.OPENING_MOVES, level);
+		for (int ply = 0; ply <= moves && !level.isEmpty(); ply++) {
+			Set<Position> next = new HashSet<>();
+			for (Position position : level) {
+				ReversiModel model = position.toModel();
+				add(model);
+				if(ply < moves)
+					collect(model, 1, next);
+			}
+			level = next;
+		}
+	}
+
+	/**
+	 * Searches one position and adds it to the book, unless it is already in the book or the game is over.
+	 *
+	 * @param model the position, after the four initial moves, which is not modified
+	 */
+	public void add(ReversiModel model) {
+		if(model.getTotalMoves() < OpeningBook.OPENING_MOVES)
+			throw new IllegalArgumentException("The book starts after the " + OpeningBook.OPENING_MOVES + " initial moves");
+		Position position = Symmetry.canonical(Position.of(model));
+		if(model.isGameOver() || results.containsKey(position))
+			return;
+		results.put(position, search.search(position.toModel(), searchDepth, NO_TIME_LIMIT_MILLIS));
+	}
+
+	/**
+	 * @return the number of positions in the book so far
+	 */
+	public int size() {
+		return results.size();
+	}
+
+	/**
+	 * Writes the book to a file, sorted by key, replacing any existing file.
+	 *
+	 * @param file the book file
+	 * @throws IOException if the file cannot be written.
+	 */
+	public void write(Path file) throws IOException {
+		List<Position> positions = new ArrayList<>(results.keySet());
+		positions.sort(KEY_ORDER);
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+			out.writeInt(OpeningBook.MAGIC);
+			out.writeInt(OpeningBook.VERSION);
+			out.writeLong(positions.size());
+			for (Position position : positions) {
+				SearchResult result = results.get(position);
+				out.writeLong(keyBlack(position));
+				out.writeLong(keyWhite(position));
+				out.writeInt(result.getScore());
+				out.writeByte(result.getBestMove());
+				out.writeByte(result.getDepth());
+				out.writeShort(0);
+			}
+		}
+	}
+
+	/**
+	 * Builds a book and writes it to a file.
+	 * Usage: OpeningBookBuilder moves depth file, where moves is the number of moves after the four initial
+	 * moves covered by the book and depth the search depth of each position.
+	 */
+	public static void main(String[] args) throws IOException {
+		OpeningBookBuilder builder = new OpeningBookBuilder(new AlphaBetaSearch(), Integer.parseInt(args[1]));
+		long start = System.nanoTime();
+		builder.addTree(Integer.parseInt(args[0]));
+		builder.write(Path.of(args[2]));
+		System.out.println(builder.size() + " positions in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+	}
+
+	/**
+	 * Adds the canonical form of every position the given number of moves below the model to the set.
+	 * A finished game reached earlier is added as it is. The model is left as it was.
+	 * @param model the position to start from
+	 * @param moves the number of moves
+	 * @param positions receives the canonical positions
+	 */
+	private static void collect(ReversiModel model, int moves, Set<Position> positions) {
+		long legal = model.legalMoves(model.nextToMove());
+		if(moves == 0 || legal == 0){
+			positions.add(Symmetry.canonical(Position.of(model)));
+			return;
+		}
+		for (; legal != 0; legal &= legal - 1) {
+			int square = Long.numberOfTrailingZeros(legal);
+			try {
+				model.makeMove(model.nextToMove(), Bitboard.x(square), Bitboard.y(square));
+			} catch (IllegalMoveException e) {
+				throw new IllegalStateException("The builder generated an illegal move", e);
+			}
+			collect(model, moves - 1, positions);
+			model.unmakeMove();
+		}
+	}
+
+	private static long keyBlack(Position position) {
+		return Position.keyBlack(position.getBitboard(ReversiModel.PlayerColour.BLACK),
+				position.getBitboard(ReversiModel.PlayerColour.WHITE), position.nextToMove());
+	}
+
+	private static long keyWhite(Position position) {
+		return Position.keyWhite(position.getBitboard(ReversiModel.PlayerColour.BLACK),
+				position.getBitboard(ReversiModel.PlayerColour.WHITE), position.nextToMove());
+	}
+}
@@ -0,0 +1,147 @@
+package stacs.arcade.reversi.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies in nanoseconds, from which percentiles can be read while it is being filled.
+ * Every power of two is split into 8 buckets, so a percentile is reported with at most 12.5% error,
+ * and recording adds to two LongAdders whatever the number of values: the bucket and the total.
+ * The adders spread concurrent updates over several cells, and the maximum is only written when it grows,
+ * so many threads can record into one histogram without contending on a single counter.
+ *
+ * @author 190023753
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	private final LongAdder[] counts = new LongAdder[BUCKETS];
+	private final LongAdder total = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Creates an empty histogram.
+	 */
+	public LatencyHistogram() {
+		for (int i = 0; i < BUCKETS; i++)
+			counts[i] = new LongAdder();
+	}
+
+	/**
+	 * Records a latency. May be called from any thread.
+	 *
+	 * @param nanos the latency in nanoseconds, negative values count as 0
+	 */
+	public void record(long nanos) {
+		nanos = Math.max(nanos, 0);
+		counts[bucket(nanos)].increment();
+		total.add(nanos);
+		long largest = max.get();
+		while (nanos > largest && !max.compareAndSet(largest, nanos))
+			largest = max.get();
+	}
+
+	/**
+	 * @return the number of latencies recorded
+	 */
+	public long getCount() {
+		long recorded = 0;
+		for (LongAdder adder : counts)
+			recorded += adder.sum();
+		return recorded;
+	}
+
+	/**
+	 * @return the largest latency recorded in nanoseconds, 0 if none
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * @return the mean latency in nanoseconds, 0 if none were recorded
+	 */
+	public double getMean() {
+		long recorded = getCount();
+		return recorded == 0 ? 0 : (double) total.sum() / recorded;
+	}
+
+	/**
+	 * Returns the latency below which the given share of the recorded latencies lie,
+	 * as the upper end of the bucket holding it.
+	 *
+	 * @param percentile the percentile, from 0 to 100
+	 * @return the latency in nanoseconds, 0 if none were recorded
+	 * @throws IllegalArgumentException if the percentile is out of range.
+	 */
+	public long getPercentile(double percentile) {
+		if(percentile < 0 || percentile > 100)
+			throw new IllegalArgumentException("Not a percentile: " + percentile);
+		long recorded = 0;
+		long[] snapshot = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts[i].sum();
+			recorded += snapshot[i];
+		}
+		if(recorded == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if(seen >= rank)
+				return Math.min(upperBound(i), getMax());
+		}
+		return getMax();
+	}
+
+	/**
+	 * Clears all recorded latencies. Latencies recorded during the reset may be partly lost.
+	 */
+	public void reset() {
+		for (LongAdder adder : counts)
+			adder.reset();
+		total.reset();
+		max.set(0);
+	}
+
+	/**
+	 * @return the count and the main percentiles in microseconds
+	 */
+	@Override
+	public String toString() {
+		return String.format("%d values, mean %.1f us, p50 %.1f us, p90 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us",
+				getCount(), getMean() / 1e3, getPercentile(50) / 1e3, getPercentile(90) / 1e3, getPercentile(99) / 1e3,
+				getPercentile(99.9) / 1e3, getMax() / 1e3);
+	}
+
+	/**
+	 * Returns the bucket of a latency: values below 8 have a bucket each, larger values
+	 * share a bucket with the values that agree with them in their 4 highest bits.
+	 * @param nanos the latency, not negative
+	 * @return the index of the bucket
+	 */
+	static int bucket(long nanos) {
+		if(nanos < SUB_BUCKETS)
+			return (int) nanos;
+		int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+		return ((magnitude - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS)
+				+ (int) ((nanos >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+	}
+
+	/**
+	 * Returns the largest latency that falls into a bucket.
+	 * @param bucket the index of the bucket
+	 * @return the latency in nanoseconds
+	 */
+	static long upperBound(int bucket) {
+		if(bucket < SUB_BUCKETS)
+			return bucket;
+		int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+		long lower = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+		return lower + (1L << shift) - 1;
+	}
+}
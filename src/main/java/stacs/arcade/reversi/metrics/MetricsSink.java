@@ -0,0 +1,26 @@
+package stacs.arcade.reversi.metrics;
+
+/**
+ * Receives the current values of a set of metrics, for example to forward them to a monitoring system.
+ * Names are dot-separated, such as "moves.applied".
+ *
+ * @author 190023753
+ */
+public interface MetricsSink {
+
+	/**
+	 * Receives a counter, a value that only grows until the metrics are reset.
+	 *
+	 * @param name  the name of the counter
+	 * @param value the current value
+	 */
+	void counter(String name, long value);
+
+	/**
+	 * Receives a histogram of latencies.
+	 *
+	 * @param name      the name of the histogram
+	 * @param histogram the histogram, which may still be changing while it is read
+	 */
+	void histogram(String name, LatencyHistogram histogram);
+}
@@ -0,0 +1,211 @@
+package stacs.arcade.reversi.metrics;
+
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.MoveResult;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the moves of one or more models: the moves applied, the moves rejected by reason, the pieces captured
+ * per move and the time each move takes, captures included. A model records into it only while it is set with
+ * ReversiModel.setMetrics, so a model without metrics pays nothing but a null check.
+ * <p>
+ * The counters, the buckets of the latency histogram included, are LongAdders, which spread concurrent increments
+ * over several cells, so many models on many threads can share one instance without contending on a single
+ * counter. The values can be read at any time, exported to a MetricsSink or published over JMX.
+ *
+ * @author 190023753
+ */
+public final class MoveMetrics implements MoveMetricsMXBean {
+
+	public static final String JMX_DOMAIN = "stacs.arcade.reversi";
+
+	private static final MoveResult[] RESULTS = MoveResult.values();
+
+	private final LongAdder applied = new LongAdder();
+	private final LongAdder[] rejections = new LongAdder[RESULTS.length];
+	private final LongAdder flipped = new LongAdder();
+	/* The number of applied moves by the number of pieces they captured. */
+	private final LongAdder[] flipsPerMove = new LongAdder[Bitboard.SQUARES];
+	private final LatencyHistogram moveLatency = new LatencyHistogram();
+
+	/**
+	 * Creates metrics with all counters at 0.
+	 */
+	public MoveMetrics() {
+		for (int i = 0; i < rejections.length; i++)
+			rejections[i] = new LongAdder();
+		for (int i = 0; i < flipsPerMove.length; i++)
+			flipsPerMove[i] = new LongAdder();
+	}
+
+	/**
+	 * Records one call of tryMove or makeMove. May be called from any thread.
+	 *
+	 * @param result   the result of the move
+	 * @param captured the number of pieces the move captured, 0 if it was rejected
+	 * @param nanos    the time the move took
+	 */
+	public void record(MoveResult result, int captured, long nanos) {
+		moveLatency.record(nanos);
+		if(!result.isLegal()){
+			rejections[result.ordinal()].increment();
+			return;
+		}
+		applied.increment();
+		flipped.add(captured);
+		flipsPerMove[captured].increment();
+	}
+
+	@Override
+	public long getMovesApplied() {
+		return applied.sum();
+	}
+
+	@Override
+	public long getMovesRejected() {
+		long rejected = 0;
+		for (LongAdder adder : rejections)
+			rejected += adder.sum();
+		return rejected;
+	}
+
+	/**
+	 * @param reason the result of a rejected move
+	 * @return the number of moves rejected for that reason
+	 */
+	public long getRejections(MoveResult reason) {
+		return rejections[reason.ordinal()].sum();
+	}
+
+	@Override
+	public Map<String, Long> getRejectionsByReason() {
+		Map<String, Long> byReason = new LinkedHashMap<>();
+		for (MoveResult result : RESULTS) {
+			if(!result.isLegal())
+				byReason.put(result.name(), getRejections(result));
+		}
+		return byReason;
+	}
+
+	@Override
+	public long getPiecesFlipped() {
+		return flipped.sum();
+	}
+
+	/**
+	 * @param captured a number of captured pieces
+	 * @return the number of applied moves that captured exactly that many pieces
+	 */
+	public long getMovesCapturing(int captured) {
+		return captured < 0 || captured >= flipsPerMove.length ? 0 : flipsPerMove[captured].sum();
+	}
+
+	@Override
+	public long[] getMovesByCapturedPieces() {
+		long[] moves = new long[flipsPerMove.length];
+		for (int i = 0; i < moves.length; i++)
+			moves[i] = flipsPerMove[i].sum();
+		return moves;
+	}
+
+	/**
+	 * @return the times of all moves recorded, in nanoseconds
+	 */
+	public LatencyHistogram getMoveLatency() {
+		return moveLatency;
+	}
+
+	@Override
+	public long getMoveLatencyMedianNanos() {
+		return moveLatency.getPercentile(50);
+	}
+
+	@Override
+	public long getMoveLatency99thNanos() {
+		return moveLatency.getPercentile(99);
+	}
+
+	@Override
+	public long getMoveLatencyMaxNanos() {
+		return moveLatency.getMax();
+	}
+
+	@Override
+	public void reset() {
+		applied.reset();
+		flipped.reset();
+		for (LongAdder adder : rejections)
+			adder.reset();
+		for (LongAdder adder : flipsPerMove)
+			adder.reset();
+		moveLatency.reset();
+	}
+
+	/**
+	 * Passes the current values to a sink: moves.applied, moves.rejected.&lt;reason&gt; for every reason,
+	 * moves.flipped, moves.captured.&lt;n&gt; for every number of pieces n that at least one applied move captured,
+	 * and moves.latency.
+	 *
+	 * @param sink the sink
+	 */
+	public void exportTo(MetricsSink sink) {
+		sink.counter("moves.applied", getMovesApplied());
+		for (MoveResult result : RESULTS) {
+			if(!result.isLegal())
+				sink.counter("moves.rejected." + result.name().toLowerCase(), getRejections(result));
+		}
+		sink.counter("moves.flipped", getPiecesFlipped());
+		long[] movesByCaptured = getMovesByCapturedPieces();
+		for (int captured = 0; captured < movesByCaptured.length; captured++) {
+			if(movesByCaptured[captured] > 0)
+				sink.counter("moves.captured." + captured, movesByCaptured[captured]);
+		}
+		sink.histogram("moves.latency", moveLatency);
+	}
+
+	/**
+	 * Publishes these metrics on the platform MBean server.
+	 *
+	 * @param name the name that tells these metrics apart from other instances
+	 * @return the object name they were registered under, in the JMX_DOMAIN with type MoveMetrics
+	 * @throws IllegalStateException if the name is taken or cannot be registered.
+	 */
+	public ObjectName register(String name) {
+		try {
+			ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=MoveMetrics,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+			return objectName;
+		} catch (JMException e) {
+			throw new IllegalStateException("Cannot register the move metrics " + name, e);
+		}
+	}
+
+	/**
+	 * Removes metrics published by register from the platform MBean server.
+	 *
+	 * @param objectName the name returned by register
+	 * @throws IllegalStateException if nothing is registered under the name.
+	 */
+	public static void unregister(ObjectName objectName) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		} catch (JMException e) {
+			throw new IllegalStateException("Cannot unregister the move metrics " + objectName, e);
+		}
+	}
+
+	/**
+	 * @return the moves applied and rejected, the pieces captured and the move times
+	 */
+	@Override
+	public String toString() {
+		return String.format("%d applied, %d rejected %s, %d pieces flipped, latency %s", getMovesApplied(),
+				getMovesRejected(), getRejectionsByReason(), getPiecesFlipped(), moveLatency);
+	}
+}
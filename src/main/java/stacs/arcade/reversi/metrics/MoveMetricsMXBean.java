@@ -0,0 +1,56 @@
+package stacs.arcade.reversi.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of MoveMetrics, as registered by MoveMetrics.register.
+ *
+ * @author 190023753
+ */
+public interface MoveMetricsMXBean {
+
+	/**
+	 * @return the number of moves applied
+	 */
+	long getMovesApplied();
+
+	/**
+	 * @return the number of moves rejected, for any reason
+	 */
+	long getMovesRejected();
+
+	/**
+	 * @return the number of rejected moves by the name of their MoveResult
+	 */
+	Map<String, Long> getRejectionsByReason();
+
+	/**
+	 * @return the number of pieces captured by all applied moves
+	 */
+	long getPiecesFlipped();
+
+	/**
+	 * @return the number of applied moves by the number of pieces they captured, indexed by that number
+	 */
+	long[] getMovesByCapturedPieces();
+
+	/**
+	 * @return the median time of a move in nanoseconds
+	 */
+	long getMoveLatencyMedianNanos();
+
+	/**
+	 * @return the 99th percentile of the time of a move in nanoseconds
+	 */
+	long getMoveLatency99thNanos();
+
+	/**
+	 * @return the longest time of a move in nanoseconds
+	 */
+	long getMoveLatencyMaxNanos();
+
+	/**
+	 * Clears all metrics.
+	 */
+	void reset();
+}
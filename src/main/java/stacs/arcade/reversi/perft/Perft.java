@@ -0,0 +1,163 @@
+package stacs.arcade.reversi.perft;
+
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.ReversiModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft: counts the positions reached after exactly a given number of moves, to check the rules
+ * and measure the speed of makeMove and unmakeMove.
+ * A pass is not a move of its own, because the model lets the player with moves move again.
+ * A finished game reached before the given depth counts as one position.
+ *
+ * @author 190023753
+ */
+public final class Perft {
+
+	/* Subtrees at least this deep are split into one fork-join task per move. */
+	private static final int SPLIT_DEPTH = 5;
+
+	private Perft() {
+	}
+
+	/**
+	 * Counts the positions the given number of moves below the position of the model.
+	 * The model is left as it was.
+	 *
+	 * @param model the position to start from
+	 * @param depth the number of moves
+	 * @return the number of positions
+	 */
+	public static long perft(ReversiModel model, int depth) {
+		if(depth == 0)
+			return 1;
+		long moves = model.legalMoves(model.nextToMove());
+		if(moves == 0)
+			return 1;
+		if(depth == 1)
+			return Long.bitCount(moves);
+
+		long leaves = 0;
+		for (; moves != 0; moves &= moves - 1) {
+			play(model, Long.numberOfTrailingZeros(moves));
+			leaves += perft(model, depth - 1);
+			model.unmakeMove();
+		}
+		return leaves;
+	}
+
+	/**
+	 * Counts the positions the given number of moves below the position of the model, split by the first move.
+	 * The subtree of each first move is counted on its own copy of the model, in parallel on the pool.
+	 *
+	 * @param model the position to start from, which is not modified
+	 * @param depth the number of moves, at least 1
+	 * @param pool  the pool to count on
+	 * @return the count of each first move, indexed by square index, 0 for squares that are not legal moves
+	 */
+	public static long[] divide(ReversiModel model, int depth, ForkJoinPool pool) {
+		List<PerftTask> tasks = new ArrayList<>();
+		for (long moves = model.legalMoves(model.nextToMove()); moves != 0; moves &= moves - 1)
+			tasks.add(new PerftTask(model, Long.numberOfTrailingZeros(moves), depth - 1));
+		pool.invoke(new RecursiveAction() {
+			@Override
+			protected void compute() {
+				invokeAll(tasks);
+			}
+		});
+
+		long[] counts = new long[Bitboard.SQUARES];
+		for (PerftTask task : tasks)
+			counts[task.square] = task.join();
+		return counts;
+	}
+
+	/**
+	 * Runs perft or divide from the empty board or from a move sequence, and prints the counts and the speed.
+	 * Usage: Perft depth [moves] [divide], where moves are fields such as d5e4 written as column a-h and row 1-8.
+	 */
+	public static void main(String[] args) {
+		int depth = Integer.parseInt(args[0]);
+		ReversiModel model = new ReversiModel();
+		if(args.length > 1 && !args[1].equals("divide"))
+			playAll(model, args[1]);
+		boolean divide = args[args.length - 1].equals("divide");
+
+		long start = System.nanoTime();
+		long total = 0;
+		if(divide){
+			long[] counts = divide(model, depth, ForkJoinPool.commonPool());
+			for (int square = 0; square < Bitboard.SQUARES; square++) {
+				if(counts[square] != 0)
+					System.out.println(name(square) + " " + counts[square]);
+				total += counts[square];
+			}
+		}else {
+			total = perft(model, depth);
+		}
+		long nanos = System.nanoTime() - start;
+		System.out.println("perft(" + depth + ") = " + total + " in " + nanos / 1_000_000 + " ms, "
+				+ (nanos == 0 ? 0 : total * 1_000_000_000L / nanos) + " nodes/sec");
+	}
+
+	/**
+	 * Counts the subtree of one move on a copy of the model, forking one task per reply when deep enough.
+	 */
+	private static final class PerftTask extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final ReversiModel model;
+		private final int square;
+		private final int depth;
+
+		PerftTask(ReversiModel parent, int square, int depth) {
+			this.model = new ReversiModel(parent);
+			this.square = square;
+			this.depth = depth;
+			play(model, square);
+		}
+
+		@Override
+		protected Long compute() {
+			long moves = model.legalMoves(model.nextToMove());
+			if(depth < SPLIT_DEPTH || moves == 0)
+				return perft(model, depth);
+
+			List<PerftTask> children = new ArrayList<>(Long.bitCount(moves));
+			for (; moves != 0; moves &= moves - 1)
+				children.add(new PerftTask(model, Long.numberOfTrailingZeros(moves), depth - 1));
+			long leaves = 0;
+			for (PerftTask child : invokeAll(children))
+				leaves += child.join();
+			return leaves;
+		}
+	}
+
+	private static void play(ReversiModel model, int square) {
+		try {
+			model.makeMove(model.nextToMove(), Bitboard.x(square), Bitboard.y(square));
+		} catch (IllegalMoveException e) {
+			throw new IllegalStateException("Perft generated an illegal move", e);
+		}
+	}
+
+	private static void playAll(ReversiModel model, String moves) {
+		try {
+			for (int i = 0; i + 1 < moves.length(); i += 2)
+				model.makeMove(model.nextToMove(), moves.charAt(i) - 'a', moves.charAt(i + 1) - '1');
+		} catch (IllegalMoveException e) {
+			throw new IllegalArgumentException("Not a legal move sequence: " + moves, e);
+		}
+	}
+
+	private static String name(int square) {
+		return "" + (char) ('a' + Bitboard.x(square)) + (Bitboard.y(square) + 1);
+	}
+}
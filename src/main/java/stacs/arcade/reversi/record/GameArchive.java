@@ -0,0 +1,28 @@
+package stacs.arcade.reversi.record;
+
+/**
+ * Layout of the binary game archive, shared by GameArchiveWriter and GameArchiveReader.
+ * <pre>
+ * header   magic (int), version (int), game count (long), index offset (long), reserved (long)
+ * games    per game: move count (byte), black stones (byte), white stones (byte), one byte per move
+ * index    the file offset of every game (long), in game order
+ * </pre>
+ * A move byte holds the square index 0-63. Passes are not stored: they follow from the rules, as the model
+ * lets the player with moves move again. All numbers are big-endian.
+ *
+ * @author 190023753
+ */
+public final class GameArchive {
+
+	public static final int MAGIC = 0x52564741;
+	public static final int VERSION = 1;
+
+	static final int HEADER_SIZE = 32;
+	static final int GAME_COUNT_OFFSET = 8;
+	static final int INDEX_OFFSET_OFFSET = 16;
+	static final int GAME_HEADER_SIZE = 3;
+	static final int MAX_GAME_SIZE = GAME_HEADER_SIZE + 255;
+
+	private GameArchive() {
+	}
+}
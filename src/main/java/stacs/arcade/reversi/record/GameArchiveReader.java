@@ -0,0 +1,225 @@
+package stacs.arcade.reversi.record;
+
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.ReversiModel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Reads a binary game archive through memory-mapped buffers, without copying games out of the file.
+ * Files larger than one mapping are mapped in overlapping chunks, so every game lies within one chunk.
+ * A reader may be shared by several threads, as it only uses absolute reads.
+ *
+ * @author 190023753
+ */
+public class GameArchiveReader implements Closeable {
+
+	private static final long CHUNK_SIZE = 1L << 30;
+	private static final long CHUNK_OVERLAP = 1024;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer[] chunks;
+	private final long gameCount;
+	private final long indexOffset;
+
+	/**
+	 * Opens and maps an archive file.
+	 *
+	 * @param file the archive file
+	 * @throws IOException if the file cannot be read or is not a game archive.
+	 */
+	public GameArchiveReader(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			long size = channel.size();
+			chunks = new MappedByteBuffer[(int) Math.max(1, (size + CHUNK_SIZE - 1) / CHUNK_SIZE)];
+			for (int i = 0; i < chunks.length; i++) {
+				long start = i * CHUNK_SIZE;
+				chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, CHUNK_SIZE + CHUNK_OVERLAP));
+			}
+			if(size < GameArchive.HEADER_SIZE || chunks[0].getInt(0) != GameArchive.MAGIC)
+				throw new IOException(file + " is not a game archive");
+			if(chunks[0].getInt(4) != GameArchive.VERSION)
+				throw new IOException(file + " has unsupported archive version " + chunks[0].getInt(4));
+			gameCount = chunks[0].getLong(GameArchive.GAME_COUNT_OFFSET);
+			indexOffset = chunks[0].getLong(GameArchive.INDEX_OFFSET_OFFSET);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the number of games in the archive
+	 */
+	public long getGameCount() {
+		return gameCount;
+	}
+
+	/**
+	 * Returns the file offset of a game, read from the index.
+	 *
+	 * @param game the number of the game, from 0
+	 * @return the offset of the game
+	 */
+	public long getOffset(long game) {
+		if(game < 0 || game >= gameCount)
+			throw new IndexOutOfBoundsException("Game " + game + " is not in the archive");
+		long offset = indexOffset + game * Long.BYTES;
+		return chunk(offset).getLong(position(offset));
+	}
+
+	/**
+	 * @param game the number of the game, from 0
+	 * @return the number of moves of the game
+	 */
+	public int getMoveCount(long game) {
+		return byteAt(getOffset(game));
+	}
+
+	/**
+	 * @param game the number of the game, from 0
+	 * @param ply  the number of the move, from 0
+	 * @return the square index of the move
+	 * @throws IllegalArgumentException if the game has no such move.
+	 */
+	public int getMove(long game, int ply) {
+		return moveAt(getOffset(game), ply);
+	}
+
+	/**
+	 * Replays a game on the given model, which makes the passes by itself.
+	 *
+	 * @param game  the number of the game, from 0
+	 * @param model a model holding the empty board, which is left holding the final position
+	 * @throws IllegalMoveException if the archive does not hold a legal game.
+	 */
+	public void replay(long game, ReversiModel model) throws IllegalMoveException {
+		replayAt(getOffset(game), model);
+	}
+
+	/**
+	 * Visits every game in file order, reading the games one after the other rather than through the index.
+	 * The same GameView instance is passed for every game and is only valid during the call,
+	 * so a scan creates no object per game or per move.
+	 *
+	 * @param visitor receives each game
+	 */
+	public void scan(Consumer<GameView> visitor) {
+		GameView view = new GameView();
+		long offset = GameArchive.HEADER_SIZE;
+		for (long game = 0; game < gameCount; game++) {
+			view.game = game;
+			view.offset = offset;
+			visitor.accept(view);
+			offset += GameArchive.GAME_HEADER_SIZE + byteAt(offset);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private void replayAt(long offset, ReversiModel model) throws IllegalMoveException {
+		int count = byteAt(offset);
+		MappedByteBuffer chunk = chunk(offset);
+		int start = position(offset) + GameArchive.GAME_HEADER_SIZE;
+		for (int i = start; i < start + count; i++) {
+			int square = chunk.get(i) & 0xFF;
+			model.makeMove(model.nextToMove(), Bitboard.x(square), Bitboard.y(square));
+		}
+	}
+
+	/**
+	 * Reads a move of the game at the given offset, checking it against the move count of the game,
+	 * as the bytes after the last move belong to the next game or the index.
+	 * @param offset the offset of the game
+	 * @param ply the number of the move, from 0
+	 * @return the square index of the move
+	 */
+	private int moveAt(long offset, int ply) {
+		int count = byteAt(offset);
+		if(ply < 0 || ply >= count)
+			throw new IllegalArgumentException("Move " + ply + " is not in a game of " + count + " moves");
+		return byteAt(offset + GameArchive.GAME_HEADER_SIZE + ply);
+	}
+
+	private int byteAt(long offset) {
+		return chunk(offset).get(position(offset)) & 0xFF;
+	}
+
+	private MappedByteBuffer chunk(long offset) {
+		return chunks[(int) (offset / CHUNK_SIZE)];
+	}
+
+	private static int position(long offset) {
+		return (int) (offset % CHUNK_SIZE);
+	}
+
+	/**
+	 * A reusable view of the game at the current position of a scan.
+	 */
+	public final class GameView {
+
+		private long game;
+		private long offset;
+
+		private GameView() {
+		}
+
+		/**
+		 * @return the number of the game, from 0
+		 */
+		public long getGame() {
+			return game;
+		}
+
+		/**
+		 * @return the number of moves of the game
+		 */
+		public int getMoveCount() {
+			return byteAt(offset);
+		}
+
+		/**
+		 * @param ply the number of the move, from 0
+		 * @return the square index of the move
+		 * @throws IllegalArgumentException if the game has no such move.
+		 */
+		public int getMove(int ply) {
+			return moveAt(offset, ply);
+		}
+
+		/**
+		 * @return the number of black stones at the end of the game
+		 */
+		public int getBlackStones() {
+			return byteAt(offset + 1);
+		}
+
+		/**
+		 * @return the number of white stones at the end of the game
+		 */
+		public int getWhiteStones() {
+			return byteAt(offset + 2);
+		}
+
+		/**
+		 * Replays the game on the given model, which makes the passes by itself.
+		 *
+		 * @param model a model holding the empty board, which is left holding the final position
+		 * @throws IllegalMoveException if the archive does not hold a legal game.
+		 */
+		public void replay(ReversiModel model) throws IllegalMoveException {
+			replayAt(offset, model);
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package stacs.arcade.reversi.record;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes games to a binary archive file in the layout of GameArchive.
+ * Games are buffered and written in large blocks. The offsets of the games are buffered the same way and written
+ * to a temporary index file next to the archive, which is appended to the archive on close, followed by the header.
+ * So the memory of a writer does not grow with the number of games.
+ * The writer can be used directly as the sink of a self-play run, and its methods are synchronized
+ * so that several threads may add games.
+ *
+ * @author 190023753
+ */
+public class GameArchiveWriter implements GameSink, Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final FileChannel channel;
+	private final FileChannel indexChannel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final ByteBuffer indexBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private long gameCount;
+	private long position = GameArchive.HEADER_SIZE;
+
+	/**
+	 * Creates the archive file, replacing any existing file, and its temporary index file in the same directory.
+	 *
+	 * @param file the archive file
+	 * @throws IOException if the files cannot be created.
+	 */
+	public GameArchiveWriter(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+		try {
+			channel.position(GameArchive.HEADER_SIZE);
+			Path directory = file.toAbsolutePath().getParent();
+			indexChannel = FileChannel.open(Files.createTempFile(directory, file.getFileName() + ".", ".index"),
+					StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Appends a game to the archive.
+	 *
+	 * @param record the game
+	 * @throws IOException if the game cannot be written.
+	 */
+	public synchronized void write(GameRecord record) throws IOException {
+		int size = GameArchive.GAME_HEADER_SIZE + record.getMoveCount();
+		if(buffer.remaining() < size)
+			flush(buffer, channel);
+		if(indexBuffer.remaining() < Long.BYTES)
+			flush(indexBuffer, indexChannel);
+		indexBuffer.putLong(position);
+		gameCount++;
+		position += size;
+
+		buffer.put((byte) record.getMoveCount());
+		buffer.put((byte) record.getBlackStones());
+		buffer.put((byte) record.getWhiteStones());
+		for (int ply = 0; ply < record.getMoveCount(); ply++)
+			buffer.put((byte) record.getMove(ply));
+	}
+
+	/**
+	 * Appends a batch of games to the archive.
+	 *
+	 * @param batch the games
+	 * @throws UncheckedIOException if the games cannot be written.
+	 */
+	@Override
+	public synchronized void accept(List<GameRecord> batch) {
+		try {
+			for (GameRecord record : batch)
+				write(record);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @return the number of games written so far
+	 */
+	public synchronized long getGameCount() {
+		return gameCount;
+	}
+
+	/**
+	 * Appends the index to the games, writes the header and closes the file. The temporary index file is deleted.
+	 *
+	 * @throws IOException if the file cannot be written.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		try (FileChannel index = indexChannel; FileChannel archive = channel) {
+			flush(buffer, archive);
+			flush(indexBuffer, index);
+			long indexOffset = position;
+			long indexSize = gameCount * Long.BYTES;
+			archive.position(indexOffset);
+			for (long copied = 0; copied < indexSize; )
+				copied += index.transferTo(copied, indexSize - copied, archive);
+
+			ByteBuffer header = ByteBuffer.allocate(GameArchive.HEADER_SIZE);
+			header.putInt(GameArchive.MAGIC).putInt(GameArchive.VERSION).putLong(gameCount).putLong(indexOffset).putLong(0);
+			header.flip();
+			archive.write(header, 0);
+		}
+	}
+
+	private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+}
@@ -0,0 +1,93 @@
+package stacs.arcade.reversi.record;
+
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.ReversiModel;
+
+import java.util.Arrays;
+
+/**
+ * The record of a played game: the square index of every move in order and the final stone counts.
+ * Passes are not recorded, because the model lets the player with moves move again.
+ *
+ * @author 190023753
+ */
+public final class GameRecord {
+
+	private final byte[] moves;
+	private final int blackStones;
+	private final int whiteStones;
+
+	/**
+	 * Creates a record from the first moveCount entries of a move buffer.
+	 *
+	 * @param moves       the square index of every move, in order
+	 * @param moveCount   the number of moves
+	 * @param blackStones the number of black stones at the end
+	 * @param whiteStones the number of white stones at the end
+	 */
+	public GameRecord(byte[] moves, int moveCount, int blackStones, int whiteStones) {
+		this.moves = Arrays.copyOf(moves, moveCount);
+		this.blackStones = blackStones;
+		this.whiteStones = whiteStones;
+	}
+
+	/**
+	 * Records the moves made so far on a model.
+	 *
+	 * @param model the model holding the game, played from the start
+	 * @return the record of the game
+	 * @throws IllegalArgumentException if the model was set up from a Position, so that the first moves are not known.
+	 */
+	public static GameRecord of(ReversiModel model) {
+		if(model.getFirstRecordedMove() != 0)
+			throw new IllegalArgumentException("The model was set up from a position after move "
+					+ model.getFirstRecordedMove() + ", so the moves of its game are not known");
+		byte[] moves = new byte[model.getTotalMoves()];
+		for (int ply = 0; ply < moves.length; ply++)
+			moves[ply] = (byte) model.getMoveAt(ply);
+		return new GameRecord(moves, moves.length, model.getNoBlackStones(), model.getNoWhiteStones());
+	}
+
+	/**
+	 * @return the number of moves in the game
+	 */
+	public int getMoveCount() {
+		return moves.length;
+	}
+
+	/**
+	 * @param ply the number of the move, from 0
+	 * @return the square index of the move
+	 */
+	public int getMove(int ply) {
+		return moves[ply];
+	}
+
+	/**
+	 * @return the number of black stones at the end of the game
+	 */
+	public int getBlackStones() {
+		return blackStones;
+	}
+
+	/**
+	 * @return the number of white stones at the end of the game
+	 */
+	public int getWhiteStones() {
+		return whiteStones;
+	}
+
+	/**
+	 * Replays the game on a new model.
+	 *
+	 * @return the model holding the final position
+	 * @throws IllegalMoveException if the record does not hold a legal game.
+	 */
+	public ReversiModel replay() throws IllegalMoveException {
+		ReversiModel model = new ReversiModel();
+		for (byte move : moves)
+			model.makeMove(model.nextToMove(), Bitboard.x(move), Bitboard.y(move));
+		return model;
+	}
+}
@@ -0,0 +1,138 @@
+package stacs.arcade.reversi.record;
+
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.Position;
+import stacs.arcade.reversi.ReversiModel;
+
+/**
+ * Jumps to any move of a recorded game without replaying it from the start. The game is replayed once when the
+ * replay is created, keeping a checkpoint of the position every interval moves; a position is then found by
+ * setting up the nearest earlier checkpoint and replaying at most interval - 1 moves. Positions found are kept
+ * in a PositionCache, which can be shared by the replays of many games and finds the positions of a game
+ * viewed through any replay of it.
+ * A replay may be used by several threads at once.
+ *
+ * @author 190023753
+ */
+public final class GameReplay {
+
+	public static final int DEFAULT_INTERVAL = 8;
+
+	private final GameRecord record;
+	private final int interval;
+	private final Position[] checkpoints;
+	private final PositionCache cache;
+	private final long game;
+
+	/**
+	 * Replays a game once to set up its checkpoints.
+	 *
+	 * @param record   the game
+	 * @param interval the number of moves between checkpoints, at least 1
+	 * @param cache    the cache of viewed positions, null to keep none
+	 * @throws IllegalMoveException if the record does not hold a legal game.
+	 */
+	public GameReplay(GameRecord record, int interval, PositionCache cache) throws IllegalMoveException {
+		if(interval < 1)
+			throw new IllegalArgumentException("Checkpoints must be at least one move apart: " + interval);
+		this.record = record;
+		this.interval = interval;
+		this.cache = cache;
+		this.game = cache == null ? -1 : PositionCache.gameKey(record);
+		checkpoints = new Position[record.getMoveCount() / interval + 1];
+		ReversiModel model = new ReversiModel();
+		for (int ply = 0; ply <= record.getMoveCount(); ply++) {
+			if(ply % interval == 0)
+				checkpoints[ply / interval] = Position.of(model);
+			if(ply < record.getMoveCount()){
+				int move = record.getMove(ply);
+				model.makeMove(model.nextToMove(), Bitboard.x(move), Bitboard.y(move));
+			}
+		}
+	}
+
+	/**
+	 * Replays a game once to set up a checkpoint every DEFAULT_INTERVAL moves.
+	 *
+	 * @param record the game
+	 * @param cache  the cache of viewed positions, null to keep none
+	 * @throws IllegalMoveException if the record does not hold a legal game.
+	 */
+	public GameReplay(GameRecord record, PositionCache cache) throws IllegalMoveException {
+		this(record, DEFAULT_INTERVAL, cache);
+	}
+
+	/**
+	 * Returns the position after the given number of moves.
+	 *
+	 * @param ply the number of moves, from 0 for the empty board to getMoveCount() for the final position
+	 * @return the position
+	 * @throws IllegalArgumentException if the game has no such move.
+	 */
+	public Position positionAt(int ply) {
+		if(ply < 0 || ply > record.getMoveCount())
+			throw new IllegalArgumentException("The game has no move " + ply + ", it has " + record.getMoveCount() + " moves");
+		if(ply % interval == 0)
+			return checkpoints[ply / interval];
+		Position position = cache == null ? null : cache.get(game, ply);
+		if(position == null){
+			position = replayTo(ply);
+			if(cache != null)
+				cache.put(game, ply, position);
+		}
+		return position;
+	}
+
+	/**
+	 * Sets up a new model holding the position after the given number of moves, for example to analyse it.
+	 *
+	 * @param ply the number of moves, from 0 to getMoveCount()
+	 * @return the model, on which only later moves can be taken back
+	 * @throws IllegalArgumentException if the game has no such move.
+	 */
+	public ReversiModel modelAt(int ply) {
+		return new ReversiModel(positionAt(ply));
+	}
+
+	/**
+	 * @return the number of moves in the game
+	 */
+	public int getMoveCount() {
+		return record.getMoveCount();
+	}
+
+	/**
+	 * @return the number of moves between checkpoints
+	 */
+	public int getInterval() {
+		return interval;
+	}
+
+	/**
+	 * @return the game
+	 */
+	public GameRecord getRecord() {
+		return record;
+	}
+
+	/**
+	 * Sets up the nearest checkpoint before a move and replays the moves from there.
+	 * @param ply the number of moves
+	 * @return the position after them
+	 * @throws IllegalStateException if a move is illegal, which the replay in the constructor rules out.
+	 */
+	private Position replayTo(int ply) {
+		int start = ply / interval * interval;
+		ReversiModel model = new ReversiModel(checkpoints[ply / interval]);
+		try {
+			for (int i = start; i < ply; i++) {
+				int move = record.getMove(i);
+				model.makeMove(model.nextToMove(), Bitboard.x(move), Bitboard.y(move));
+			}
+		} catch (IllegalMoveException e) {
+			throw new IllegalStateException("The record no longer matches its checkpoints", e);
+		}
+		return Position.of(model);
+	}
+}
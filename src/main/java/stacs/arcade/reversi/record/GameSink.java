@@ -0,0 +1,19 @@
+package stacs.arcade.reversi.record;
+
+import java.util.List;
+
+/**
+ * Receives finished games in batches, such as those of a self-play run.
+ * The worker threads hand over their batches directly, so a sink must be safe to call from several threads.
+ *
+ * @author 190023753
+ */
+public interface GameSink {
+
+	/**
+	 * Receives a batch of finished games. The list must not be kept after the call returns.
+	 *
+	 * @param batch the games
+	 */
+	void accept(List<GameRecord> batch);
+}
@@ -0,0 +1,209 @@
+package stacs.arcade.reversi.record;
+
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.Position;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of recently viewed positions of replayed games, shared by all GameReplay instances and threads.
+ * Positions are keyed by a 64-bit hash of the moves of their game and the number of moves made, so every replay
+ * of the same game, in any session, finds the positions viewed through the others.
+ * Its size is bounded by an estimate of the memory its entries take, and the least recently used positions
+ * are dropped first. The cache is split into segments with a lock and an LRU order each, so that viewers of
+ * different games rarely wait for each other; the order is therefore least recently used per segment.
+ *
+ * @author 190023753
+ */
+public final class PositionCache {
+
+	/*
+	 * An estimate of the heap taken by one entry with compressed references: the map entry (40 bytes), the boxed
+	 * key (16), the position (32) and the entry's share of the hash table, which holds 1.3 to 2.7 slots of 4 bytes
+	 * per entry at the load factor of 0.75, rounded up. The bound on the memory is approximate, as the layout of
+	 * objects depends on the JVM.
+	 */
+	static final int ENTRY_BYTES = 112;
+
+	private static final int SEGMENTS = 16;
+	private static final int PLIES = Bitboard.SQUARES + 1;
+
+	private final long maxBytes;
+	private final Segment[] segments = new Segment[SEGMENTS];
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * Creates an empty cache.
+	 *
+	 * @param maxBytes the memory the entries may take, by the estimate of ENTRY_BYTES per entry
+	 * @throws IllegalArgumentException if the memory is not enough for one entry per segment.
+	 */
+	public PositionCache(long maxBytes) {
+		if(maxBytes < (long) ENTRY_BYTES * SEGMENTS)
+			throw new IllegalArgumentException("A cache needs at least " + ENTRY_BYTES * SEGMENTS + " bytes: " + maxBytes);
+		this.maxBytes = maxBytes;
+		int capacity = (int) Math.min(Integer.MAX_VALUE, maxBytes / ENTRY_BYTES / SEGMENTS);
+		for (int i = 0; i < SEGMENTS; i++)
+			segments[i] = new Segment(capacity);
+	}
+
+	/**
+	 * Hashes the moves of a game, so that records of the same game share their cached positions.
+	 * @param record the game
+	 * @return a number telling the positions of one game apart from those of every other game in the cache
+	 */
+	static long gameKey(GameRecord record) {
+		long hash = 0xCBF29CE484222325L;
+		for (int ply = 0; ply < record.getMoveCount(); ply++)
+			hash = (hash ^ record.getMove(ply)) * 0x100000001B3L;
+		hash ^= hash >>> 33;
+		hash *= 0xFF51AFD7ED558CCDL;
+		return hash ^ hash >>> 33;
+	}
+
+	/**
+	 * @param game the key of a game, from gameKey
+	 * @param ply the number of moves made
+	 * @return the cached position, null if it is not cached
+	 */
+	Position get(long game, int ply) {
+		long key = game * PLIES + ply;
+		Segment segment = segment(key);
+		Position position;
+		synchronized (segment) {
+			position = segment.get(key);
+		}
+		(position == null ? misses : hits).increment();
+		return position;
+	}
+
+	/**
+	 * @param game the key of a game, from gameKey
+	 * @param ply the number of moves made
+	 * @param position the position after that many moves
+	 */
+	void put(long game, int ply, Position position) {
+		long key = game * PLIES + ply;
+		Segment segment = segment(key);
+		synchronized (segment) {
+			segment.put(key, position);
+		}
+	}
+
+	/**
+	 * @return the number of cached positions
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @return the estimated memory taken by the cached positions
+	 */
+	public long getEstimatedBytes() {
+		return (long) size() * ENTRY_BYTES;
+	}
+
+	/**
+	 * @return the memory the entries may take
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * @return the number of lookups that found their position
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of lookups that did not find their position
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Removes all positions.
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	/**
+	 * @param key the key of a position
+	 * @return the segment holding it
+	 */
+	private Segment segment(long key) {
+		long mixed = key * 0x9E3779B97F4A7C15L;
+		return segments[(int) (mixed >>> 60)];
+	}
+
+	/**
+	 * One part of the cache: a map in access order that drops its eldest entry when it grows beyond its capacity.
+	 */
+	private static final class Segment {
+
+		private final Map<Long, Position> positions = new LinkedHashMap<>(16, 0.75f, true);
+		private final int capacity;
+
+		/**
+		 * @param capacity the maximum number of entries
+		 */
+		Segment(int capacity) {
+			this.capacity = capacity;
+		}
+
+		/**
+		 * @param key the key of a position
+		 * @return the position, null if it is not in the segment
+		 */
+		Position get(long key) {
+			return positions.get(key);
+		}
+
+		/**
+		 * Adds a position, dropping the least recently used one if the segment is full.
+		 * @param key the key of the position
+		 * @param position the position
+		 */
+		void put(long key, Position position) {
+			positions.put(key, position);
+			if(positions.size() > capacity){
+				Iterator<Long> eldest = positions.keySet().iterator();
+				eldest.next();
+				eldest.remove();
+			}
+		}
+
+		/**
+		 * @return the number of positions in the segment
+		 */
+		int size() {
+			return positions.size();
+		}
+
+		/**
+		 * Removes all positions.
+		 */
+		void clear() {
+			positions.clear();
+		}
+	}
+}
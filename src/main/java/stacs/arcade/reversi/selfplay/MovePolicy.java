@@ -0,0 +1,22 @@
+package stacs.arcade.reversi.selfplay;
+
+import stacs.arcade.reversi.ReversiModel;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the moves of a self-play game. Each worker thread gets its own policy instance.
+ *
+ * @author 190023753
+ */
+public interface MovePolicy {
+
+	/**
+	 * Chooses a move for the player to move.
+	 *
+	 * @param model  the position, with at least one legal move; it must be left as it was
+	 * @param random the random number generator of the worker thread
+	 * @return the square index of a legal move
+	 */
+	int chooseMove(ReversiModel model, SplittableRandom random);
+}
@@ -0,0 +1,21 @@
+package stacs.arcade.reversi.selfplay;
+
+import stacs.arcade.reversi.ReversiModel;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays a uniformly random legal move, without allocating.
+ *
+ * @author 190023753
+ */
+public class RandomPolicy implements MovePolicy {
+
+	@Override
+	public int chooseMove(ReversiModel model, SplittableRandom random) {
+		long moves = model.legalMoves(model.nextToMove());
+		for (int skip = random.nextInt(Long.bitCount(moves)); skip > 0; skip--)
+			moves &= moves - 1;
+		return Long.numberOfTrailingZeros(moves);
+	}
+}
@@ -0,0 +1,43 @@
+package stacs.arcade.reversi.selfplay;
+
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.ai.AlphaBetaSearch;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays the move of a fixed-depth alpha-beta search, or a random move with a given probability
+ * so that games played from the same start do not all repeat.
+ *
+ * @author 190023753
+ */
+public class SearchPolicy implements MovePolicy {
+
+	/* The search is limited by depth only; this budget is just far enough away never to be reached. */
+	private static final long NO_TIME_LIMIT_MILLIS = 24L * 60 * 60 * 1000;
+
+	private final AlphaBetaSearch search;
+	private final int depth;
+	private final double randomMoveRate;
+	private final RandomPolicy randomPolicy = new RandomPolicy();
+
+	/**
+	 * Creates a search policy.
+	 *
+	 * @param search         the search of this worker thread
+	 * @param depth          the search depth in moves
+	 * @param randomMoveRate the probability, 0-1, of playing a random move instead
+	 */
+	public SearchPolicy(AlphaBetaSearch search, int depth, double randomMoveRate) {
+		this.search = search;
+		this.depth = depth;
+		this.randomMoveRate = randomMoveRate;
+	}
+
+	@Override
+	public int chooseMove(ReversiModel model, SplittableRandom random) {
+		if(random.nextDouble() < randomMoveRate)
+			return randomPolicy.chooseMove(model, random);
+		return search.search(model, depth, NO_TIME_LIMIT_MILLIS).getBestMove();
+	}
+}
@@ -0,0 +1,162 @@
+package stacs.arcade.reversi.selfplay;
+
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.record.GameRecord;
+import stacs.arcade.reversi.record.GameSink;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+/**
+ * Plays many games against itself on several threads and streams the finished games to a sink in batches.
+ * Each worker has its own model, policy and random number generator and plays a fixed share of the games,
+ * so the workers share no mutable state and the games played depend only on the seed.
+ * The threads come from a ThreadFactory, so on Java 21 and later virtual threads can be used by passing
+ * Thread.ofVirtual().factory().
+ *
+ * @author 190023753
+ */
+public class SelfPlaySimulator {
+
+	private final int threads;
+	private final ThreadFactory threadFactory;
+	private final Supplier<MovePolicy> policies;
+	private final long seed;
+	private final int batchSize;
+
+	/**
+	 * Creates a simulator.
+	 *
+	 * @param threads       the number of worker threads
+	 * @param threadFactory creates the worker threads
+	 * @param policies      creates the move policy of each worker
+	 * @param seed          the seed the random number generators of the workers are split from
+	 * @param batchSize     the number of games handed to the sink at a time
+	 */
+	public SelfPlaySimulator(int threads, ThreadFactory threadFactory, Supplier<MovePolicy> policies, long seed, int batchSize) {
+		if(threads < 1 || batchSize < 1)
+			throw new IllegalArgumentException("Threads and batch size must be at least 1");
+		this.threads = threads;
+		this.threadFactory = threadFactory;
+		this.policies = policies;
+		this.seed = seed;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Creates a simulator using one platform thread per available processor.
+	 *
+	 * @param policies  creates the move policy of each worker
+	 * @param seed      the seed the random number generators of the workers are split from
+	 * @param batchSize the number of games handed to the sink at a time
+	 */
+	public SelfPlaySimulator(Supplier<MovePolicy> policies, long seed, int batchSize) {
+		this(Runtime.getRuntime().availableProcessors(), runnable -> {
+			Thread thread = new Thread(runnable, "reversi-self-play");
+			thread.setDaemon(true);
+			return thread;
+		}, policies, seed, batchSize);
+	}
+
+	/**
+	 * Plays the given number of games and waits until all of them have been handed to the sink.
+	 *
+	 * @param games the number of games to play
+	 * @param sink  receives the finished games
+	 * @return the totals of the run
+	 * @throws InterruptedException if interrupted while waiting for the workers.
+	 */
+	public SelfPlayStats run(long games, GameSink sink) throws InterruptedException {
+		long start = System.nanoTime();
+		SplittableRandom master = new SplittableRandom(seed);
+		Worker[] workers = new Worker[threads];
+		Thread[] workerThreads = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			long share = games / threads + (i < games % threads ? 1 : 0);
+			workers[i] = new Worker(share, policies.get(), master.split(), sink);
+			workerThreads[i] = threadFactory.newThread(workers[i]);
+			workerThreads[i].start();
+		}
+
+		long moves = 0;
+		for (int i = 0; i < threads; i++) {
+			workerThreads[i].join();
+			if(workers[i].failure != null)
+				throw new IllegalStateException("A self-play worker failed", workers[i].failure);
+			moves += workers[i].moves;
+		}
+		return new SelfPlayStats(games, moves, System.nanoTime() - start);
+	}
+
+	/**
+	 * Plays one game from the empty board with the given policy.
+	 *
+	 * @param policy the policy choosing the moves of both players
+	 * @param random the random number generator of the policy
+	 * @param model  a model holding the empty board, which is left holding the final position
+	 * @param moves  a buffer of at least Bitboard.SQUARES entries that receives the moves
+	 * @return the number of moves played
+	 */
+	static int playGame(MovePolicy policy, SplittableRandom random, ReversiModel model, byte[] moves) {
+		int count = 0;
+		try {
+			while (!model.isGameOver()) {
+				int square = policy.chooseMove(model, random);
+				model.makeMove(model.nextToMove(), Bitboard.x(square), Bitboard.y(square));
+				moves[count++] = (byte) square;
+			}
+		} catch (IllegalMoveException e) {
+			throw new IllegalStateException("The move policy chose an illegal move", e);
+		}
+		return count;
+	}
+
+	/**
+	 * Plays the share of one thread, collecting the games into batches of its own.
+	 */
+	private final class Worker implements Runnable {
+
+		private final long games;
+		private final MovePolicy policy;
+		private final SplittableRandom random;
+		private final GameSink sink;
+		private long moves;
+		private Throwable failure;
+
+		Worker(long games, MovePolicy policy, SplittableRandom random, GameSink sink) {
+			this.games = games;
+			this.policy = policy;
+			this.random = random;
+			this.sink = sink;
+		}
+
+		@Override
+		public void run() {
+			try {
+				byte[] buffer = new byte[Bitboard.SQUARES];
+				List<GameRecord> batch = new ArrayList<>(batchSize);
+				ReversiModel model = new ReversiModel();
+				for (long game = 0; game < games; game++) {
+					int count = playGame(policy, random, model, buffer);
+					moves += count;
+					batch.add(new GameRecord(buffer, count, model.getNoBlackStones(), model.getNoWhiteStones()));
+					for (int i = 0; i < count; i++)
+						model.unmakeMove();
+					if(batch.size() == batchSize){
+						sink.accept(batch);
+						batch.clear();
+					}
+				}
+				if(!batch.isEmpty())
+					sink.accept(batch);
+			} catch (RuntimeException | Error e) {
+				failure = e;
+			}
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package stacs.arcade.reversi.selfplay;
+
+/**
+ * The totals of a self-play run.
+ *
+ * @author 190023753
+ */
+public class SelfPlayStats {
+
+	private final long games;
+	private final long moves;
+	private final long elapsedNanos;
+
+	/**
+	 * Creates the totals of a run.
+	 *
+	 * @param games        the number of games played
+	 * @param moves        the number of moves played in all games
+	 * @param elapsedNanos the wall-clock time of the run
+	 */
+	public SelfPlayStats(long games, long moves, long elapsedNanos) {
+		this.games = games;
+		this.moves = moves;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return the number of games played
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * @return the number of moves played in all games
+	 */
+	public long getMoves() {
+		return moves;
+	}
+
+	/**
+	 * @return the wall-clock time of the run, in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return the number of games finished per second of wall-clock time
+	 */
+	public double getGamesPerSecond() {
+		return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "SelfPlayStats[games=" + games + " moves=" + moves + " games/sec=" + Math.round(getGamesPerSecond()) + "]";
+	}
+}
@@ -0,0 +1,107 @@
+package stacs.arcade.reversi.server;
+
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.Position;
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.metrics.LatencyHistogram;
+import stacs.arcade.reversi.metrics.MoveMetrics;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One game hosted by a SessionManager. The model is only touched by the command loop of the session:
+ * moves are queued from any thread and applied one at a time, in order, by a task on the executor of the manager,
+ * so no caller needs to synchronise on the model. The loop runs only while commands are waiting, so an idle
+ * session holds no thread. The position can be read at any time from the snapshot the model publishes.
+ *
+ * @author 190023753
+ */
+public class GameSession {
+
+	private final long id;
+	private final ReversiModel model = new ReversiModel();
+	private final Executor executor;
+	private final LatencyHistogram moveLatency;
+	private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pending = new AtomicInteger();
+
+	/**
+	 * Creates a session holding the empty board.
+	 *
+	 * @param id          the id of the session
+	 * @param executor    runs the command loop
+	 * @param moveLatency receives the time from queueing to applying every move
+	 * @param moveMetrics receives the moves made on the model of the session
+	 */
+	GameSession(long id, Executor executor, LatencyHistogram moveLatency, MoveMetrics moveMetrics) {
+		this.id = id;
+		this.executor = executor;
+		this.moveLatency = moveLatency;
+		model.setPublishing(true);
+		model.setMetrics(moveMetrics);
+	}
+
+	/**
+	 * @return the id of the session
+	 */
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the current position without waiting for queued moves. May be called from any thread.
+	 *
+	 * @return the last published position
+	 */
+	public Position getPosition() {
+		return model.getSnapshot();
+	}
+
+	/**
+	 * Queues a move. It is validated and applied by makeMove after all moves queued before it.
+	 *
+	 * @param player the colour of the player making the move
+	 * @param x      the x position of the field
+	 * @param y      the y position of the field
+	 * @return completes with the position after the move, or exceptionally with the IllegalMoveException
+	 * if the move was not legal at its turn
+	 */
+	public CompletableFuture<Position> move(ReversiModel.PlayerColour player, int x, int y) {
+		long queued = System.nanoTime();
+		CompletableFuture<Position> result = new CompletableFuture<>();
+		submit(() -> {
+			try {
+				model.makeMove(player, x, y);
+				moveLatency.record(System.nanoTime() - queued);
+				result.complete(model.getSnapshot());
+			} catch (IllegalMoveException | RuntimeException e) {
+				result.completeExceptionally(e);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Queues a command and starts the command loop if it is not running.
+	 * @param command the command
+	 */
+	private void submit(Runnable command) {
+		commands.add(command);
+		if(pending.getAndIncrement() == 0)
+			executor.execute(this::runCommands);
+	}
+
+	/**
+	 * The command loop: runs queued commands until none are left. Only one loop runs at a time,
+	 * as it is started by the command that finds the queue empty and stops when it has emptied it.
+	 */
+	private void runCommands() {
+		do {
+			commands.poll().run();
+		} while (pending.decrementAndGet() != 0);
+	}
+}
@@ -0,0 +1,103 @@
+package stacs.arcade.reversi.server;
+
+import stacs.arcade.reversi.metrics.LatencyHistogram;
+import stacs.arcade.reversi.metrics.MoveMetrics;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts many games at once. Every session has its own model and command loop, and the loops of all sessions
+ * share one executor, by default one virtual thread per loop. The time from queueing a move to applying it
+ * is recorded for all sessions in one histogram, and the models of all sessions record their moves in one
+ * MoveMetrics.
+ *
+ * @author 190023753
+ */
+public class SessionManager implements Closeable {
+
+	private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+	private final AtomicLong nextId = new AtomicLong(1);
+	private final ExecutorService executor;
+	private final LatencyHistogram moveLatency = new LatencyHistogram();
+	private final MoveMetrics moveMetrics = new MoveMetrics();
+
+	/**
+	 * Creates a manager whose command loops run on the given executor, which is shut down with the manager.
+	 *
+	 * @param executor runs the command loops; they never block, so a small pool is enough
+	 */
+	public SessionManager(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Creates a manager whose command loops run on virtual threads, or on one platform thread per
+	 * available processor if the runtime has no virtual threads.
+	 */
+	public SessionManager() {
+		this(VirtualThreads.executor("reversi-session"));
+	}
+
+	/**
+	 * Starts a new game on the empty board.
+	 *
+	 * @return the session of the game
+	 */
+	public GameSession create() {
+		GameSession session = new GameSession(nextId.getAndIncrement(), executor, moveLatency, moveMetrics);
+		sessions.put(session.getId(), session);
+		return session;
+	}
+
+	/**
+	 * @param id the id of a session
+	 * @return the session, null if there is none with that id
+	 */
+	public GameSession get(long id) {
+		return sessions.get(id);
+	}
+
+	/**
+	 * Ends a game. Moves already queued are still applied.
+	 *
+	 * @param id the id of the session
+	 * @return true if the session existed
+	 */
+	public boolean remove(long id) {
+		return sessions.remove(id) != null;
+	}
+
+	/**
+	 * @return the number of games hosted
+	 */
+	public int size() {
+		return sessions.size();
+	}
+
+	/**
+	 * @return the latencies of all moves applied so far
+	 */
+	public LatencyHistogram getMoveLatency() {
+		return moveLatency;
+	}
+
+	/**
+	 * @return the results, captures and times of the moves of all sessions, as applied by their models
+	 */
+	public MoveMetrics getMoveMetrics() {
+		return moveMetrics;
+	}
+
+	/**
+	 * Ends all games and shuts the executor down.
+	 */
+	@Override
+	public void close() {
+		sessions.clear();
+		executor.shutdown();
+	}
+}
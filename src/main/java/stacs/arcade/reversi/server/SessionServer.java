@@ -0,0 +1,196 @@
+package stacs.arcade.reversi.server;
+
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.Position;
+import stacs.arcade.reversi.ReversiModel;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves the games of a SessionManager over a line-based protocol on a loopback socket.
+ * Every connection is handled by a thread of its own, a virtual thread where the runtime has them.
+ * Without virtual threads at most DEFAULT_MAX_CONNECTIONS connections, or the number given to the constructor,
+ * are served at once by platform threads; a connection beyond that is answered with ERR Server busy and closed.
+ * Failures of the server itself are logged through java.util.logging.
+ * Requests and replies are single lines of text:
+ * <pre>
+ * NEW                     OK &lt;id&gt;
+ * MOVE &lt;id&gt; X|O &lt;field&gt;  OK &lt;position&gt;   the field as in d3, the player as in the position notation
+ * STATE &lt;id&gt;              OK &lt;position&gt;
+ * CLOSE &lt;id&gt;              OK
+ * </pre>
+ * Positions are sent in the text notation of Position. A request that fails is answered with ERR and a message.
+ *
+ * @author 190023753
+ */
+public class SessionServer implements Closeable {
+
+	public static final int DEFAULT_MAX_CONNECTIONS = 256;
+
+	private static final Logger LOGGER = Logger.getLogger(SessionServer.class.getName());
+
+	private final SessionManager sessions;
+	private final ServerSocket serverSocket;
+	private final ExecutorService connections;
+
+	/**
+	 * Opens the server socket on the loopback address and starts accepting connections.
+	 *
+	 * @param sessions the games to serve
+	 * @param port     the port, 0 for any free port
+	 * @throws IOException if the socket cannot be opened.
+	 */
+	public SessionServer(SessionManager sessions, int port) throws IOException {
+		this(sessions, port, DEFAULT_MAX_CONNECTIONS);
+	}
+
+	/**
+	 * Opens the server socket on the loopback address and starts accepting connections.
+	 *
+	 * @param sessions       the games to serve
+	 * @param port           the port, 0 for any free port
+	 * @param maxConnections the number of connections served at once if the runtime has no virtual threads
+	 * @throws IOException if the socket cannot be opened.
+	 */
+	public SessionServer(SessionManager sessions, int port, int maxConnections) throws IOException {
+		this.sessions = sessions;
+		this.serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+		this.connections = VirtualThreads.boundedExecutor("reversi-connection", maxConnections);
+		Thread acceptor = new Thread(this::acceptConnections, "reversi-acceptor");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	/**
+	 * @return the port the server listens on
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Stops accepting connections. Open connections end when their client closes them.
+	 */
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+		connections.shutdown();
+	}
+
+	/**
+	 * Answers one request line.
+	 *
+	 * @param request the request
+	 * @return the reply
+	 */
+	String handle(String request) {
+		String[] words = request.trim().split("\\s+");
+		try {
+			switch (words[0]) {
+				case "NEW":
+					return "OK " + sessions.create().getId();
+				case "MOVE":
+					if(words.length != 4 || words[3].length() != 2)
+						return "ERR Usage: MOVE <id> X|O <field>";
+					ReversiModel.PlayerColour player = "X".equals(words[2]) ? ReversiModel.PlayerColour.BLACK
+							: "O".equals(words[2]) ? ReversiModel.PlayerColour.WHITE : null;
+					if(player == null)
+						return "ERR Unknown player " + words[2];
+					Position position = session(words[1]).move(player, words[3].charAt(0) - 'a', words[3].charAt(1) - '1').get();
+					return "OK " + position;
+				case "STATE":
+					return "OK " + session(words[1]).getPosition();
+				case "CLOSE":
+					if(!sessions.remove(Long.parseLong(words[1])))
+						return "ERR No game " + words[1];
+					return "OK";
+				default:
+					return "ERR Unknown request " + words[0];
+			}
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof IllegalMoveException)
+				return "ERR " + e.getCause().getMessage();
+			return "ERR " + e.getCause();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return "ERR Interrupted";
+		} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			return "ERR Malformed request: " + request;
+		} catch (IllegalArgumentException e) {
+			return "ERR " + e.getMessage();
+		}
+	}
+
+	/**
+	 * @param id the id of a session as text
+	 * @return the session
+	 * @throws IllegalArgumentException if there is no such session.
+	 */
+	private GameSession session(String id) {
+		GameSession session = sessions.get(Long.parseLong(id));
+		if(session == null)
+			throw new IllegalArgumentException("No game " + id);
+		return session;
+	}
+
+	/**
+	 * Accepts connections until the server socket is closed.
+	 */
+	private void acceptConnections() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				try {
+					connections.execute(() -> serve(socket));
+				} catch (RejectedExecutionException e) {
+					refuse(socket);
+				}
+			} catch (IOException e) {
+				if(!serverSocket.isClosed())
+					LOGGER.log(Level.WARNING, "Accepting a connection failed", e);
+			}
+		}
+	}
+
+	/**
+	 * Tells a client that no thread is free to serve it and closes the connection.
+	 * @param socket the connection
+	 */
+	private static void refuse(Socket socket) {
+		try (socket; PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+			out.println("ERR Server busy");
+		} catch (IOException e) {
+			LOGGER.log(Level.FINE, "Refusing a connection failed", e);
+		}
+	}
+
+	/**
+	 * Answers the requests of one connection until the client closes it.
+	 * @param socket the connection
+	 */
+	private void serve(Socket socket) {
+		try (socket;
+			 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+			socket.setTcpNoDelay(true);
+			String request;
+			while ((request = in.readLine()) != null)
+				out.println(handle(request));
+		} catch (IOException e) {
+			// the client went away; its games stay until they are closed
+		}
+	}
+}
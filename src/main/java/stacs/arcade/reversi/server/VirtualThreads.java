@@ -0,0 +1,97 @@
+package stacs.arcade.reversi.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides virtual threads where the runtime has them (Java 21 and later) and platform threads otherwise.
+ * The library is compiled for Java 11, so the virtual thread API is looked up by reflection.
+ *
+ * @author 190023753
+ */
+public final class VirtualThreads {
+
+	private static final ThreadFactory VIRTUAL_FACTORY = lookUpFactory();
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * @return true if the runtime supports virtual threads
+	 */
+	public static boolean available() {
+		return VIRTUAL_FACTORY != null;
+	}
+
+	/**
+	 * Returns a factory of virtual threads, or of daemon platform threads with the given name
+	 * if the runtime has no virtual threads.
+	 *
+	 * @param name the name of platform threads
+	 * @return the thread factory
+	 */
+	public static ThreadFactory factory(String name) {
+		if(VIRTUAL_FACTORY != null)
+			return VIRTUAL_FACTORY;
+		return runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * Returns an executor for short tasks that never block: one virtual thread per task, or a pool of
+	 * one daemon platform thread per available processor if the runtime has no virtual threads.
+	 *
+	 * @param name the name of platform threads
+	 * @return the executor
+	 */
+	public static ExecutorService executor(String name) {
+		if(VIRTUAL_FACTORY != null){
+			try {
+				return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+						.invoke(null, VIRTUAL_FACTORY);
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalStateException("Virtual threads without a thread-per-task executor", e);
+			}
+		}
+		return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), factory(name));
+	}
+
+	/**
+	 * Returns an executor for tasks that may block for a long time, such as serving a connection: one virtual
+	 * thread per task, or at most maxPlatformThreads daemon platform threads if the runtime has no virtual threads.
+	 * Without virtual threads a task submitted while all platform threads are busy is rejected with a
+	 * RejectedExecutionException rather than queued, as it could wait for a long time behind the running tasks.
+	 * Idle platform threads end after a minute.
+	 *
+	 * @param name               the name of platform threads
+	 * @param maxPlatformThreads the largest number of platform threads
+	 * @return the executor
+	 */
+	public static ExecutorService boundedExecutor(String name, int maxPlatformThreads) {
+		if(VIRTUAL_FACTORY != null)
+			return executor(name);
+		return new ThreadPoolExecutor(0, maxPlatformThreads, 1, TimeUnit.MINUTES, new SynchronousQueue<>(), factory(name));
+	}
+
+	/**
+	 * Calls Thread.ofVirtual().factory() if the runtime has it.
+	 * @return the factory of virtual threads, null if there are none
+	 */
+	private static ThreadFactory lookUpFactory() {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+			return (ThreadFactory) factory.invoke(builder);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,151 @@
+package stacs.arcade.reversi.variant;
+
+import stacs.arcade.reversi.Bitboard;
+
+/**
+ * A board of up to 8x8 fields with one long per bitset. The 8 directions are shifts of the whole bitset,
+ * masked so that pieces do not wrap from one edge to the other, as in Bitboard; the 8x8 board uses Bitboard itself.
+ *
+ * @author 190023753
+ */
+final class LongBoard extends VariantBoard {
+
+	private final long full;
+	private final long centre;
+	private final int[] shifts;
+	private final long[] masks;
+	private final long[] pieces = new long[2];
+	private final long[] moves = new long[2];
+
+	/**
+	 * @param size the number of fields along each side, at most 8
+	 */
+	LongBoard(int size) {
+		super(size);
+		int squares = size * size;
+		full = squares == Long.SIZE ? -1L : (1L << squares) - 1;
+		long firstColumn = 0;
+		for (int y = 0; y < size; y++)
+			firstColumn |= 1L << (y * size);
+		long notFirstColumn = full & ~firstColumn;
+		long notLastColumn = full & ~(firstColumn << (size - 1));
+		shifts = new int[]{-size - 1, -size, -size + 1, -1, 1, size - 1, size, size + 1};
+		masks = new long[]{notLastColumn, full, notFirstColumn, notLastColumn,
+				notFirstColumn, notLastColumn, full, notFirstColumn};
+		long centreFields = 0;
+		for (int square : centre(size))
+			centreFields |= 1L << square;
+		centre = centreFields;
+	}
+
+	@Override
+	int getAt(int square) {
+		long field = 1L << square;
+		if((pieces[BLACK] & field) != 0)
+			return BLACK;
+		return (pieces[WHITE] & field) != 0 ? WHITE : -1;
+	}
+
+	@Override
+	int count(int player) {
+		return Long.bitCount(pieces[player]);
+	}
+
+	@Override
+	void place(int player, int square) {
+		pieces[player] |= 1L << square;
+	}
+
+	@Override
+	int capture(int player, int square) {
+		long flips = flips(pieces[player], pieces[1 - player], square);
+		if(flips == 0)
+			return 0;
+		pieces[player] |= flips | 1L << square;
+		pieces[1 - player] &= ~flips;
+		return Long.bitCount(flips);
+	}
+
+	@Override
+	void updateMoves(boolean opening) {
+		if(opening){
+			moves[BLACK] = centre & ~(pieces[BLACK] | pieces[WHITE]);
+			moves[WHITE] = moves[BLACK];
+		}else {
+			moves[BLACK] = legalMoves(pieces[BLACK], pieces[WHITE]);
+			moves[WHITE] = legalMoves(pieces[WHITE], pieces[BLACK]);
+		}
+	}
+
+	@Override
+	boolean isLegal(int player, int square) {
+		return (moves[player] & 1L << square) != 0;
+	}
+
+	@Override
+	boolean hasMoves(int player) {
+		return moves[player] != 0;
+	}
+
+	@Override
+	int moves(int player, int[] buffer) {
+		return Bitboard.squares(moves[player], buffer);
+	}
+
+	/**
+	 * Shifts every piece of the mask one step in the given direction, dropping pieces that leave the board.
+	 * @param bits the mask to shift
+	 * @param direction the direction index, 0-7
+	 * @return the shifted mask
+	 */
+	private long shift(long bits, int direction) {
+		int amount = shifts[direction];
+		if(amount > 0)
+			return (bits << amount) & masks[direction];
+		return (bits >>> -amount) & masks[direction];
+	}
+
+	/**
+	 * Computes the pieces of the opponent captured by placing a piece on the given square.
+	 * @param own the pieces of the player
+	 * @param opponent the pieces of the opponent
+	 * @param square the square index of an empty field
+	 * @return the mask of the captured pieces, 0 if the move captures nothing
+	 */
+	private long flips(long own, long opponent, int square) {
+		if(size == Bitboard.SIZE)
+			return Bitboard.flips(own, opponent, square);
+		long flips = 0;
+		for (int direction = 0; direction < shifts.length; direction++) {
+			long line = 0;
+			long next = shift(1L << square, direction);
+			while ((next & opponent) != 0) {
+				line |= next;
+				next = shift(next, direction);
+			}
+			if((next & own) != 0)
+				flips |= line;
+		}
+		return flips;
+	}
+
+	/**
+	 * Computes the fields where a piece would capture, by growing runs of opponent pieces from the own pieces.
+	 * @param own the pieces of the player
+	 * @param opponent the pieces of the opponent
+	 * @return the mask of the legal moves
+	 */
+	private long legalMoves(long own, long opponent) {
+		if(size == Bitboard.SIZE)
+			return Bitboard.legalMoves(own, opponent);
+		long empty = full & ~(own | opponent);
+		long legal = 0;
+		for (int direction = 0; direction < shifts.length; direction++) {
+			long run = shift(own, direction) & opponent;
+			for (int i = 3; i < size; i++)
+				run |= shift(run, direction) & opponent;
+			legal |= shift(run, direction) & empty;
+		}
+		return legal;
+	}
+}
@@ -0,0 +1,95 @@
+package stacs.arcade.reversi.variant;
+
+/**
+ * The pieces and legal moves of a square board of any even size, held as bitsets.
+ * The field (x,y) is bit y * size + x, and players are 0 for BLACK and 1 for WHITE.
+ * Boards up to 8x8 fit in one long per bitset; larger boards use an array of longs.
+ *
+ * @author 190023753
+ */
+abstract class VariantBoard {
+
+	static final int BLACK = 0;
+	static final int WHITE = 1;
+
+	final int size;
+
+	/**
+	 * @param size the number of fields along each side
+	 */
+	VariantBoard(int size) {
+		this.size = size;
+	}
+
+	/**
+	 * Creates the representation fitting the size: a long per bitset up to 8x8, an array of longs above.
+	 * @param size the number of fields along each side
+	 * @return an empty board
+	 */
+	static VariantBoard create(int size) {
+		return size * size <= Long.SIZE ? new LongBoard(size) : new WideBoard(size);
+	}
+
+	/**
+	 * @param square the square index
+	 * @return the player owning the field, -1 if it is empty
+	 */
+	abstract int getAt(int square);
+
+	/**
+	 * @param player the player
+	 * @return the number of pieces of the player
+	 */
+	abstract int count(int player);
+
+	/**
+	 * Places a piece without capturing, as in the opening.
+	 * @param player the player
+	 * @param square the square index of an empty field
+	 */
+	abstract void place(int player, int square);
+
+	/**
+	 * Places a piece and captures the pieces it encloses, if there are any.
+	 * @param player the player
+	 * @param square the square index of an empty field
+	 * @return the number of captured pieces; if 0, the board is unchanged
+	 */
+	abstract int capture(int player, int square);
+
+	/**
+	 * Recomputes the legal moves of both players.
+	 * @param opening true during the initial moves, when the legal moves are the empty centre fields
+	 */
+	abstract void updateMoves(boolean opening);
+
+	/**
+	 * @param player the player
+	 * @param square the square index
+	 * @return true if the field is a legal move of the player, as of the last updateMoves
+	 */
+	abstract boolean isLegal(int player, int square);
+
+	/**
+	 * @param player the player
+	 * @return true if the player has a legal move, as of the last updateMoves
+	 */
+	abstract boolean hasMoves(int player);
+
+	/**
+	 * Writes the square index of every legal move of the player into the buffer.
+	 * @param player the player
+	 * @param buffer an array of at least size * size entries
+	 * @return the number of moves written
+	 */
+	abstract int moves(int player, int[] buffer);
+
+	/**
+	 * @param size the number of fields along each side
+	 * @return the square indices of the four centre fields
+	 */
+	static int[] centre(int size) {
+		int low = size / 2 - 1, high = size / 2;
+		return new int[]{low * size + low, low * size + high, high * size + low, high * size + high};
+	}
+}
@@ -0,0 +1,221 @@
+package stacs.arcade.reversi.variant;
+
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.MoveResult;
+import stacs.arcade.reversi.ReversiModel.PlayerColour;
+
+/**
+ * A Reversi game on a square board of any even size from 4x4 to 16x16, following the rules of ReversiModel:
+ * the first four moves fill the four centre fields, every later move must capture, and a player without a legal
+ * move passes automatically. The board is held as bitsets, one long each up to 8x8 and an array of longs above,
+ * so no size walks the board field by field.
+ * <p>
+ * The search, the archives, the opening book and the other tools of this library work on the 8x8 ReversiModel;
+ * this model is for playing the variants. It keeps no move history, so moves cannot be taken back.
+ *
+ * @author 190023753
+ */
+public class VariantModel {
+
+	public static final int MIN_SIZE = 4;
+	public static final int MAX_SIZE = 16;
+
+	private static final int CONSTRAINED_MOVES = 4;
+	private static final String ILLEGAL_MOVE_MESSAGE = "This is an illegal move - ";
+
+	private final int size;
+	private final VariantBoard board;
+	private PlayerColour currentPlayerToMove = PlayerColour.BLACK;
+	private int totalMoves;
+
+	/**
+	 * Creates a game on an empty board of the given size.
+	 *
+	 * @param size the number of fields along each side, an even number from MIN_SIZE to MAX_SIZE
+	 * @throws IllegalArgumentException if the size is not supported.
+	 */
+	public VariantModel(int size) {
+		if(size < MIN_SIZE || size > MAX_SIZE || size % 2 != 0)
+			throw new IllegalArgumentException("Board size must be even and from " + MIN_SIZE + " to " + MAX_SIZE + ": " + size);
+		this.size = size;
+		this.board = VariantBoard.create(size);
+		board.updateMoves(true);
+	}
+
+	/**
+	 * @return the number of fields along each side of the board
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the colour of the piece at the given position, null if no piece is on this field.
+	 *
+	 * @param x the x position of the field
+	 * @param y the y position of the field
+	 * @return the PlayerColour instance at (x,y) or null
+	 */
+	public PlayerColour getAt(int x, int y) {
+		if(!isWithinBoundaries(x, y))
+			return null;
+		return colour(board.getAt(y * size + x));
+	}
+
+	/**
+	 * Returns the player who is to move next.
+	 *
+	 * @return a PlayerColour object
+	 */
+	public PlayerColour nextToMove() {
+		return currentPlayerToMove;
+	}
+
+	/**
+	 * Writes the square index, y * size + x, of every legal field of the given player into the buffer.
+	 * Turn order is not taken into account.
+	 *
+	 * @param player the colour of the player
+	 * @param buffer an array of at least size * size entries that receives the square indices
+	 * @return the number of legal fields written to the buffer
+	 */
+	public int legalMoves(PlayerColour player, int[] buffer) {
+		return board.moves(index(player), buffer);
+	}
+
+	/**
+	 * Checks, without throwing and without changing the board, whether the player to move may place a piece
+	 * on the given field.
+	 *
+	 * @param x the x position of the field
+	 * @param y the y position of the field
+	 * @return true if makeMove would accept the move for nextToMove(), false otherwise
+	 */
+	public boolean isLegal(int x, int y) {
+		return isWithinBoundaries(x, y) && board.isLegal(index(currentPlayerToMove), y * size + x);
+	}
+
+	/**
+	 * Returns whether the game is over, which is the case when neither player has a legal move.
+	 *
+	 * @return true if the game is over, false otherwise
+	 */
+	public boolean isGameOver() {
+		return !board.hasMoves(VariantBoard.BLACK) && !board.hasMoves(VariantBoard.WHITE);
+	}
+
+	/**
+	 * Returns the winner of a finished game, the player with more stones on the board.
+	 *
+	 * @return the colour of the winner, null if the game is a draw
+	 * @throws IllegalStateException if the game is not over yet.
+	 */
+	public PlayerColour winner() {
+		if(!isGameOver())
+			throw new IllegalStateException("The game is not over yet");
+		int black = getNoBlackStones(), white = getNoWhiteStones();
+		if(black == white)
+			return null;
+		return black > white ? PlayerColour.BLACK : PlayerColour.WHITE;
+	}
+
+	/**
+	 * Make a move by placing a piece of the given colour on the given field.
+	 *
+	 * @param player the PlayerColour of the player to make the move
+	 * @param x      the x position of the field that the player wants to place its piece
+	 * @param y      the y position of the field that the player wants to place its piece
+	 * @throws IllegalMoveException if the move is rejected, with the message of its MoveResult.
+	 */
+	public void makeMove(PlayerColour player, int x, int y) throws IllegalMoveException {
+		MoveResult result = tryMove(player, x, y);
+		if(result != MoveResult.OK)
+			throw new IllegalMoveException(ILLEGAL_MOVE_MESSAGE + result.getMessage());
+	}
+
+	/**
+	 * Makes a move like makeMove, but reports a rejected move by its result instead of throwing.
+	 *
+	 * @param player the PlayerColour of the player to make the move
+	 * @param x      the x position of the field that the player wants to place its piece
+	 * @param y      the y position of the field that the player wants to place its piece
+	 * @return OK if the move was made, otherwise the reason it was rejected
+	 */
+	public MoveResult tryMove(PlayerColour player, int x, int y) {
+		if(player != currentPlayerToMove)
+			return MoveResult.WRONG_TURN;
+		if(!isWithinBoundaries(x, y))
+			return MoveResult.OUT_OF_BOUNDS;
+		int square = y * size + x;
+		if(board.getAt(square) >= 0)
+			return MoveResult.OCCUPIED;
+
+		int mover = index(player);
+		if(totalMoves < CONSTRAINED_MOVES){
+			if(!board.isLegal(mover, square))
+				return MoveResult.OPENING_CONSTRAINT;
+			board.place(mover, square);
+		}else if(board.capture(mover, square) == 0){
+			return MoveResult.NO_CAPTURE;
+		}
+
+		totalMoves++;
+		board.updateMoves(totalMoves < CONSTRAINED_MOVES);
+		PlayerColour opponent = colour(1 - mover);
+		if(board.hasMoves(1 - mover) || !board.hasMoves(mover))
+			currentPlayerToMove = opponent;
+		return MoveResult.OK;
+	}
+
+	/**
+	 * Returns the number of moves made so far, including the four initial moves.
+	 *
+	 * @return the number of moves
+	 */
+	public int getTotalMoves() {
+		return totalMoves;
+	}
+
+	/**
+	 * Return the number of black stones currently on the board.
+	 *
+	 * @return the no black stones
+	 */
+	public int getNoBlackStones() {
+		return board.count(VariantBoard.BLACK);
+	}
+
+	/**
+	 * Return the number of white stones currently on the board.
+	 *
+	 * @return the no white stones
+	 */
+	public int getNoWhiteStones() {
+		return board.count(VariantBoard.WHITE);
+	}
+
+	/**
+	 * @param x the x position of a field
+	 * @param y the y position of a field
+	 * @return true if the field is on the board
+	 */
+	private boolean isWithinBoundaries(int x, int y) {
+		return x >= 0 && x < size && y >= 0 && y < size;
+	}
+
+	/**
+	 * @param player the colour of a player
+	 * @return the index of the player on the board
+	 */
+	private static int index(PlayerColour player) {
+		return player == PlayerColour.BLACK ? VariantBoard.BLACK : VariantBoard.WHITE;
+	}
+
+	/**
+	 * @param player the index of a player on the board, -1 for none
+	 * @return the colour of the player, null for none
+	 */
+	private static PlayerColour colour(int player) {
+		return player < 0 ? null : player == VariantBoard.BLACK ? PlayerColour.BLACK : PlayerColour.WHITE;
+	}
+}
@@ -0,0 +1,222 @@
+package stacs.arcade.reversi.variant;
+
+/**
+ * A board of more than 64 fields with an array of longs per bitset, word 0 holding the lowest fields.
+ * It works like LongBoard: the 8 directions are shifts of the whole bitset across word boundaries,
+ * masked so that pieces do not wrap from one edge to the other. All work arrays are allocated once,
+ * so moves and move generation allocate nothing.
+ *
+ * @author 190023753
+ */
+final class WideBoard extends VariantBoard {
+
+	private final int words;
+	private final long[] centre;
+	private final int[] shifts;
+	private final long[][] masks;
+	private final long[] full;
+	private final long[][] pieces;
+	private final long[][] moves;
+
+	/* Work arrays of the move generation. */
+	private final long[] line, next, run, empty, flips;
+
+	/**
+	 * @param size the number of fields along each side, at most 16 so that one shift stays below 64 bits
+	 */
+	WideBoard(int size) {
+		super(size);
+		int squares = size * size;
+		words = (squares + Long.SIZE - 1) / Long.SIZE;
+		full = new long[words];
+		long[] notFirstColumn = new long[words];
+		long[] notLastColumn = new long[words];
+		for (int square = 0; square < squares; square++) {
+			set(full, square);
+			if(square % size != 0)
+				set(notFirstColumn, square);
+			if(square % size != size - 1)
+				set(notLastColumn, square);
+		}
+		shifts = new int[]{-size - 1, -size, -size + 1, -1, 1, size - 1, size, size + 1};
+		masks = new long[][]{notLastColumn, full, notFirstColumn, notLastColumn,
+				notFirstColumn, notLastColumn, full, notFirstColumn};
+		centre = new long[words];
+		for (int square : centre(size))
+			set(centre, square);
+		pieces = new long[2][words];
+		moves = new long[2][words];
+		line = new long[words];
+		next = new long[words];
+		run = new long[words];
+		empty = new long[words];
+		flips = new long[words];
+	}
+
+	@Override
+	int getAt(int square) {
+		if(isSet(pieces[BLACK], square))
+			return BLACK;
+		return isSet(pieces[WHITE], square) ? WHITE : -1;
+	}
+
+	@Override
+	int count(int player) {
+		int count = 0;
+		for (long word : pieces[player])
+			count += Long.bitCount(word);
+		return count;
+	}
+
+	@Override
+	void place(int player, int square) {
+		set(pieces[player], square);
+	}
+
+	@Override
+	int capture(int player, int square) {
+		long[] own = pieces[player], opponent = pieces[1 - player];
+		for (int i = 0; i < words; i++)
+			flips[i] = 0;
+		for (int direction = 0; direction < shifts.length; direction++) {
+			for (int i = 0; i < words; i++) {
+				line[i] = 0;
+				next[i] = 0;
+			}
+			set(next, square);
+			shift(next, next, direction);
+			while (intersects(next, opponent)) {
+				for (int i = 0; i < words; i++)
+					line[i] |= next[i];
+				shift(next, next, direction);
+			}
+			if(intersects(next, own)){
+				for (int i = 0; i < words; i++)
+					flips[i] |= line[i];
+			}
+		}
+		int count = 0;
+		for (int i = 0; i < words; i++) {
+			own[i] |= flips[i];
+			opponent[i] &= ~flips[i];
+			count += Long.bitCount(flips[i]);
+		}
+		if(count > 0)
+			set(own, square);
+		return count;
+	}
+
+	@Override
+	void updateMoves(boolean opening) {
+		if(opening){
+			for (int i = 0; i < words; i++) {
+				moves[BLACK][i] = centre[i] & ~(pieces[BLACK][i] | pieces[WHITE][i]);
+				moves[WHITE][i] = moves[BLACK][i];
+			}
+		}else {
+			legalMoves(pieces[BLACK], pieces[WHITE], moves[BLACK]);
+			legalMoves(pieces[WHITE], pieces[BLACK], moves[WHITE]);
+		}
+	}
+
+	@Override
+	boolean isLegal(int player, int square) {
+		return isSet(moves[player], square);
+	}
+
+	@Override
+	boolean hasMoves(int player) {
+		for (long word : moves[player]) {
+			if(word != 0)
+				return true;
+		}
+		return false;
+	}
+
+	@Override
+	int moves(int player, int[] buffer) {
+		int count = 0;
+		for (int i = 0; i < words; i++) {
+			for (long word = moves[player][i]; word != 0; word &= word - 1)
+				buffer[count++] = i * Long.SIZE + Long.numberOfTrailingZeros(word);
+		}
+		return count;
+	}
+
+	/**
+	 * Computes the fields where a piece would capture, by growing runs of opponent pieces from the own pieces.
+	 * @param own the pieces of the player
+	 * @param opponent the pieces of the opponent
+	 * @param legal receives the legal moves
+	 */
+	private void legalMoves(long[] own, long[] opponent, long[] legal) {
+		for (int i = 0; i < words; i++) {
+			empty[i] = full[i] & ~(own[i] | opponent[i]);
+			legal[i] = 0;
+		}
+		for (int direction = 0; direction < shifts.length; direction++) {
+			shift(own, run, direction);
+			for (int i = 0; i < words; i++)
+				run[i] &= opponent[i];
+			for (int step = 3; step < size; step++) {
+				shift(run, next, direction);
+				for (int i = 0; i < words; i++)
+					run[i] |= next[i] & opponent[i];
+			}
+			shift(run, run, direction);
+			for (int i = 0; i < words; i++)
+				legal[i] |= run[i] & empty[i];
+		}
+	}
+
+	/**
+	 * Shifts every piece of a bitset one step in the given direction, dropping pieces that leave the board.
+	 * @param bits the bitset to shift
+	 * @param shifted receives the shifted bitset, which may be bits itself
+	 * @param direction the direction index, 0-7
+	 */
+	private void shift(long[] bits, long[] shifted, int direction) {
+		int amount = shifts[direction];
+		long[] mask = masks[direction];
+		if(amount > 0){
+			for (int i = words - 1; i > 0; i--)
+				shifted[i] = ((bits[i] << amount) | (bits[i - 1] >>> (Long.SIZE - amount))) & mask[i];
+			shifted[0] = (bits[0] << amount) & mask[0];
+		}else {
+			amount = -amount;
+			for (int i = 0; i < words - 1; i++)
+				shifted[i] = ((bits[i] >>> amount) | (bits[i + 1] << (Long.SIZE - amount))) & mask[i];
+			shifted[words - 1] = (bits[words - 1] >>> amount) & mask[words - 1];
+		}
+	}
+
+	/**
+	 * @param a a bitset
+	 * @param b a bitset
+	 * @return true if the bitsets share a field
+	 */
+	private boolean intersects(long[] a, long[] b) {
+		for (int i = 0; i < words; i++) {
+			if((a[i] & b[i]) != 0)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @param bits a bitset
+	 * @param square the square index of the field to set
+	 */
+	private static void set(long[] bits, int square) {
+		bits[square / Long.SIZE] |= 1L << square;
+	}
+
+	/**
+	 * @param bits a bitset
+	 * @param square the square index of a field
+	 * @return true if the field is set
+	 */
+	private static boolean isSet(long[] bits, int square) {
+		return (bits[square / Long.SIZE] & 1L << square) != 0;
+	}
+}
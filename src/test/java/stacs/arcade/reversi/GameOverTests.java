@@ -0,0 +1,79 @@
+package stacs.arcade.reversi;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.WHITE;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.BLACK;
+
+/**
+ * Unit tests for passing and the end of the game.
+ *
+ * @author 190023753
+ */
+public class GameOverTests {
+
+    ReversiModel model = null;
+
+    @BeforeEach
+    void setup() throws IllegalMoveException {
+        this.model = new ReversiModel();
+        this.model.makeMove(BLACK,4,3);
+        this.model.makeMove(WHITE,3,3);
+        this.model.makeMove(BLACK,3,4);
+        this.model.makeMove(WHITE,4,4);
+    }
+
+    private void play(String moves) throws IllegalMoveException {
+        for (int i = 0; i < moves.length(); i += 2) {
+            this.model.makeMove(this.model.nextToMove(),moves.charAt(i) - 'a',moves.charAt(i + 1) - '1');
+        }
+    }
+
+    @Test
+    public void newGameMustNotBeOver() {
+        assertFalse(new ReversiModel().isGameOver());
+        assertFalse(this.model.isGameOver());
+        assertThrows(IllegalStateException.class,() -> this.model.winner());
+    }
+
+    @Test
+    public void playerWithoutMovesMustPass() throws IllegalMoveException {
+        play("d3c3b3b2f5a3a1");
+        assertEquals(WHITE,this.model.nextToMove());
+
+        this.model.makeMove(WHITE,2,0);
+        assertEquals(0,this.model.legalMoves(BLACK));
+        assertEquals(WHITE,this.model.nextToMove());
+        assertFalse(this.model.isGameOver());
+        assertThrows(IllegalMoveException.class,() -> this.model.makeMove(BLACK,0,0));
+
+        this.model.unmakeMove();
+        assertEquals(WHITE,this.model.nextToMove());
+        assertNotEquals(0,this.model.legalMoves(BLACK));
+    }
+
+    @Test
+    public void wipeoutMustEndTheGame() throws IllegalMoveException {
+        play("d3c3b3d2e1d6d7e3f4");
+
+        assertTrue(this.model.isGameOver());
+        assertEquals(0,this.model.legalMoves(BLACK));
+        assertEquals(0,this.model.legalMoves(WHITE));
+        assertEquals(BLACK,this.model.winner());
+
+        this.model.unmakeMove();
+        assertFalse(this.model.isGameOver());
+    }
+
+    @Test
+    public void mobilityMustMatchARescanOfTheBoard() throws IllegalMoveException {
+        play("d3c3b3b2f5a3a1c1");
+        for (ReversiModel.PlayerColour player : ReversiModel.PlayerColour.values()) {
+            ReversiModel.PlayerColour opponent = player == BLACK ? WHITE : BLACK;
+            assertEquals(Bitboard.legalMoves(this.model.getBitboard(player),this.model.getBitboard(opponent)),
+                    this.model.legalMoves(player));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package stacs.arcade.reversi;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.WHITE;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.BLACK;
+
+/**
+ * Unit tests for the legal move generation of the Reversi model.
+ *
+ * @author 190023753
+ */
+public class LegalMovesTests {
+
+    ReversiModel model = null;
+
+    @BeforeEach
+    void setup() {
+        this.model = new ReversiModel();
+    }
+
+    private void playStandardOpening() throws IllegalMoveException {
+        this.model.makeMove(BLACK,4,3);
+        this.model.makeMove(WHITE,3,3);
+        this.model.makeMove(BLACK,3,4);
+        this.model.makeMove(WHITE,4,4);
+    }
+
+    @Test
+    public void initialMovesMustBeTheEmptyCenterFields() throws IllegalMoveException {
+        long centre = Bitboard.bit(3,3) | Bitboard.bit(3,4) | Bitboard.bit(4,3) | Bitboard.bit(4,4);
+        assertEquals(centre,this.model.legalMoves(BLACK));
+
+        this.model.makeMove(BLACK,3,3);
+        assertEquals(centre & ~Bitboard.bit(3,3),this.model.legalMoves(WHITE));
+        assertFalse(this.model.isLegal(3,3));
+        assertFalse(this.model.isLegal(1,1));
+        assertTrue(this.model.isLegal(4,4));
+    }
+
+    @Test
+    public void mustListCapturingMovesAfterOpening() throws IllegalMoveException {
+        playStandardOpening();
+
+        long expected = Bitboard.bit(3,2) | Bitboard.bit(2,3) | Bitboard.bit(5,4) | Bitboard.bit(4,5);
+        assertEquals(expected,this.model.legalMoves(BLACK));
+
+        int[] buffer = new int[Bitboard.SQUARES];
+        assertEquals(4,this.model.legalMoves(BLACK,buffer));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(this.model.isLegal(Bitboard.x(buffer[i]),Bitboard.y(buffer[i])));
+        }
+    }
+
+    @Test
+    public void isLegalMustAgreeWithMakeMove() throws IllegalMoveException {
+        playStandardOpening();
+
+        for (int x = -1; x <= 8; x++) {
+            for (int y = -1; y <= 8; y++) {
+                boolean legal = this.model.isLegal(x,y);
+                ReversiModel copy = new ReversiModel();
+                copy.makeMove(BLACK,4,3);
+                copy.makeMove(WHITE,3,3);
+                copy.makeMove(BLACK,3,4);
+                copy.makeMove(WHITE,4,4);
+                final int fx = x, fy = y;
+                if (legal)
+                    assertDoesNotThrow(() -> copy.makeMove(BLACK,fx,fy));
+                else
+                    assertThrows(IllegalMoveException.class,() -> copy.makeMove(BLACK,fx,fy));
+            }
+        }
+    }
+
+    @Test
+    public void isLegalMustNotChangeTheBoard() throws IllegalMoveException {
+        playStandardOpening();
+
+        assertTrue(this.model.isLegal(3,2));
+        assertNull(this.model.getAt(3,2));
+        assertEquals(WHITE,this.model.getAt(3,3));
+        assertEquals(BLACK,this.model.nextToMove());
+        assertEquals(2,this.model.getNoBlackStones());
+    }
+
+    @Test
+    public void flipPreviewMustMatchTheMoveAndLeaveTheBoardUnchanged() throws IllegalMoveException {
+        playStandardOpening();
+        this.model.makeMove(BLACK,5,4);
+        long black = this.model.getBitboard(BLACK);
+        long white = this.model.getBitboard(WHITE);
+        long flips = this.model.getFlips(3,5);
+
+        assertEquals(Bitboard.bit(3,4),flips);
+        assertEquals(1,this.model.getFlipCount(3,5));
+        assertEquals(flips,Position.of(this.model).getFlips(3,5));
+        assertEquals(black,this.model.getBitboard(BLACK));
+        assertEquals(white,this.model.getBitboard(WHITE));
+
+        int whiteStones = this.model.getNoWhiteStones();
+        this.model.makeMove(WHITE,3,5);
+        assertEquals(flips,this.model.getCapturesAt(this.model.getTotalMoves() - 1));
+        assertEquals(whiteStones + 2,this.model.getNoWhiteStones());
+    }
+
+    @Test
+    public void flipPreviewMustBeEmptyForIllegalMoves() throws IllegalMoveException {
+        assertEquals(0,this.model.getFlips(3,3));
+        playStandardOpening();
+        assertEquals(0,this.model.getFlips(3,3));
+        assertEquals(0,this.model.getFlips(0,0));
+        assertEquals(0,this.model.getFlips(-1,8));
+        assertEquals(0,Position.of(this.model).getFlips(0,0));
+    }
+}
@@ -0,0 +1,176 @@
+package stacs.arcade.reversi;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.WHITE;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.BLACK;
+
+/**
+ * Unit tests for position serialization.
+ *
+ * @author 190023753
+ */
+public class PositionTests {
+
+    ReversiModel model = null;
+
+    @BeforeEach
+    void setup() throws IllegalMoveException {
+        this.model = new ReversiModel();
+        this.model.makeMove(BLACK,4,3);
+        this.model.makeMove(WHITE,3,3);
+        this.model.makeMove(BLACK,3,4);
+        this.model.makeMove(WHITE,4,4);
+        this.model.makeMove(BLACK,3,2);
+    }
+
+    @Test
+    public void textMustRoundTrip() {
+        Position position = Position.of(this.model);
+        String text = position.toString();
+
+        assertEquals("----------------" + "---X----" + "---XX---" + "---XO---" + "------------------------ O",text);
+        assertEquals(position,Position.parse(text));
+    }
+
+    @Test
+    public void restoredModelMustPlayOn() throws IllegalMoveException {
+        ReversiModel restored = Position.parse(Position.of(this.model).toString()).toModel();
+
+        assertEquals(this.model.getHash(),restored.getHash());
+        assertEquals(5,restored.getTotalMoves());
+        assertEquals(WHITE,restored.nextToMove());
+        assertEquals(this.model.getNoBlackStones(),restored.getNoBlackStones());
+        assertEquals(this.model.legalMoves(WHITE),restored.legalMoves(WHITE));
+
+        restored.makeMove(WHITE,2,2);
+        restored.unmakeMove();
+        assertThrows(IllegalStateException.class,() -> restored.unmakeMove());
+    }
+
+    @Test
+    public void openingPositionMustKeepTheInitialMoveRules() throws IllegalMoveException {
+        ReversiModel opening = new ReversiModel();
+        opening.makeMove(BLACK,3,3);
+        ReversiModel restored = Position.of(opening).toModel();
+
+        assertEquals(WHITE,restored.nextToMove());
+        assertThrows(IllegalMoveException.class,() -> restored.makeMove(WHITE,2,2));
+        restored.makeMove(WHITE,4,4);
+    }
+
+    @Test
+    public void keyMustRoundTripForBothPlayers() throws IllegalMoveException {
+        ByteBuffer buffer = ByteBuffer.allocate(Position.KEY_BYTES * 2);
+        Position whiteToMove = Position.of(this.model);
+        Position.writeKey(this.model,buffer);
+        this.model.makeMove(WHITE,2,2);
+        Position blackToMove = Position.of(this.model);
+        blackToMove.writeKey(buffer);
+
+        buffer.flip();
+        assertEquals(whiteToMove,Position.readKey(buffer));
+        assertEquals(blackToMove,Position.readKey(buffer));
+    }
+
+    @Test
+    public void keysMustDifferOnlyBySideToMove() {
+        long black = this.model.getBitboard(BLACK);
+        long white = this.model.getBitboard(WHITE);
+        assertEquals(black,Position.keyBlack(black,white,BLACK));
+        assertNotEquals(Position.keyBlack(black,white,BLACK),Position.keyBlack(black,white,WHITE));
+    }
+
+    @Test
+    public void fullBoardMustHaveOneEncoding() {
+        long black = new Random(3).nextLong();
+        Position position = new Position(black,~black,WHITE);
+        ByteBuffer buffer = ByteBuffer.allocate(Position.KEY_BYTES);
+        position.writeKey(buffer);
+        buffer.flip();
+
+        assertEquals(BLACK,position.nextToMove());
+        assertEquals(position,Position.readKey(buffer));
+        assertEquals(64,position.getMoveCount());
+    }
+
+    @Test
+    public void playerWhoMustPassMustBeReplaced() throws IllegalMoveException {
+        for (String move : new String[]{"c3", "b3", "b2", "f5", "a3", "a1"})
+            this.model.makeMove(this.model.nextToMove(),move.charAt(0) - 'a',move.charAt(1) - '1');
+        // Playing (2,0) leaves BLACK without a move, so WHITE moves again.
+        this.model.makeMove(WHITE,2,0);
+        assertEquals(WHITE,this.model.nextToMove());
+
+        Position position = new Position(this.model.getBitboard(BLACK),this.model.getBitboard(WHITE),BLACK);
+        assertEquals(WHITE,position.nextToMove());
+        assertEquals(Position.of(this.model),position);
+        assertEquals(position,Position.parse(position.toString().replace(" O"," X")));
+        assertEquals(this.model.getHash(),position.toModel().getHash());
+    }
+
+    @Test
+    public void mustRejectMalformedText() {
+        assertThrows(IllegalArgumentException.class,() -> Position.parse("XO"));
+        assertThrows(IllegalArgumentException.class,() -> Position.parse(Position.of(this.model).toString().replace('O','Z')));
+        assertThrows(IllegalArgumentException.class,() -> new Position(1L,1L,BLACK));
+    }
+
+    @Test
+    public void snapshotMustFollowTheModel() throws IllegalMoveException {
+        Position before = this.model.getSnapshot();
+        this.model.setPublishing(true);
+        assertEquals(before,this.model.getSnapshot());
+
+        this.model.makeMove(WHITE,2,2);
+        Position after = this.model.getSnapshot();
+        assertEquals(Position.of(this.model),after);
+        assertEquals(WHITE,after.getAt(2,2));
+        assertNull(after.getAt(0,0));
+        assertNull(after.getAt(8,0));
+
+        this.model.unmakeMove();
+        assertEquals(before,this.model.getSnapshot());
+        assertEquals(WHITE,after.getAt(2,2));
+    }
+
+    @Test
+    public void readersMustOnlySeePublishedPositions() throws Exception {
+        this.model.setPublishing(true);
+        Set<Position> published = new HashSet<>();
+        published.add(this.model.getSnapshot());
+        List<Position> seen = new ArrayList<>();
+        CountDownLatch started = new CountDownLatch(1);
+        Thread reader = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                seen.add(this.model.getSnapshot());
+                started.countDown();
+            }
+        });
+        reader.start();
+        started.await();
+
+        Random random = new Random(5);
+        int[] moves = new int[Bitboard.SQUARES];
+        while (!this.model.isGameOver()) {
+            int count = this.model.legalMoves(this.model.nextToMove(),moves);
+            int square = moves[random.nextInt(count)];
+            this.model.makeMove(this.model.nextToMove(),Bitboard.x(square),Bitboard.y(square));
+            published.add(this.model.getSnapshot());
+        }
+        reader.interrupt();
+        reader.join();
+
+        assertTrue(published.containsAll(seen));
+    }
+}
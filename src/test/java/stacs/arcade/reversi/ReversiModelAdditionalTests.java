@@ -209,4 +209,31 @@ public class ReversiModelAdditionalTests {
         assertNotEquals(null,this.model.getAt(7,7));
         assertNotEquals(null,this.model.getAt(7,0));
     }
+
+    @Test
+    public void tryMoveMustReportEveryRejectionWithoutChangingTheBoard() {
+        assertEquals(MoveResult.OPENING_CONSTRAINT,this.model.tryMove(BLACK,0,0));
+        assertEquals(MoveResult.OK,this.model.tryMove(BLACK,4,3));
+        assertEquals(MoveResult.WRONG_TURN,this.model.tryMove(BLACK,3,3));
+        assertEquals(MoveResult.OUT_OF_BOUNDS,this.model.tryMove(WHITE,8,3));
+        assertEquals(MoveResult.OCCUPIED,this.model.tryMove(WHITE,4,3));
+        assertEquals(MoveResult.OK,this.model.tryMove(WHITE,3,3));
+        assertEquals(MoveResult.OK,this.model.tryMove(BLACK,3,4));
+        assertEquals(MoveResult.OK,this.model.tryMove(WHITE,4,4));
+
+        long black = this.model.getBitboard(BLACK);
+        assertEquals(MoveResult.OCCUPIED,this.model.tryMove(BLACK,4,4));
+        assertEquals(MoveResult.NO_CAPTURE,this.model.tryMove(BLACK,0,0));
+        assertEquals(black,this.model.getBitboard(BLACK));
+        assertEquals(4,this.model.getTotalMoves());
+        assertEquals(BLACK,this.model.nextToMove());
+    }
+
+    @Test
+    public void makeMoveMustThrowTheMessageOfTheRejection() {
+        IllegalMoveException e = assertThrows(IllegalMoveException.class,() -> this.model.makeMove(WHITE,3,3));
+        assertTrue(e.getMessage().endsWith(MoveResult.WRONG_TURN.getMessage()));
+        assertFalse(MoveResult.WRONG_TURN.isLegal());
+        assertTrue(MoveResult.OK.isLegal());
+    }
 }
@@ -0,0 +1,83 @@
+package stacs.arcade.reversi;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.WHITE;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.BLACK;
+
+/**
+ * Unit tests for the board symmetries.
+ *
+ * @author 190023753
+ */
+public class SymmetryTests {
+
+    private int expectedSquare(int symmetry, int square) {
+        int x = Bitboard.x(square), y = Bitboard.y(square);
+        if ((symmetry & Symmetry.TRANSPOSE) != 0) {
+            int t = x;
+            x = y;
+            y = t;
+        }
+        if ((symmetry & Symmetry.FLIP_VERTICAL) != 0)
+            y = 7 - y;
+        if ((symmetry & Symmetry.MIRROR_HORIZONTAL) != 0)
+            x = 7 - x;
+        return Bitboard.square(x,y);
+    }
+
+    @Test
+    public void transformsMustMoveEverySquare() {
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            for (int square = 0; square < Bitboard.SQUARES; square++) {
+                assertEquals(expectedSquare(symmetry,square),Symmetry.transformSquare(symmetry,square));
+                assertEquals(1L << expectedSquare(symmetry,square),Symmetry.transform(symmetry,1L << square));
+            }
+        }
+    }
+
+    @Test
+    public void inverseMustUndoTheTransform() {
+        long board = new Random(5).nextLong();
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            assertEquals(board,Symmetry.transform(Symmetry.inverse(symmetry),Symmetry.transform(symmetry,board)));
+            for (int square = 0; square < Bitboard.SQUARES; square++)
+                assertEquals(square,Symmetry.transformSquare(Symmetry.inverse(symmetry),Symmetry.transformSquare(symmetry,square)));
+        }
+    }
+
+    @Test
+    public void symmetricOpeningsMustShareOneCanonicalForm() throws IllegalMoveException {
+        Set<Position> canonical = new HashSet<>();
+        int[][] firstMoves = {{3,2},{2,3},{5,4},{4,5}};
+        for (int[] move : firstMoves) {
+            ReversiModel model = new ReversiModel();
+            model.makeMove(BLACK,4,3);
+            model.makeMove(WHITE,3,3);
+            model.makeMove(BLACK,3,4);
+            model.makeMove(WHITE,4,4);
+            model.makeMove(BLACK,move[0],move[1]);
+            canonical.add(Symmetry.canonical(Position.of(model)));
+        }
+        assertEquals(1,canonical.size());
+    }
+
+    @Test
+    public void canonicalFormMustNotDependOnTheOrientation() {
+        Random random = new Random(11);
+        for (int i = 0; i < 100; i++) {
+            long black = random.nextLong() & random.nextLong();
+            long white = random.nextLong() & ~black;
+            Position expected = Symmetry.canonical(new Position(black,white,WHITE));
+            for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+                Position variant = new Position(Symmetry.transform(symmetry,black),Symmetry.transform(symmetry,white),WHITE);
+                assertEquals(expected,Symmetry.canonical(variant));
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package stacs.arcade.reversi;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.WHITE;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.BLACK;
+
+/**
+ * Unit tests for taking back moves on the Reversi model.
+ *
+ * @author 190023753
+ */
+public class UnmakeMoveTests {
+
+    ReversiModel model = null;
+
+    @BeforeEach
+    void setup() {
+        this.model = new ReversiModel();
+    }
+
+    @Test
+    public void mustRejectUnmakeOnEmptyBoard() {
+        assertThrows(IllegalStateException.class,() -> this.model.unmakeMove());
+    }
+
+    @Test
+    public void mustRestoreInitialMove() throws IllegalMoveException {
+        this.model.makeMove(BLACK,3,3);
+        this.model.unmakeMove();
+
+        assertNull(this.model.getAt(3,3));
+        assertEquals(BLACK,this.model.nextToMove());
+        assertEquals(0,this.model.getNoBlackStones());
+        assertEquals(0,this.model.getTotalMoves());
+    }
+
+    @Test
+    public void mustRestoreCapturedPieces() throws IllegalMoveException {
+        this.model.makeMove(BLACK,4,3);
+        this.model.makeMove(WHITE,3,3);
+        this.model.makeMove(BLACK,3,4);
+        this.model.makeMove(WHITE,4,4);
+
+        this.model.makeMove(BLACK,3,2);
+        this.model.makeMove(WHITE,2,2);
+        assertEquals(WHITE,this.model.getAt(3,3));
+
+        this.model.unmakeMove();
+        assertEquals(BLACK,this.model.getAt(3,3));
+        assertNull(this.model.getAt(2,2));
+        assertEquals(WHITE,this.model.nextToMove());
+        assertEquals(4,this.model.getNoBlackStones());
+        assertEquals(1,this.model.getNoWhiteStones());
+
+        this.model.unmakeMove();
+        assertEquals(WHITE,this.model.getAt(3,3));
+        assertEquals(BLACK,this.model.nextToMove());
+        assertEquals(2,this.model.getNoBlackStones());
+        assertEquals(2,this.model.getNoWhiteStones());
+    }
+
+    @Test
+    public void mustReplayTheSameMovesAfterUnmaking() throws IllegalMoveException {
+        int[][] moves = {{3,3},{3,4},{4,3},{4,4},{5,5},{3,2},{2,2},{5,4},{3,5},{6,6},{7,7}};
+        long[] black = new long[moves.length];
+        long[] white = new long[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            black[i] = this.model.getBitboard(BLACK);
+            white[i] = this.model.getBitboard(WHITE);
+            this.model.makeMove(this.model.nextToMove(),moves[i][0],moves[i][1]);
+        }
+
+        for (int i = moves.length - 1; i >= 0; i--) {
+            this.model.unmakeMove();
+            assertEquals(black[i],this.model.getBitboard(BLACK));
+            assertEquals(white[i],this.model.getBitboard(WHITE));
+            assertEquals(Long.bitCount(black[i]),this.model.getNoBlackStones());
+            assertEquals(Long.bitCount(white[i]),this.model.getNoWhiteStones());
+            assertEquals(i,this.model.getTotalMoves());
+        }
+
+        assertThrows(IllegalMoveException.class,() -> this.model.makeMove(BLACK,1,1));
+        this.model.makeMove(BLACK,3,3);
+    }
+}
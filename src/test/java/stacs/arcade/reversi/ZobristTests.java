@@ -0,0 +1,84 @@
+package stacs.arcade.reversi;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.WHITE;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.BLACK;
+
+/**
+ * Unit tests for the incremental Zobrist hash of the Reversi model.
+ *
+ * @author 190023753
+ */
+public class ZobristTests {
+
+    ReversiModel model = null;
+
+    @BeforeEach
+    void setup() {
+        this.model = new ReversiModel();
+    }
+
+    private long recomputedHash() {
+        return Zobrist.hash(this.model.getBitboard(BLACK),this.model.getBitboard(WHITE),this.model.nextToMove());
+    }
+
+    @Test
+    public void mustKeepTheHashUpToDateAfterCaptures() throws IllegalMoveException {
+        int[][] moves = {{3,3},{3,4},{4,3},{4,4},{5,5},{3,2},{2,2},{5,4},{3,5},{6,6},{7,7}};
+        assertEquals(recomputedHash(),this.model.getHash());
+        for (int[] move : moves) {
+            this.model.makeMove(this.model.nextToMove(),move[0],move[1]);
+            assertEquals(recomputedHash(),this.model.getHash());
+        }
+        for (int i = 0; i < moves.length; i++) {
+            this.model.unmakeMove();
+            assertEquals(recomputedHash(),this.model.getHash());
+        }
+        assertEquals(0,this.model.getHash());
+    }
+
+    @Test
+    public void mustHashTranspositionsEqually() throws IllegalMoveException {
+        this.model.makeMove(BLACK,3,3);
+        this.model.makeMove(WHITE,3,4);
+        this.model.makeMove(BLACK,4,4);
+        this.model.makeMove(WHITE,4,3);
+
+        ReversiModel other = new ReversiModel();
+        other.makeMove(BLACK,4,4);
+        other.makeMove(WHITE,4,3);
+        other.makeMove(BLACK,3,3);
+        other.makeMove(WHITE,3,4);
+
+        assertEquals(this.model.getHash(),other.getHash());
+    }
+
+    @Test
+    public void mustDistinguishThePlayerToMove() throws IllegalMoveException {
+        this.model.makeMove(BLACK,3,3);
+        assertNotEquals(Zobrist.hash(this.model.getBitboard(BLACK),0,BLACK),this.model.getHash());
+    }
+
+    @Test
+    public void mustKeepThePlayerToMoveInTheHashAfterAPass() throws IllegalMoveException {
+        int[][] moves = {{4,3},{3,3},{3,4},{4,4},{3,2},{2,2},{1,2},{1,1},{5,4},{0,2},{0,0}};
+        for (int[] move : moves)
+            this.model.makeMove(this.model.nextToMove(),move[0],move[1]);
+        assertEquals(WHITE,this.model.nextToMove());
+        long beforePass = this.model.getHash();
+
+        // Playing (2,0) leaves BLACK without a move, so WHITE moves again.
+        this.model.makeMove(WHITE,2,0);
+        assertEquals(0,this.model.legalMoves(BLACK));
+        assertEquals(WHITE,this.model.nextToMove());
+        assertEquals(recomputedHash(),this.model.getHash());
+        assertEquals(Zobrist.hash(this.model.getBitboard(BLACK),this.model.getBitboard(WHITE),WHITE),this.model.getHash());
+
+        this.model.unmakeMove();
+        assertEquals(WHITE,this.model.nextToMove());
+        assertEquals(beforePass,this.model.getHash());
+    }
+}
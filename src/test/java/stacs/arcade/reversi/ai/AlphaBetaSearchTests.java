@@ -0,0 +1,130 @@
+package stacs.arcade.reversi.ai;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.ReversiModel;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the alpha-beta search.
+ *
+ * @author 190023753
+ */
+public class AlphaBetaSearchTests {
+
+    ReversiModel model = null;
+    Evaluator evaluator = new SimpleEvaluator();
+
+    @BeforeEach
+    void setup() throws IllegalMoveException {
+        this.model = new ReversiModel();
+        Random random = new Random(42);
+        int[] moves = new int[Bitboard.SQUARES];
+        for (int i = 0; i < 20; i++) {
+            int count = this.model.legalMoves(this.model.nextToMove(),moves);
+            int square = moves[random.nextInt(count)];
+            this.model.makeMove(this.model.nextToMove(),Bitboard.x(square),Bitboard.y(square));
+        }
+    }
+
+    private int minimax(ReversiModel position, int depth) throws IllegalMoveException {
+        int[] moves = new int[Bitboard.SQUARES];
+        int count = position.legalMoves(position.nextToMove(),moves);
+        if (count == 0)
+            return AlphaBetaSearch.finalScore(position);
+        if (depth == 0)
+            return this.evaluator.evaluate(position);
+        int best = -AlphaBetaSearch.INFINITY;
+        for (int i = 0; i < count; i++) {
+            ReversiModel.PlayerColour player = position.nextToMove();
+            position.makeMove(player,Bitboard.x(moves[i]),Bitboard.y(moves[i]));
+            int score = minimax(position,depth - 1);
+            best = Math.max(best,position.nextToMove() == player ? score : -score);
+            position.unmakeMove();
+        }
+        return best;
+    }
+
+    @Test
+    public void mustFindTheMinimaxScore() throws IllegalMoveException {
+        for (int depth = 1; depth <= 4; depth++) {
+            SearchResult result = new AlphaBetaSearch(this.evaluator).search(this.model,depth,60_000);
+            assertEquals(depth,result.getDepth());
+            assertEquals(minimax(new ReversiModel(this.model),depth),result.getScore());
+        }
+    }
+
+    @Test
+    public void mustReturnALegalMoveAndLeaveThePositionUnchanged() {
+        long black = this.model.getBitboard(ReversiModel.PlayerColour.BLACK);
+        SearchResult result = new AlphaBetaSearch().search(this.model,5,60_000);
+
+        assertTrue(this.model.isLegal(result.getX(),result.getY()));
+        assertEquals(black,this.model.getBitboard(ReversiModel.PlayerColour.BLACK));
+        assertEquals(20,this.model.getTotalMoves());
+        assertTrue(result.getNodes() > 0);
+    }
+
+    @Test
+    public void mustAbortAtTheFirstClockCheckAfterTheDeadline() {
+        SearchResult result = new AlphaBetaSearch().search(this.model,0);
+
+        assertTrue(result.getNodes() <= AlphaBetaSearch.CHECK_INTERVAL + 1);
+        assertTrue(this.model.isLegal(result.getX(),result.getY()));
+    }
+
+    @Test
+    public void mustStopWithinTheTimeBudget() {
+        SearchResult result = new AlphaBetaSearch().search(this.model,50);
+
+        // The clock is read every few hundred nodes; the tolerance only covers the thread being descheduled.
+        assertTrue(result.getElapsedNanos() < 1_000_000_000L);
+        assertTrue(result.getDepth() < AlphaBetaSearch.MAX_DEPTH);
+        assertTrue(this.model.isLegal(result.getX(),result.getY()));
+    }
+
+    @Test
+    public void canonicalTableEntriesMustKeepTheMinimaxScore() throws IllegalMoveException {
+        ReversiModel opening = new ReversiModel();
+        opening.makeMove(ReversiModel.PlayerColour.BLACK,4,3);
+        opening.makeMove(ReversiModel.PlayerColour.WHITE,3,3);
+        opening.makeMove(ReversiModel.PlayerColour.BLACK,3,4);
+        opening.makeMove(ReversiModel.PlayerColour.WHITE,4,4);
+
+        SearchResult result = new AlphaBetaSearch(this.evaluator).search(opening,5,60_000);
+        assertEquals(minimax(new ReversiModel(opening),5),result.getScore());
+    }
+
+    @Test
+    public void mustKeepTheSignWhenTheOpponentHasToPass() throws IllegalMoveException {
+        ReversiModel position = new ReversiModel();
+        position.makeMove(ReversiModel.PlayerColour.BLACK,4,3);
+        position.makeMove(ReversiModel.PlayerColour.WHITE,3,3);
+        position.makeMove(ReversiModel.PlayerColour.BLACK,3,4);
+        position.makeMove(ReversiModel.PlayerColour.WHITE,4,4);
+        for (String move : new String[]{"d3", "c3", "b3", "b2", "f5", "a3", "a1"})
+            position.makeMove(position.nextToMove(),move.charAt(0) - 'a',move.charAt(1) - '1');
+
+        // WHITE to move: playing (2,0) leaves BLACK without a move, so WHITE moves again.
+        assertEquals(ReversiModel.PlayerColour.WHITE,position.nextToMove());
+        position.makeMove(ReversiModel.PlayerColour.WHITE,2,0);
+        assertEquals(ReversiModel.PlayerColour.WHITE,position.nextToMove());
+        position.unmakeMove();
+
+        for (int depth = 1; depth <= 5; depth++) {
+            SearchResult result = new AlphaBetaSearch(this.evaluator).search(position,depth,60_000);
+            assertEquals(minimax(new ReversiModel(position),depth),result.getScore());
+        }
+    }
+
+    @Test
+    public void mustSearchTheOpeningPhase() {
+        SearchResult result = new AlphaBetaSearch().search(new ReversiModel(),4,60_000);
+        assertTrue(new ReversiModel().isLegal(result.getX(),result.getY()));
+    }
+}
@@ -0,0 +1,86 @@
+package stacs.arcade.reversi.ai;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.Position;
+import stacs.arcade.reversi.ReversiModel;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the batch analysis.
+ *
+ * @author 190023753
+ */
+public class BatchAnalyzerTests {
+
+    Position[] positions = null;
+
+    @BeforeEach
+    void setup() throws IllegalMoveException {
+        Random random = new Random(11);
+        int[] moves = new int[Bitboard.SQUARES];
+        this.positions = new Position[3 * BatchAnalyzer.CHUNK_SIZE + 5];
+        ReversiModel model = new ReversiModel();
+        for (int i = 0; i < this.positions.length; i++) {
+            if(model.isGameOver())
+                model = new ReversiModel();
+            this.positions[i] = Position.of(model);
+            int count = model.legalMoves(model.nextToMove(),moves);
+            int square = moves[random.nextInt(count)];
+            model.makeMove(model.nextToMove(),Bitboard.x(square),Bitboard.y(square));
+        }
+    }
+
+    @Test
+    public void mustMatchTheAnalysisOfEachPosition() {
+        try (BatchAnalyzer analyzer = new BatchAnalyzer(2,SimpleEvaluator::new,3)) {
+            BatchResult result = analyzer.analyze(this.positions);
+            assertEquals(this.positions.length,result.size());
+            for (int i = 0; i < this.positions.length; i++) {
+                ReversiModel model = this.positions[i].toModel();
+                ReversiModel.PlayerColour opponent = model.nextToMove() == ReversiModel.PlayerColour.BLACK
+                        ? ReversiModel.PlayerColour.WHITE : ReversiModel.PlayerColour.BLACK;
+                assertEquals(model.legalMoves(model.nextToMove()),result.getLegalMoves()[i]);
+                assertEquals(model.getNoBlackStones(),result.getBlackDiscs()[i]);
+                assertEquals(model.getNoWhiteStones(),result.getWhiteDiscs()[i]);
+                assertEquals(Long.bitCount(model.legalMoves(model.nextToMove())),result.getMobility()[i]);
+                assertEquals(Long.bitCount(model.legalMoves(opponent)),result.getOpponentMobility()[i]);
+                SearchResult search = new AlphaBetaSearch(new SimpleEvaluator()).search(model,2,60_000);
+                assertEquals(search.getBestMove(),result.getBestMoves()[i]);
+                assertEquals(search.getScore(),result.getScores()[i]);
+            }
+        }
+    }
+
+    @Test
+    public void packedKeysMustGiveTheSameResults() {
+        ByteBuffer keys = ByteBuffer.allocate(Position.KEY_BYTES * (this.positions.length + 1));
+        keys.position(Position.KEY_BYTES);
+        for (Position position : this.positions)
+            position.writeKey(keys);
+        keys.flip().position(Position.KEY_BYTES);
+
+        try (BatchAnalyzer analyzer = new BatchAnalyzer(0)) {
+            BatchResult fromKeys = analyzer.analyze(keys);
+            BatchResult fromPositions = analyzer.analyze(this.positions);
+            assertArrayEquals(fromPositions.getLegalMoves(),fromKeys.getLegalMoves());
+            assertArrayEquals(fromPositions.getBlackDiscs(),fromKeys.getBlackDiscs());
+            assertArrayEquals(fromPositions.getOpponentMobility(),fromKeys.getOpponentMobility());
+            assertEquals(Position.KEY_BYTES,keys.position());
+            assertEquals(-1,fromKeys.getBestMoves()[0]);
+        }
+    }
+
+    @Test
+    public void mustRejectAPartialKey() {
+        try (BatchAnalyzer analyzer = new BatchAnalyzer(0)) {
+            assertThrows(IllegalArgumentException.class,() -> analyzer.analyze(ByteBuffer.allocate(Position.KEY_BYTES + 1)));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package stacs.arcade.reversi.ai;
+
+import org.junit.jupiter.api.Test;
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.Position;
+import stacs.arcade.reversi.ReversiModel;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the exact endgame solver.
+ *
+ * @author 190023753
+ */
+public class EndgameSolverTests {
+
+    EndgameSolver solver = new EndgameSolver();
+
+    private ReversiModel playRandomly(long seed, int empties) throws IllegalMoveException {
+        Random random = new Random(seed);
+        int[] moves = new int[Bitboard.SQUARES];
+        ReversiModel model = new ReversiModel();
+        while (Bitboard.SQUARES - model.getTotalMoves() > empties && !model.isGameOver()) {
+            int count = model.legalMoves(model.nextToMove(),moves);
+            int square = moves[random.nextInt(count)];
+            model.makeMove(model.nextToMove(),Bitboard.x(square),Bitboard.y(square));
+        }
+        return model;
+    }
+
+    private int minimax(ReversiModel position) throws IllegalMoveException {
+        int[] moves = new int[Bitboard.SQUARES];
+        int count = position.legalMoves(position.nextToMove(),moves);
+        if (count == 0)
+            return AlphaBetaSearch.finalScore(position) / AlphaBetaSearch.FINAL_DISC_SCORE;
+        int best = -Bitboard.SQUARES;
+        for (int i = 0; i < count; i++) {
+            ReversiModel.PlayerColour player = position.nextToMove();
+            position.makeMove(player,Bitboard.x(moves[i]),Bitboard.y(moves[i]));
+            int score = minimax(position);
+            best = Math.max(best,position.nextToMove() == player ? score : -score);
+            position.unmakeMove();
+        }
+        return best;
+    }
+
+    @Test
+    public void mustFindTheMinimaxScore() throws IllegalMoveException {
+        for (long seed = 0; seed < 10; seed++) {
+            ReversiModel model = playRandomly(seed,9);
+            assertEquals(minimax(new ReversiModel(model)),this.solver.solve(model).getScore());
+        }
+    }
+
+    @Test
+    public void bestMoveMustKeepTheScore() throws IllegalMoveException {
+        ReversiModel model = playRandomly(21,12);
+        SearchResult result = this.solver.solve(model);
+        ReversiModel.PlayerColour player = model.nextToMove();
+        model.makeMove(player,result.getX(),result.getY());
+
+        int after = this.solver.solve(model).getScore();
+        assertEquals(result.getScore(),model.nextToMove() == player ? after : -after);
+        assertEquals(12,result.getDepth());
+    }
+
+    @Test
+    public void mustSolveReferencePositions() {
+        assertEquals(10,this.solver.solve(Position.parse(
+                "--XXXXXX--XXXXXX---XOXOXOOOOXOOOOOXOOXOOOOOOOOOOOOOO-XO-OO---X-- X").toModel()).getScore());
+        assertEquals(-38,this.solver.solve(Position.parse(
+                "OX------OXXXXO--OXXXXOOOOXOOOOOOOXOOXOOOOOOOOOOOO--OOOOO----OOOO X").toModel()).getScore());
+        assertEquals(12,this.solver.solve(Position.parse(
+                "XXXXX---XXOXX---XOXXXX-OXXXXXOO-XXXOXOO-XXXOOOO----OOOOO---OOOOO X").toModel()).getScore());
+    }
+
+    @Test
+    public void finishedGameMustGiveTheEmptyFieldsToTheWinner() {
+        SearchResult result = this.solver.solve(new Position(0x00000000FFFFFFFFL,0,ReversiModel.PlayerColour.WHITE).toModel());
+        assertEquals(-1,result.getBestMove());
+        assertEquals(-64,result.getScore());
+
+        // 18 pieces against 18 is a draw, so the 28 empty fields count for nobody.
+        assertEquals(0,EndgameSolver.finalDifference(0x3FFFFL,0x3FFFFL << 32));
+        // 18 pieces against 13 wins by 5 plus the 33 empty fields.
+        assertEquals(38,EndgameSolver.finalDifference(0x3FFFFL,0x1FFFL << 32));
+        assertEquals(-38,EndgameSolver.finalDifference(0x1FFFL << 32,0x3FFFFL));
+    }
+
+    @Test
+    public void mustRejectTheInitialMoves() throws IllegalMoveException {
+        ReversiModel model = new ReversiModel();
+        model.makeMove(ReversiModel.PlayerColour.BLACK,3,3);
+        assertThrows(IllegalArgumentException.class,() -> this.solver.solve(model));
+    }
+}
@@ -0,0 +1,93 @@
+package stacs.arcade.reversi.ai;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.Position;
+import stacs.arcade.reversi.ReversiModel;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Monte Carlo tree search.
+ *
+ * @author 190023753
+ */
+public class MonteCarloSearchTests {
+
+    ReversiModel model = null;
+
+    @BeforeEach
+    void setup() throws IllegalMoveException {
+        this.model = new ReversiModel();
+        Random random = new Random(5);
+        int[] moves = new int[Bitboard.SQUARES];
+        for (int i = 0; i < 24; i++) {
+            int count = this.model.legalMoves(this.model.nextToMove(),moves);
+            int square = moves[random.nextInt(count)];
+            this.model.makeMove(this.model.nextToMove(),Bitboard.x(square),Bitboard.y(square));
+        }
+    }
+
+    @Test
+    public void mustRunTheGivenPlayoutsOnAllWorkers() {
+        try (MonteCarloSearch search = new MonteCarloSearch(4,100_000,MonteCarloSearch.DEFAULT_EXPLORATION,1)) {
+            SearchResult result = search.search(this.model,3000,60_000);
+            assertTrue(this.model.isLegal(result.getX(),result.getY()));
+            assertEquals(3000,result.getNodes());
+            assertEquals(24,this.model.getTotalMoves());
+
+            NodeArena arena = search.getArena();
+            int visits = 0;
+            for (int child = arena.getFirstChild(0); child < arena.getFirstChild(0) + arena.getChildCount(0); child++)
+                visits += arena.getVisits(child);
+            assertEquals(3000,visits);
+            assertEquals(3000,arena.getVisits(0));
+            assertEquals(Long.bitCount(this.model.legalMoves(this.model.nextToMove())),arena.getChildCount(0));
+        }
+    }
+
+    @Test
+    public void singleThreadMustBeReproducible() {
+        SearchResult first = new MonteCarloSearch(10_000,9).search(this.model,2000,60_000);
+        SearchResult second = new MonteCarloSearch(10_000,9).search(this.model,2000,60_000);
+        assertEquals(first.getBestMove(),second.getBestMove());
+        assertEquals(first.getScore(),second.getScore());
+        assertEquals(first.getDepth(),second.getDepth());
+        assertTrue(first.getScore() >= 0 && first.getScore() <= 1000);
+    }
+
+    @Test
+    public void mustKeepSearchingWhenTheArenaIsFull() {
+        MonteCarloSearch search = new MonteCarloSearch(100,3);
+        SearchResult result = search.search(this.model,1000,60_000);
+        assertTrue(this.model.isLegal(result.getX(),result.getY()));
+        assertEquals(1000,result.getNodes());
+        assertTrue(search.getArena().size() <= 100);
+    }
+
+    @Test
+    public void mustReturnNoMoveWhenTheGameIsOver() {
+        ReversiModel over = new Position(-1L,0L,ReversiModel.PlayerColour.BLACK).toModel();
+        SearchResult result = new MonteCarloSearch(1000,1).search(over,100,60_000);
+        assertEquals(-1,result.getBestMove());
+        assertEquals(0,result.getNodes());
+    }
+
+    @Test
+    public void mustRejectAnArenaTooSmallForTheRoot() {
+        assertThrows(IllegalArgumentException.class,() -> new MonteCarloSearch(Bitboard.SQUARES,1));
+    }
+
+    @Test
+    public void mustStopWithinTheTimeBudget() {
+        try (MonteCarloSearch search = new MonteCarloSearch(2,1_000_000,MonteCarloSearch.DEFAULT_EXPLORATION,1)) {
+            SearchResult result = search.search(this.model,100);
+            assertTrue(result.getElapsedNanos() < 150_000_000L);
+            assertTrue(this.model.isLegal(result.getX(),result.getY()));
+        }
+    }
+}
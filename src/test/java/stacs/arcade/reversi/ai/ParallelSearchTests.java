@@ -0,0 +1,85 @@
+package stacs.arcade.reversi.ai;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.ReversiModel;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the parallel search.
+ *
+ * @author 190023753
+ */
+public class ParallelSearchTests {
+
+    ReversiModel model = null;
+
+    @BeforeEach
+    void setup() throws IllegalMoveException {
+        this.model = new ReversiModel();
+        Random random = new Random(7);
+        int[] moves = new int[Bitboard.SQUARES];
+        for (int i = 0; i < 24; i++) {
+            int count = this.model.legalMoves(this.model.nextToMove(),moves);
+            int square = moves[random.nextInt(count)];
+            this.model.makeMove(this.model.nextToMove(),Bitboard.x(square),Bitboard.y(square));
+        }
+    }
+
+    private TranspositionTable newTable() {
+        return new TranspositionTable(16,TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+    }
+
+    @Test
+    public void mustReturnALegalMoveFromAllWorkers() {
+        try (ParallelSearch search = new ParallelSearch(4,SimpleEvaluator::new,newTable())) {
+            SearchResult result = search.search(this.model,6,60_000);
+            assertTrue(this.model.isLegal(result.getX(),result.getY()));
+            assertEquals(6,result.getDepth());
+            assertEquals(24,this.model.getTotalMoves());
+        }
+    }
+
+    @Test
+    public void singleThreadMustMatchTheSerialSearch() {
+        SearchResult serial = new AlphaBetaSearch(new SimpleEvaluator(),newTable()).search(this.model,5,60_000);
+        try (ParallelSearch search = new ParallelSearch(1,SimpleEvaluator::new,newTable())) {
+            SearchResult parallel = search.search(this.model,5,60_000);
+            assertEquals(serial.getBestMove(),parallel.getBestMove());
+            assertEquals(serial.getScore(),parallel.getScore());
+            assertEquals(serial.getNodes(),parallel.getNodes());
+        }
+    }
+
+    @Test
+    public void scoreMustMatchTheSerialSearchAtTheSameDepth() throws IllegalMoveException {
+        int[] moves = new int[Bitboard.SQUARES];
+        try (ParallelSearch search = new ParallelSearch(4,SimpleEvaluator::new,newTable())) {
+            for (int i = 0; i < 8; i++) {
+                SearchResult serial = new AlphaBetaSearch(new SimpleEvaluator(),newTable()).search(this.model,6,60_000);
+                SearchResult parallel = search.search(this.model,6,60_000);
+                assertTrue(this.model.isLegal(parallel.getX(),parallel.getY()));
+                assertEquals(6,parallel.getDepth());
+                assertEquals(serial.getBestMove(),parallel.getBestMove());
+                assertEquals(serial.getScore(),parallel.getScore());
+
+                this.model.legalMoves(this.model.nextToMove(),moves);
+                this.model.makeMove(this.model.nextToMove(),Bitboard.x(moves[0]),Bitboard.y(moves[0]));
+            }
+        }
+    }
+
+    @Test
+    public void mustStopWithinTheTimeBudget() {
+        try (ParallelSearch search = new ParallelSearch(4,SimpleEvaluator::new,newTable())) {
+            SearchResult result = search.search(this.model,100);
+            assertTrue(result.getElapsedNanos() < 150_000_000L);
+            assertTrue(this.model.isLegal(result.getX(),result.getY()));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package stacs.arcade.reversi.ai;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.Position;
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.Symmetry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the pattern evaluator and its weights.
+ *
+ * @author 190023753
+ */
+public class PatternEvaluatorTests {
+
+    ReversiModel model = null;
+    PatternEvaluator evaluator = new PatternEvaluator();
+
+    @BeforeEach
+    void setup() throws IllegalMoveException {
+        this.model = new ReversiModel();
+        Random random = new Random(7);
+        int[] moves = new int[Bitboard.SQUARES];
+        for (int i = 0; i < 24; i++) {
+            int count = this.model.legalMoves(this.model.nextToMove(),moves);
+            int square = moves[random.nextInt(count)];
+            this.model.makeMove(this.model.nextToMove(),Bitboard.x(square),Bitboard.y(square));
+        }
+    }
+
+    private void assertCodesFromScratch(PatternEvaluator incremental, ReversiModel position) {
+        PatternEvaluator scratch = new PatternEvaluator();
+        scratch.reset(position);
+        for (int pattern = 0; pattern < PatternWeights.PATTERN_SQUARES.length; pattern++)
+            assertEquals(scratch.getCode(pattern),incremental.getCode(pattern));
+    }
+
+    @Test
+    public void incrementalCodesMustMatchCodesComputedFromScratch() throws IllegalMoveException {
+        ReversiModel game = new ReversiModel();
+        this.evaluator.reset(game);
+        Random random = new Random(11);
+        int[] moves = new int[Bitboard.SQUARES];
+        while (!game.isGameOver()) {
+            int count = game.legalMoves(game.nextToMove(),moves);
+            int square = moves[random.nextInt(count)];
+            game.makeMove(game.nextToMove(),Bitboard.x(square),Bitboard.y(square));
+            this.evaluator.moveMade(game);
+            assertCodesFromScratch(this.evaluator,game);
+
+            if (random.nextInt(4) == 0) {
+                this.evaluator.moveUndone(game);
+                game.unmakeMove();
+                assertCodesFromScratch(this.evaluator,game);
+                game.makeMove(game.nextToMove(),Bitboard.x(square),Bitboard.y(square));
+                this.evaluator.moveMade(game);
+            }
+        }
+    }
+
+    @Test
+    public void symmetricPositionsMustGetTheSameScore() {
+        Position position = Position.of(this.model);
+        int score = this.evaluator.evaluate(this.model);
+        long black = position.getBitboard(ReversiModel.PlayerColour.BLACK);
+        long white = position.getBitboard(ReversiModel.PlayerColour.WHITE);
+        for (int symmetry = 0; symmetry < Symmetry.COUNT; symmetry++) {
+            ReversiModel transformed = new Position(Symmetry.transform(symmetry,black),
+                    Symmetry.transform(symmetry,white),position.nextToMove()).toModel();
+            assertEquals(score,this.evaluator.evaluate(transformed));
+        }
+    }
+
+    @Test
+    public void swappingTheColoursMustKeepTheScoreOfThePlayerToMove() {
+        Position position = Position.of(this.model);
+        ReversiModel swapped = new Position(position.getBitboard(ReversiModel.PlayerColour.WHITE),
+                position.getBitboard(ReversiModel.PlayerColour.BLACK),
+                position.nextToMove() == ReversiModel.PlayerColour.BLACK ? ReversiModel.PlayerColour.WHITE
+                        : ReversiModel.PlayerColour.BLACK).toModel();
+        assertEquals(this.evaluator.evaluate(this.model),this.evaluator.evaluate(swapped));
+    }
+
+    @Test
+    public void searchMustKeepTheCodesInStepWithTheModel() {
+        SearchResult result = new AlphaBetaSearch(this.evaluator).search(this.model,4,60_000);
+        SearchResult reference = new AlphaBetaSearch(new PatternEvaluator()).search(this.model,4,60_000);
+
+        assertEquals(reference.getScore(),result.getScore());
+        assertEquals(new PatternEvaluator().evaluate(this.model),this.evaluator.evaluate(this.model));
+    }
+
+    @Test
+    public void weightsMustSurviveAWriteAndRead() throws IOException {
+        Path file = Files.createTempFile("weights",".bin");
+        try {
+            PatternWeights.defaults().write(file);
+            PatternEvaluator read = new PatternEvaluator(PatternWeights.read(file));
+            assertEquals(this.evaluator.evaluate(this.model),read.evaluate(this.model));
+
+            Files.write(file,new byte[]{1, 2, 3, 4});
+            assertThrows(IOException.class,() -> PatternWeights.read(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package stacs.arcade.reversi.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static stacs.arcade.reversi.ai.TranspositionTable.ReplacementPolicy.ALWAYS;
+import static stacs.arcade.reversi.ai.TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED;
+
+/**
+ * Unit tests for the transposition table.
+ *
+ * @author 190023753
+ */
+public class TranspositionTableTests {
+
+    @Test
+    public void mustReturnStoredEntry() {
+        TranspositionTable table = new TranspositionTable(10,ALWAYS);
+        table.store(0x1234_5678_9ABCL,7,TranspositionTable.LOWER_BOUND,-42,63);
+
+        long entry = table.probe(0x1234_5678_9ABCL);
+        assertNotEquals(TranspositionTable.NO_ENTRY,entry);
+        assertEquals(7,TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER_BOUND,TranspositionTable.bound(entry));
+        assertEquals(-42,TranspositionTable.score(entry));
+        assertEquals(63,TranspositionTable.move(entry));
+    }
+
+    @Test
+    public void mustMissOnDifferentHashInTheSameSlot() {
+        TranspositionTable table = new TranspositionTable(10,ALWAYS);
+        table.store(5,3,TranspositionTable.EXACT,10,-1);
+
+        assertEquals(TranspositionTable.NO_ENTRY,table.probe(5 + (1 << 10)));
+        assertEquals(-1,TranspositionTable.move(table.probe(5)));
+    }
+
+    @Test
+    public void depthPreferredMustKeepTheDeeperEntry() {
+        TranspositionTable table = new TranspositionTable(10,DEPTH_PREFERRED);
+        table.store(5,8,TranspositionTable.EXACT,10,1);
+        table.store(5 + (1 << 10),2,TranspositionTable.EXACT,20,2);
+        assertEquals(10,TranspositionTable.score(table.probe(5)));
+
+        table.newSearch();
+        table.store(5 + (1 << 10),2,TranspositionTable.EXACT,20,2);
+        assertEquals(20,TranspositionTable.score(table.probe(5 + (1 << 10))));
+    }
+
+    @Test
+    public void alwaysMustReplace() {
+        TranspositionTable table = new TranspositionTable(10,ALWAYS);
+        table.store(5,8,TranspositionTable.EXACT,10,1);
+        table.store(5 + (1 << 10),2,TranspositionTable.EXACT,20,2);
+
+        assertEquals(TranspositionTable.NO_ENTRY,table.probe(5));
+        assertEquals(20,TranspositionTable.score(table.probe(5 + (1 << 10))));
+    }
+}
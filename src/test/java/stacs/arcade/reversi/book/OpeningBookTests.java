@@ -0,0 +1,155 @@
+package stacs.arcade.reversi.book;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.ai.AlphaBetaSearch;
+import stacs.arcade.reversi.ai.SearchResult;
+import stacs.arcade.reversi.ai.SimpleEvaluator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.WHITE;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.BLACK;
+
+/**
+ * Unit tests for the opening book.
+ *
+ * @author 190023753
+ */
+public class OpeningBookTests {
+
+    @TempDir
+    static Path directory;
+
+    static Path bookFile;
+    static int bookSize;
+
+    @BeforeAll
+    static void buildBook() throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(new AlphaBetaSearch(),3);
+        builder.addTree(2);
+        bookFile = directory.resolve("book.bin");
+        builder.write(bookFile);
+        bookSize = builder.size();
+    }
+
+    private ReversiModel standardOpening() throws IllegalMoveException {
+        ReversiModel model = new ReversiModel();
+        model.makeMove(BLACK,4,3);
+        model.makeMove(WHITE,3,3);
+        model.makeMove(BLACK,3,4);
+        model.makeMove(WHITE,4,4);
+        return model;
+    }
+
+    /** A plain minimax without pruning or tables, independent of the search the book was built with. */
+    private int minimax(ReversiModel position, int depth) throws IllegalMoveException {
+        int[] moves = new int[Bitboard.SQUARES];
+        int count = position.legalMoves(position.nextToMove(),moves);
+        if (count == 0) {
+            int difference = position.getNoBlackStones() - position.getNoWhiteStones();
+            difference += Integer.signum(difference) * (Bitboard.SQUARES - position.getTotalMoves());
+            return (position.nextToMove() == BLACK ? difference : -difference) * 1000;
+        }
+        if (depth == 0)
+            return new SimpleEvaluator().evaluate(position);
+        int best = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            ReversiModel.PlayerColour player = position.nextToMove();
+            position.makeMove(player,Bitboard.x(moves[i]),Bitboard.y(moves[i]));
+            int score = minimax(position,depth - 1);
+            best = Math.max(best,position.nextToMove() == player ? score : -score);
+            position.unmakeMove();
+        }
+        return best;
+    }
+
+    @Test
+    public void mustFindEveryBookPositionWithALegalMove() throws IOException, IllegalMoveException {
+        try (OpeningBook book = new OpeningBook(bookFile)) {
+            assertEquals(bookSize,book.size());
+            ReversiModel model = standardOpening();
+            int[] moves = new int[Bitboard.SQUARES];
+            int count = model.legalMoves(model.nextToMove(),moves);
+            for (int i = 0; i < count; i++) {
+                model.makeMove(model.nextToMove(),Bitboard.x(moves[i]),Bitboard.y(moves[i]));
+                SearchResult result = book.lookup(model);
+                assertNotNull(result);
+                assertEquals(3,result.getDepth());
+                assertTrue(model.isLegal(result.getX(),result.getY()));
+                model.unmakeMove();
+            }
+        }
+    }
+
+    @Test
+    public void bookScoresMustMatchAnIndependentSearch() throws IOException, IllegalMoveException {
+        try (OpeningBook book = new OpeningBook(bookFile)) {
+            ReversiModel model = standardOpening();
+            int[] moves = new int[Bitboard.SQUARES];
+            int[] replies = new int[Bitboard.SQUARES];
+            int count = model.legalMoves(model.nextToMove(),moves);
+            for (int i = 0; i < count; i++) {
+                model.makeMove(model.nextToMove(),Bitboard.x(moves[i]),Bitboard.y(moves[i]));
+                int replyCount = model.legalMoves(model.nextToMove(),replies);
+                for (int j = 0; j < replyCount; j++) {
+                    model.makeMove(model.nextToMove(),Bitboard.x(replies[j]),Bitboard.y(replies[j]));
+                    assertEquals(minimax(model,3),book.lookup(model).getScore());
+                    model.unmakeMove();
+                }
+                model.unmakeMove();
+            }
+        }
+    }
+
+    @Test
+    public void symmetricPositionsMustGetSymmetricMoves() throws IOException, IllegalMoveException {
+        try (OpeningBook book = new OpeningBook(bookFile)) {
+            ReversiModel first = standardOpening();
+            first.makeMove(BLACK,3,2);
+            ReversiModel second = standardOpening();
+            second.makeMove(BLACK,4,5);
+
+            SearchResult firstResult = book.lookup(first);
+            SearchResult secondResult = book.lookup(second);
+            assertEquals(firstResult.getScore(),secondResult.getScore());
+            assertEquals(7 - firstResult.getX(),secondResult.getX());
+            assertEquals(7 - firstResult.getY(),secondResult.getY());
+        }
+    }
+
+    @Test
+    public void mustMissOutsideTheBook() throws IOException, IllegalMoveException {
+        try (OpeningBook book = new OpeningBook(bookFile)) {
+            ReversiModel model = new ReversiModel();
+            model.makeMove(BLACK,3,3);
+            assertNull(book.lookup(model));
+
+            model = standardOpening();
+            for (String move : new String[]{"d3","c3","b3","b2"})
+                model.makeMove(model.nextToMove(),move.charAt(0) - 'a',move.charAt(1) - '1');
+            assertNull(book.lookup(model));
+            SearchResult result = book.search(model,new AlphaBetaSearch(),100);
+            assertTrue(model.isLegal(result.getX(),result.getY()));
+        }
+    }
+
+    @Test
+    public void mustRejectOtherFiles() throws IOException {
+        Path file = directory.resolve("other.bin");
+        Files.write(file,new byte[32]);
+        assertThrows(IOException.class,() -> new OpeningBook(file));
+
+        Path newerBook = directory.resolve("newer.bin");
+        Files.write(newerBook,ByteBuffer.allocate(32).putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION + 1).array());
+        assertThrows(IOException.class,() -> new OpeningBook(newerBook));
+    }
+}
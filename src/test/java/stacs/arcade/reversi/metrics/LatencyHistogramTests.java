@@ -0,0 +1,52 @@
+package stacs.arcade.reversi.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the latency histogram.
+ *
+ * @author 190023753
+ */
+public class LatencyHistogramTests {
+
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void bucketsMustCoverEveryValueInOrder() {
+        long previous = -1;
+        for (int bucket = 0; bucket < 200; bucket++) {
+            long upper = LatencyHistogram.upperBound(bucket);
+            assertEquals(bucket,LatencyHistogram.bucket(previous + 1));
+            assertEquals(bucket,LatencyHistogram.bucket(upper));
+            assertTrue(upper > previous);
+            previous = upper;
+        }
+    }
+
+    @Test
+    public void percentilesMustBeWithinTheBucketError() {
+        for (long value = 1; value <= 100_000; value++)
+            this.histogram.record(value * 1000);
+
+        assertEquals(100_000,this.histogram.getCount());
+        assertEquals(100_000_000L,this.histogram.getMax());
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            double exact = percentile * 1000 * 1000;
+            long reported = this.histogram.getPercentile(percentile);
+            assertTrue(reported >= exact && reported <= exact * 1.125);
+        }
+        assertEquals(50_000_500.0,this.histogram.getMean(),1e-6);
+    }
+
+    @Test
+    public void emptyAndResetHistogramsMustReportZero() {
+        assertEquals(0,this.histogram.getPercentile(99));
+        this.histogram.record(12345);
+        this.histogram.reset();
+        assertEquals(0,this.histogram.getCount());
+        assertEquals(0,this.histogram.getPercentile(50));
+        assertThrows(IllegalArgumentException.class,() -> this.histogram.getPercentile(101));
+    }
+}
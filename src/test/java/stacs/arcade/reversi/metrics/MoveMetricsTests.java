@@ -0,0 +1,104 @@
+package stacs.arcade.reversi.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.MoveResult;
+import stacs.arcade.reversi.ReversiModel;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the move metrics of the model.
+ *
+ * @author 190023753
+ */
+public class MoveMetricsTests {
+
+    ReversiModel model = null;
+    MoveMetrics metrics = null;
+
+    @BeforeEach
+    void setup() throws IllegalMoveException {
+        this.metrics = new MoveMetrics();
+        this.model = new ReversiModel();
+        this.model.setMetrics(this.metrics);
+        this.model.makeMove(ReversiModel.PlayerColour.BLACK,3,3);
+        this.model.makeMove(ReversiModel.PlayerColour.WHITE,3,4);
+        this.model.makeMove(ReversiModel.PlayerColour.BLACK,4,4);
+        this.model.makeMove(ReversiModel.PlayerColour.WHITE,4,3);
+    }
+
+    @Test
+    public void mustCountAppliedAndRejectedMoves() throws IllegalMoveException {
+        assertEquals(MoveResult.OCCUPIED,this.model.tryMove(ReversiModel.PlayerColour.BLACK,3,3));
+        assertEquals(MoveResult.WRONG_TURN,this.model.tryMove(ReversiModel.PlayerColour.WHITE,2,2));
+        assertThrows(IllegalMoveException.class,() -> this.model.makeMove(ReversiModel.PlayerColour.BLACK,0,0));
+        this.model.makeMove(ReversiModel.PlayerColour.BLACK,5,3);
+
+        assertEquals(5,this.metrics.getMovesApplied());
+        assertEquals(3,this.metrics.getMovesRejected());
+        assertEquals(1,this.metrics.getRejections(MoveResult.OCCUPIED));
+        assertEquals(1,this.metrics.getRejections(MoveResult.NO_CAPTURE));
+        assertEquals(1,this.metrics.getRejectionsByReason().get("WRONG_TURN"));
+        assertEquals(1,this.metrics.getPiecesFlipped());
+        assertEquals(4,this.metrics.getMovesCapturing(0));
+        assertEquals(1,this.metrics.getMovesCapturing(1));
+        assertEquals(8,this.metrics.getMoveLatency().getCount());
+
+        this.metrics.reset();
+        assertEquals(0,this.metrics.getMovesApplied());
+        assertEquals(0,this.metrics.getMoveLatency().getCount());
+    }
+
+    @Test
+    public void copiesAndDetachedModelsMustNotRecord() throws IllegalMoveException {
+        ReversiModel copy = new ReversiModel(this.model);
+        copy.makeMove(ReversiModel.PlayerColour.BLACK,5,3);
+        assertNull(copy.getMetrics());
+        this.model.setMetrics(null);
+        this.model.makeMove(ReversiModel.PlayerColour.BLACK,5,3);
+        assertEquals(4,this.metrics.getMovesApplied());
+    }
+
+    @Test
+    public void mustExportToASinkAndOverJmx() throws Exception {
+        Map<String, Long> counters = new HashMap<>();
+        Map<String, LatencyHistogram> histograms = new HashMap<>();
+        this.metrics.exportTo(new MetricsSink() {
+            @Override
+            public void counter(String name, long value) {
+                counters.put(name,value);
+            }
+
+            @Override
+            public void histogram(String name, LatencyHistogram histogram) {
+                histograms.put(name,histogram);
+            }
+        });
+        assertEquals(4L,counters.get("moves.applied"));
+        assertEquals(0L,counters.get("moves.rejected.no_capture"));
+        assertEquals(4L,counters.get("moves.captured.0"));
+        assertFalse(counters.containsKey("moves.captured.1"));
+        assertSame(this.metrics.getMoveLatency(),histograms.get("moves.latency"));
+
+        ObjectName name = this.metrics.register("tests");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(4L,server.getAttribute(name,"MovesApplied"));
+            assertEquals(0L,server.getAttribute(name,"PiecesFlipped"));
+            long[] movesByCaptured = (long[]) server.getAttribute(name,"MovesByCapturedPieces");
+            assertEquals(4L,movesByCaptured[0]);
+            assertEquals(0L,movesByCaptured[1]);
+            assertThrows(IllegalStateException.class,() -> this.metrics.register("tests"));
+        } finally {
+            MoveMetrics.unregister(name);
+        }
+    }
+}
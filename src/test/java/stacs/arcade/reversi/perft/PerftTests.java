@@ -0,0 +1,80 @@
+package stacs.arcade.reversi.perft;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.ReversiModel;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.WHITE;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.BLACK;
+
+/**
+ * Perft regression tests for the rules of the Reversi model.
+ *
+ * @author 190023753
+ */
+public class PerftTests {
+
+    ReversiModel model = null;
+
+    @BeforeEach
+    void setup() {
+        this.model = new ReversiModel();
+    }
+
+    private void playStandardOpening() throws IllegalMoveException {
+        this.model.makeMove(BLACK,4,3);
+        this.model.makeMove(WHITE,3,3);
+        this.model.makeMove(BLACK,3,4);
+        this.model.makeMove(WHITE,4,4);
+    }
+
+    @Test
+    public void mustCountTheInitialMoves() {
+        assertEquals(1,Perft.perft(this.model,0));
+        assertEquals(4,Perft.perft(this.model,1));
+        assertEquals(12,Perft.perft(this.model,2));
+        assertEquals(24,Perft.perft(this.model,3));
+        assertEquals(24,Perft.perft(this.model,4));
+    }
+
+    @Test
+    public void mustMatchKnownCountsFromTheStandardPosition() throws IllegalMoveException {
+        playStandardOpening();
+        long[] expected = {1, 4, 12, 56, 244, 1396, 8200, 55092};
+        for (int depth = 0; depth < expected.length; depth++) {
+            assertEquals(expected[depth],Perft.perft(this.model,depth));
+        }
+        assertEquals(4,this.model.getTotalMoves());
+    }
+
+    @Test
+    public void divideMustAddUpToPerft() throws IllegalMoveException {
+        playStandardOpening();
+        long[] counts = Perft.divide(this.model,7,ForkJoinPool.commonPool());
+
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        assertEquals(55092,total);
+        assertEquals(55092 / 4,counts[3 * 8 + 2]);
+    }
+
+    @Test
+    public void mustCountAFinishedGameOnce() throws IllegalMoveException {
+        playStandardOpening();
+        String wipeout = "d3c3b3d2e1d6d7e3f4";
+        for (int i = 0; i < wipeout.length(); i += 2) {
+            this.model.makeMove(this.model.nextToMove(),wipeout.charAt(i) - 'a',wipeout.charAt(i + 1) - '1');
+        }
+        assertEquals(0,this.model.getNoWhiteStones());
+
+        for (int depth = 1; depth <= 5; depth++) {
+            assertEquals(1,Perft.perft(this.model,depth));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package stacs.arcade.reversi.record;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.Position;
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.selfplay.RandomPolicy;
+import stacs.arcade.reversi.selfplay.SelfPlaySimulator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the binary game archive.
+ *
+ * @author 190023753
+ */
+public class GameArchiveTests {
+
+    @TempDir
+    Path directory;
+
+    private List<GameRecord> playGames(int games) throws InterruptedException {
+        List<GameRecord> records = Collections.synchronizedList(new ArrayList<>());
+        new SelfPlaySimulator(1,Executors.defaultThreadFactory(),RandomPolicy::new,7L,16).run(games,records::addAll);
+        return records;
+    }
+
+    private Path write(List<GameRecord> records) throws IOException {
+        Path file = this.directory.resolve("games.rva");
+        try (GameArchiveWriter writer = new GameArchiveWriter(file)) {
+            for (GameRecord record : records)
+                writer.write(record);
+        }
+        return file;
+    }
+
+    @Test
+    public void mustReadBackEveryGame() throws InterruptedException, IOException, IllegalMoveException {
+        List<GameRecord> records = playGames(40);
+        try (GameArchiveReader reader = new GameArchiveReader(write(records))) {
+            assertEquals(40,reader.getGameCount());
+            for (int game = 0; game < records.size(); game++) {
+                GameRecord record = records.get(game);
+                assertEquals(record.getMoveCount(),reader.getMoveCount(game));
+                for (int ply = 0; ply < record.getMoveCount(); ply++)
+                    assertEquals(record.getMove(ply),reader.getMove(game,ply));
+
+                ReversiModel model = new ReversiModel();
+                reader.replay(game,model);
+                assertTrue(model.isGameOver());
+                assertEquals(record.getBlackStones(),model.getNoBlackStones());
+            }
+        }
+    }
+
+    @Test
+    public void scanMustVisitTheGamesInOrder() throws InterruptedException, IOException {
+        List<GameRecord> records = playGames(25);
+        try (GameArchiveReader reader = new GameArchiveReader(write(records))) {
+            List<Long> blackWins = new ArrayList<>();
+            reader.scan(view -> {
+                assertEquals(records.get((int) view.getGame()).getMoveCount(),view.getMoveCount());
+                if (view.getBlackStones() > view.getWhiteStones())
+                    blackWins.add(view.getGame());
+            });
+
+            int expected = 0;
+            for (GameRecord record : records)
+                expected += record.getBlackStones() > record.getWhiteStones() ? 1 : 0;
+            assertEquals(expected,blackWins.size());
+        }
+    }
+
+    @Test
+    public void replayMustLetThePlayerWithMovesMoveAgain() throws IOException, IllegalMoveException {
+        ReversiModel model = new ReversiModel();
+        byte[] moves = new byte[16];
+        int count = 0;
+        for (String move : "e4d4d5e5d3c3b3b2f5a3a1c1".split("(?<=\\G..)")) {
+            moves[count] = (byte) ((move.charAt(1) - '1') * 8 + move.charAt(0) - 'a');
+            model.makeMove(model.nextToMove(),moves[count] % 8,moves[count] / 8);
+            count++;
+        }
+        // BLACK has no move after c1, so WHITE moves twice in a row.
+        assertEquals(ReversiModel.PlayerColour.WHITE,model.nextToMove());
+        moves[count] = (byte) Long.numberOfTrailingZeros(model.legalMoves(ReversiModel.PlayerColour.WHITE));
+        model.makeMove(ReversiModel.PlayerColour.WHITE,moves[count] % 8,moves[count] / 8);
+        count++;
+
+        try (GameArchiveReader reader = new GameArchiveReader(write(List.of(new GameRecord(moves,count,0,0))))) {
+            assertEquals(count,reader.getMoveCount(0));
+            ReversiModel replayed = new ReversiModel();
+            reader.replay(0,replayed);
+            assertEquals(model.getHash(),replayed.getHash());
+            assertEquals(model.nextToMove(),replayed.nextToMove());
+        }
+    }
+
+    @Test
+    public void mustRejectMovesOutsideTheGame() throws InterruptedException, IOException {
+        List<GameRecord> records = playGames(2);
+        try (GameArchiveReader reader = new GameArchiveReader(write(records))) {
+            int count = reader.getMoveCount(0);
+            assertEquals(records.get(0).getMove(count - 1),reader.getMove(0,count - 1));
+            assertThrows(IllegalArgumentException.class,() -> reader.getMove(0,count));
+            assertThrows(IllegalArgumentException.class,() -> reader.getMove(0,-1));
+            reader.scan(view -> assertThrows(IllegalArgumentException.class,() -> view.getMove(view.getMoveCount())));
+        }
+    }
+
+    @Test
+    public void indexMustSpanManyBlocks() throws IOException {
+        List<GameRecord> records = new ArrayList<>();
+        for (int game = 0; game < 20_000; game++)
+            records.add(new GameRecord(new byte[]{(byte) (game % 64), 0},1 + game % 2,game % 65,0));
+        Path file = write(records);
+        try (GameArchiveReader reader = new GameArchiveReader(file)) {
+            assertEquals(20_000,reader.getGameCount());
+            for (int game = 0; game < records.size(); game += 999) {
+                assertEquals(1 + game % 2,reader.getMoveCount(game));
+                assertEquals(game % 64,reader.getMove(game,0));
+            }
+        }
+        try (Stream<Path> files = Files.list(this.directory)) {
+            assertEquals(List.of(file),files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void recordMustRejectAModelSetUpFromAPosition() throws IllegalMoveException {
+        ReversiModel model = new ReversiModel();
+        for (String move : "e4d4d5e5d3c3".split("(?<=\\G..)"))
+            model.makeMove(model.nextToMove(),move.charAt(0) - 'a',move.charAt(1) - '1');
+        assertEquals(6,GameRecord.of(model).getMoveCount());
+
+        ReversiModel restored = Position.of(model).toModel();
+        restored.makeMove(restored.nextToMove(),1,2);
+        assertEquals(6,restored.getFirstRecordedMove());
+        assertThrows(IllegalArgumentException.class,() -> GameRecord.of(restored));
+    }
+
+    @Test
+    public void mustRejectOtherFiles() throws IOException {
+        Path file = this.directory.resolve("other.bin");
+        Files.write(file,new byte[64]);
+        assertThrows(IOException.class,() -> new GameArchiveReader(file));
+    }
+
+    @Test
+    public void indexMustRejectMissingGames() throws IOException {
+        try (GameArchiveReader reader = new GameArchiveReader(write(List.of()))) {
+            assertEquals(0,reader.getGameCount());
+            assertThrows(IndexOutOfBoundsException.class,() -> reader.getMoveCount(0));
+        }
+    }
+}
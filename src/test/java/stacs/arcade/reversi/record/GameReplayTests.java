@@ -0,0 +1,113 @@
+package stacs.arcade.reversi.record;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.Position;
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.selfplay.RandomPolicy;
+import stacs.arcade.reversi.selfplay.SelfPlaySimulator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the checkpointed game replay and the position cache.
+ *
+ * @author 190023753
+ */
+public class GameReplayTests {
+
+    List<GameRecord> records = null;
+
+    @BeforeEach
+    void setup() throws InterruptedException {
+        this.records = Collections.synchronizedList(new ArrayList<>());
+        new SelfPlaySimulator(1,Executors.defaultThreadFactory(),RandomPolicy::new,3L,16).run(10,this.records::addAll);
+    }
+
+    private static List<Position> replayFromTheStart(GameRecord record) throws IllegalMoveException {
+        List<Position> positions = new ArrayList<>();
+        ReversiModel model = new ReversiModel();
+        positions.add(Position.of(model));
+        for (int ply = 0; ply < record.getMoveCount(); ply++) {
+            model.makeMove(model.nextToMove(),Bitboard.x(record.getMove(ply)),Bitboard.y(record.getMove(ply)));
+            positions.add(Position.of(model));
+        }
+        return positions;
+    }
+
+    @Test
+    public void everyPositionMustMatchAFullReplay() throws IllegalMoveException {
+        for (int interval : new int[]{1, 5, GameReplay.DEFAULT_INTERVAL, 64}) {
+            GameRecord record = this.records.get(interval % this.records.size());
+            List<Position> expected = replayFromTheStart(record);
+            GameReplay replay = new GameReplay(record,interval,null);
+            for (int ply = record.getMoveCount(); ply >= 0; ply--)
+                assertEquals(expected.get(ply),replay.positionAt(ply));
+            assertEquals(expected.get(20),Position.of(replay.modelAt(20)));
+        }
+    }
+
+    @Test
+    public void viewedPositionsMustBeCachedPerGame() throws IllegalMoveException {
+        PositionCache cache = new PositionCache(1 << 20);
+        GameReplay first = new GameReplay(this.records.get(0),cache);
+        GameReplay second = new GameReplay(this.records.get(1),cache);
+
+        Position position = first.positionAt(21);
+        assertEquals(1,cache.getMisses());
+        assertSame(position,first.positionAt(21));
+        assertEquals(1,cache.getHits());
+        assertEquals(replayFromTheStart(this.records.get(1)).get(21),second.positionAt(21));
+        assertEquals(2,cache.getMisses());
+        assertEquals(2,cache.size());
+    }
+
+    @Test
+    public void replaysOfTheSameGameMustShareTheirPositions() throws IllegalMoveException {
+        PositionCache cache = new PositionCache(1 << 20);
+        GameRecord record = this.records.get(0);
+        GameReplay first = new GameReplay(record,cache);
+        byte[] moves = new byte[record.getMoveCount()];
+        for (int ply = 0; ply < moves.length; ply++)
+            moves[ply] = (byte) record.getMove(ply);
+        // Another session reads its own copy of the game.
+        GameReplay second = new GameReplay(new GameRecord(moves,moves.length,record.getBlackStones(),record.getWhiteStones()),cache);
+
+        Position position = first.positionAt(21);
+        assertSame(position,second.positionAt(21));
+        assertEquals(1,cache.getMisses());
+        assertEquals(1,cache.getHits());
+        assertEquals(1,cache.size());
+    }
+
+    @Test
+    public void theCacheMustStayWithinItsMemory() throws IllegalMoveException {
+        long maxBytes = PositionCache.ENTRY_BYTES * 16L * 3;
+        PositionCache cache = new PositionCache(maxBytes);
+        for (GameRecord record : this.records) {
+            GameReplay replay = new GameReplay(record,4,cache);
+            for (int ply = 0; ply <= record.getMoveCount(); ply++)
+                replay.positionAt(ply);
+        }
+        assertTrue(cache.getEstimatedBytes() <= maxBytes);
+        assertTrue(cache.size() > 0);
+        cache.clear();
+        assertEquals(0,cache.size());
+        assertThrows(IllegalArgumentException.class,() -> new PositionCache(PositionCache.ENTRY_BYTES));
+    }
+
+    @Test
+    public void mustRejectMovesOutsideTheGame() throws IllegalMoveException {
+        GameReplay replay = new GameReplay(this.records.get(0),null);
+        assertThrows(IllegalArgumentException.class,() -> replay.positionAt(-1));
+        assertThrows(IllegalArgumentException.class,() -> replay.positionAt(replay.getMoveCount() + 1));
+        assertThrows(IllegalArgumentException.class,() -> new GameReplay(this.records.get(0),0,null));
+    }
+}
@@ -0,0 +1,81 @@
+package stacs.arcade.reversi.selfplay;
+
+import org.junit.jupiter.api.Test;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.ai.AlphaBetaSearch;
+import stacs.arcade.reversi.record.GameRecord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the self-play simulator.
+ *
+ * @author 190023753
+ */
+public class SelfPlaySimulatorTests {
+
+    private List<GameRecord> play(int threads, long games, int batchSize, List<Integer> batchSizes) throws InterruptedException {
+        List<GameRecord> records = Collections.synchronizedList(new ArrayList<>());
+        SelfPlaySimulator simulator = new SelfPlaySimulator(threads,Executors.defaultThreadFactory(),RandomPolicy::new,99L,batchSize);
+        SelfPlayStats stats = simulator.run(games,batch -> {
+            batchSizes.add(batch.size());
+            records.addAll(batch);
+        });
+        assertEquals(games,stats.getGames());
+        return records;
+    }
+
+    @Test
+    public void mustPlayEveryGameToTheEnd() throws InterruptedException, IllegalMoveException {
+        List<GameRecord> records = play(3,50,8,Collections.synchronizedList(new ArrayList<>()));
+
+        assertEquals(50,records.size());
+        for (GameRecord record : records) {
+            ReversiModel model = record.replay();
+            assertTrue(model.isGameOver());
+            assertEquals(record.getBlackStones(),model.getNoBlackStones());
+            assertEquals(record.getWhiteStones(),model.getNoWhiteStones());
+        }
+    }
+
+    @Test
+    public void mustStreamGamesInBatches() throws InterruptedException {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        play(2,21,5,batchSizes);
+
+        int total = 0;
+        for (int size : batchSizes) {
+            assertTrue(size <= 5);
+            total += size;
+        }
+        assertEquals(21,total);
+        assertEquals(5,batchSizes.size());
+    }
+
+    @Test
+    public void sameSeedMustPlayTheSameGames() throws InterruptedException {
+        List<GameRecord> first = play(1,10,4,new ArrayList<>());
+        List<GameRecord> second = play(1,10,4,new ArrayList<>());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getMoveCount(),second.get(i).getMoveCount());
+            assertEquals(first.get(i).getBlackStones(),second.get(i).getBlackStones());
+        }
+    }
+
+    @Test
+    public void searchPolicyMustPlayLegalGames() throws InterruptedException, IllegalMoveException {
+        SelfPlaySimulator simulator = new SelfPlaySimulator(1,Executors.defaultThreadFactory(),
+                () -> new SearchPolicy(new AlphaBetaSearch(),2,0.1),5L,1);
+        List<GameRecord> records = new ArrayList<>();
+        simulator.run(2,records::addAll);
+
+        assertEquals(2,records.size());
+        assertTrue(records.get(0).replay().isGameOver());
+    }
+}
@@ -0,0 +1,164 @@
+package stacs.arcade.reversi.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.Position;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.BLACK;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.WHITE;
+
+/**
+ * Unit tests for the game sessions and their socket protocol.
+ *
+ * @author 190023753
+ */
+public class SessionServerTests {
+
+    SessionManager sessions = null;
+
+    @BeforeEach
+    void setup() {
+        this.sessions = new SessionManager();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.sessions.close();
+    }
+
+    private void playRandomly(GameSession session, long seed) throws Exception {
+        Random random = new Random(seed);
+        int[] moves = new int[Bitboard.SQUARES];
+        Position position = session.getPosition();
+        while (position.legalMoves() != 0) {
+            int count = Bitboard.squares(position.legalMoves(),moves);
+            int square = moves[random.nextInt(count)];
+            position = session.move(position.nextToMove(),Bitboard.x(square),Bitboard.y(square)).get();
+        }
+    }
+
+    @Test
+    public void gamesMustRunConcurrently() throws Exception {
+        List<Thread> clients = new ArrayList<>();
+        List<GameSession> games = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            GameSession session = this.sessions.create();
+            long seed = i;
+            games.add(session);
+            clients.add(new Thread(() -> {
+                try {
+                    playRandomly(session,seed);
+                } catch (Exception e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            }));
+        }
+        for (Thread client : clients)
+            client.start();
+        for (Thread client : clients)
+            client.join();
+
+        assertTrue(failures.isEmpty());
+        assertEquals(20,this.sessions.size());
+        long moves = 0;
+        for (GameSession game : games) {
+            assertEquals(0,game.getPosition().legalMoves());
+            moves += game.getPosition().getMoveCount();
+        }
+        assertEquals(moves,this.sessions.getMoveLatency().getCount());
+    }
+
+    @Test
+    public void illegalMovesMustBeRejectedInOrder() throws Exception {
+        GameSession session = this.sessions.create();
+        CompletableFuture<Position> first = session.move(BLACK,3,3);
+        CompletableFuture<Position> again = session.move(WHITE,3,3);
+        CompletableFuture<Position> wrongPlayer = session.move(BLACK,4,4);
+
+        assertEquals(BLACK,first.get().getAt(3,3));
+        ExecutionException occupied = assertThrows(ExecutionException.class,again::get);
+        assertTrue(occupied.getCause() instanceof IllegalMoveException);
+        assertThrows(ExecutionException.class,wrongPlayer::get);
+        assertEquals(1,session.getPosition().getMoveCount());
+    }
+
+    @Test
+    public void protocolMustServeGamesOverTheSocket() throws IOException {
+        try (SessionServer server = new SessionServer(this.sessions,0);
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(),server.getPort());
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(),true,StandardCharsets.UTF_8)) {
+            out.println("NEW");
+            String id = in.readLine().substring(3);
+            out.println("MOVE " + id + " X e4");
+            String reply = in.readLine();
+            assertTrue(reply.startsWith("OK "));
+            assertEquals(BLACK,Position.parse(reply.substring(3)).getAt(4,3));
+
+            out.println("MOVE " + id + " X d4");
+            assertTrue(in.readLine().startsWith("ERR "));
+            out.println("STATE " + id);
+            assertEquals(reply,in.readLine());
+            out.println("STATE 999");
+            assertEquals("ERR No game 999",in.readLine());
+            out.println("JUMP");
+            assertTrue(in.readLine().startsWith("ERR "));
+            out.println("CLOSE " + id);
+            assertEquals("OK",in.readLine());
+            assertEquals(0,this.sessions.size());
+        }
+    }
+
+    @Test
+    public void platformThreadsMustRefuseConnectionsOverTheLimit() throws Exception {
+        assumeFalse(VirtualThreads.available());
+        try (SessionServer server = new SessionServer(this.sessions,0,1)) {
+            try (Socket first = new Socket(InetAddress.getLoopbackAddress(),server.getPort());
+                 BufferedReader in = new BufferedReader(new InputStreamReader(first.getInputStream(),StandardCharsets.UTF_8));
+                 PrintWriter out = new PrintWriter(first.getOutputStream(),true,StandardCharsets.UTF_8)) {
+                out.println("NEW");
+                assertTrue(in.readLine().startsWith("OK "));
+
+                try (Socket second = new Socket(InetAddress.getLoopbackAddress(),server.getPort());
+                     BufferedReader refused = new BufferedReader(new InputStreamReader(second.getInputStream(),StandardCharsets.UTF_8))) {
+                    assertEquals("ERR Server busy",refused.readLine());
+                    assertNull(refused.readLine());
+                }
+            }
+
+            // Once the first client has gone, its thread serves the next one.
+            String reply = "ERR Server busy";
+            for (int attempt = 0; attempt < 100 && reply.equals("ERR Server busy"); attempt++) {
+                Thread.sleep(10);
+                try (Socket next = new Socket(InetAddress.getLoopbackAddress(),server.getPort());
+                     BufferedReader in = new BufferedReader(new InputStreamReader(next.getInputStream(),StandardCharsets.UTF_8));
+                     PrintWriter out = new PrintWriter(next.getOutputStream(),true,StandardCharsets.UTF_8)) {
+                    out.println("NEW");
+                    reply = in.readLine();
+                }
+            }
+            assertTrue(reply.startsWith("OK "));
+        }
+    }
+}
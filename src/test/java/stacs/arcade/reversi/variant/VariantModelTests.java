@@ -0,0 +1,121 @@
+package stacs.arcade.reversi.variant;
+
+import org.junit.jupiter.api.Test;
+import stacs.arcade.reversi.Bitboard;
+import stacs.arcade.reversi.IllegalMoveException;
+import stacs.arcade.reversi.MoveResult;
+import stacs.arcade.reversi.ReversiModel;
+import stacs.arcade.reversi.ReversiModel.PlayerColour;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.BLACK;
+import static stacs.arcade.reversi.ReversiModel.PlayerColour.WHITE;
+
+/**
+ * Unit tests for the Reversi variants on other board sizes.
+ *
+ * @author 190023753
+ */
+public class VariantModelTests {
+
+    private static final int[][] DIRECTIONS = {{-1,-1},{0,-1},{1,-1},{-1,0},{1,0},{-1,1},{0,1},{1,1}};
+
+    /* Counts the pieces a move would capture by walking the board field by field. */
+    private int referenceCaptures(VariantModel model, PlayerColour player, int x, int y) {
+        if (model.getAt(x,y) != null)
+            return 0;
+        int size = model.getSize();
+        int captures = 0;
+        for (int[] direction : DIRECTIONS) {
+            int run = 0;
+            int cx = x + direction[0], cy = y + direction[1];
+            while (cx >= 0 && cx < size && cy >= 0 && cy < size && model.getAt(cx,cy) != null && model.getAt(cx,cy) != player) {
+                run++;
+                cx += direction[0];
+                cy += direction[1];
+            }
+            if (cx >= 0 && cx < size && cy >= 0 && cy < size && model.getAt(cx,cy) == player)
+                captures += run;
+        }
+        return captures;
+    }
+
+    private void playAgainstReference(int size, long seed) {
+        VariantModel model = new VariantModel(size);
+        Random random = new Random(seed);
+        int[] moves = new int[size * size];
+        while (!model.isGameOver()) {
+            PlayerColour player = model.nextToMove();
+            int count = model.legalMoves(player,moves);
+            if (model.getTotalMoves() >= 4) {
+                int expected = 0;
+                for (int square = 0; square < size * size; square++) {
+                    if (referenceCaptures(model,player,square % size,square / size) > 0)
+                        expected++;
+                }
+                assertEquals(expected,count);
+            }
+            int square = moves[random.nextInt(count)];
+            int stones = player == BLACK ? model.getNoBlackStones() : model.getNoWhiteStones();
+            int captures = model.getTotalMoves() < 4 ? 0 : referenceCaptures(model,player,square % size,square / size);
+            assertEquals(MoveResult.OK,model.tryMove(player,square % size,square / size));
+            assertEquals(stones + captures + 1,player == BLACK ? model.getNoBlackStones() : model.getNoWhiteStones());
+        }
+        assertEquals(model.getTotalMoves(),model.getNoBlackStones() + model.getNoWhiteStones());
+    }
+
+    @Test
+    public void smallAndLargeBoardsMustMatchAFieldByFieldReference() {
+        for (int size : new int[]{4, 6, 10, 16})
+            for (long seed = 0; seed < 3; seed++)
+                playAgainstReference(size,seed);
+    }
+
+    @Test
+    public void standardSizeMustPlayLikeTheModel() throws IllegalMoveException {
+        VariantModel variant = new VariantModel(Bitboard.SIZE);
+        ReversiModel model = new ReversiModel();
+        Random random = new Random(9);
+        int[] moves = new int[Bitboard.SQUARES];
+        int[] variantMoves = new int[Bitboard.SQUARES];
+        while (!model.isGameOver()) {
+            assertFalse(variant.isGameOver());
+            assertEquals(model.nextToMove(),variant.nextToMove());
+            int count = model.legalMoves(model.nextToMove(),moves);
+            assertEquals(count,variant.legalMoves(variant.nextToMove(),variantMoves));
+            assertArrayEquals(Arrays.copyOf(moves,count),Arrays.copyOf(variantMoves,count));
+            int square = moves[random.nextInt(count)];
+            model.makeMove(model.nextToMove(),Bitboard.x(square),Bitboard.y(square));
+            variant.makeMove(variant.nextToMove(),Bitboard.x(square),Bitboard.y(square));
+            assertEquals(model.getNoBlackStones(),variant.getNoBlackStones());
+        }
+        assertTrue(variant.isGameOver());
+        assertEquals(model.winner(),variant.winner());
+    }
+
+    @Test
+    public void openingMustUseTheCentreOfTheBoard() throws IllegalMoveException {
+        VariantModel model = new VariantModel(10);
+        assertTrue(model.isLegal(4,4));
+        assertTrue(model.isLegal(5,5));
+        assertFalse(model.isLegal(3,3));
+        assertEquals(MoveResult.OPENING_CONSTRAINT,model.tryMove(BLACK,3,3));
+        model.makeMove(BLACK,4,5);
+        assertEquals(WHITE,model.nextToMove());
+        assertEquals(MoveResult.OCCUPIED,model.tryMove(WHITE,4,5));
+        assertEquals(MoveResult.OUT_OF_BOUNDS,model.tryMove(WHITE,10,0));
+        assertThrows(IllegalMoveException.class,() -> model.makeMove(BLACK,5,5));
+        assertNull(model.getAt(-1,0));
+    }
+
+    @Test
+    public void unsupportedSizesMustBeRejected() {
+        assertThrows(IllegalArgumentException.class,() -> new VariantModel(7));
+        assertThrows(IllegalArgumentException.class,() -> new VariantModel(2));
+        assertThrows(IllegalArgumentException.class,() -> new VariantModel(18));
+        assertEquals(16,new VariantModel(16).getSize());
+    }
+}